@@ -87,69 +87,86 @@ public interface DebuggerClientService {
     void checkEvents(@NotNull String id, @NotNull AsyncRequestCallback<DebuggerEventList> callback);
 
     /**
-     * Get dump of fields and local variable of current stack frame.
+     * Get dump of fields and local variable of current stack frame of the suspended thread.
      *
      * @param id
+     * @param threadId
+     *         id of the thread from the event which suspended it
      * @param callback
      */
-    void getStackFrameDump(@NotNull String id, @NotNull AsyncRequestCallback<StackFrameDump> callback);
+    void getStackFrameDump(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<StackFrameDump> callback);
 
     /**
-     * Resume process.
+     * Resume the suspended thread, other suspended threads stay suspended.
      *
      * @param id
+     * @param threadId
      * @param callback
      */
-    void resume(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback);
+    void resume(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback);
 
     /**
-     * Returns value of a variable.
+     * Returns value of a variable with range of its nested variables. Total number of nested variables is returned as child
+     * count of the value.
      *
      * @param id
+     * @param threadId
      * @param var
+     * @param offset
+     *         index of the first nested variable
+     * @param limit
+     *         max number of nested variables
      * @param callback
      */
-    void getValue(@NotNull String id, @NotNull Variable var, @NotNull AsyncRequestCallback<Value> callback);
+    void getValue(@NotNull String id, long threadId, @NotNull Variable var, int offset, int limit,
+                  @NotNull AsyncRequestCallback<Value> callback);
 
     /**
      * Sets value of a variable.
      *
      * @param id
+     * @param threadId
      * @param request
      * @param callback
      */
-    void setValue(@NotNull String id, @NotNull UpdateVariableRequest request, @NotNull AsyncRequestCallback<Void> callback);
+    void setValue(@NotNull String id, long threadId, @NotNull UpdateVariableRequest request,
+                  @NotNull AsyncRequestCallback<Void> callback);
 
     /**
      * Do step into.
      *
      * @param id
+     * @param threadId
      * @param callback
      */
-    void stepInto(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback);
+    void stepInto(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback);
 
     /**
      * Do step over.
      *
      * @param id
+     * @param threadId
      * @param callback
      */
-    void stepOver(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback);
+    void stepOver(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback);
 
     /**
      * Do step return.
      *
      * @param id
+     * @param threadId
      * @param callback
      */
-    void stepReturn(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback);
+    void stepReturn(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback);
 
     /**
      * Evaluate an expression.
      *
      * @param id
+     * @param threadId
      * @param expression
      * @param callback
      */
-    void evaluateExpression(@NotNull String id, @NotNull String expression, @NotNull AsyncRequestCallback<String> callback);
+    void evaluateExpression(@NotNull String id, long threadId, @NotNull String expression,
+                            @NotNull AsyncRequestCallback<String> callback);
 }
\ No newline at end of file
@@ -115,57 +115,60 @@ public class DebuggerClientServiceImpl implements DebuggerClientService {
 
     /** {@inheritDoc} */
     @Override
-    public void getStackFrameDump(@NotNull String id, @NotNull AsyncRequestCallback<StackFrameDump> callback) {
-        final String requestUrl = baseUrl + "/dump/" + id;
+    public void getStackFrameDump(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<StackFrameDump> callback) {
+        final String requestUrl = baseUrl + "/dump/" + id + "?thread=" + threadId;
         asyncRequestFactory.createGetRequest(requestUrl).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void resume(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback) {
-        final String requestUrl = baseUrl + "/resume/" + id;
+    public void resume(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback) {
+        final String requestUrl = baseUrl + "/resume/" + id + "?thread=" + threadId;
         asyncRequestFactory.createGetRequest(requestUrl).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void getValue(@NotNull String id, @NotNull Variable var, @NotNull AsyncRequestCallback<Value> callback) {
-        final String requestUrl = baseUrl + "/value/get/" + id;
+    public void getValue(@NotNull String id, long threadId, @NotNull Variable var, int offset, int limit,
+                         @NotNull AsyncRequestCallback<Value> callback) {
+        final String requestUrl = baseUrl + "/value/get/" + id + "?thread=" + threadId + "&offset=" + offset + "&limit=" + limit;
         asyncRequestFactory.createPostRequest(requestUrl, var.getVariablePath()).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void setValue(@NotNull String id, @NotNull UpdateVariableRequest request, @NotNull AsyncRequestCallback<Void> callback) {
-        final String requestUrl = baseUrl + "/value/set/" + id;
+    public void setValue(@NotNull String id, long threadId, @NotNull UpdateVariableRequest request,
+                         @NotNull AsyncRequestCallback<Void> callback) {
+        final String requestUrl = baseUrl + "/value/set/" + id + "?thread=" + threadId;
         asyncRequestFactory.createPostRequest(requestUrl, request).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void stepInto(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback) {
-        final String requestUrl = baseUrl + "/step/into/" + id;
+    public void stepInto(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback) {
+        final String requestUrl = baseUrl + "/step/into/" + id + "?thread=" + threadId;
         asyncRequestFactory.createGetRequest(requestUrl).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void stepOver(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback) {
-        final String requestUrl = baseUrl + "/step/over/" + id;
+    public void stepOver(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback) {
+        final String requestUrl = baseUrl + "/step/over/" + id + "?thread=" + threadId;
         asyncRequestFactory.createGetRequest(requestUrl).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void stepReturn(@NotNull String id, @NotNull AsyncRequestCallback<Void> callback) {
-        final String requestUrl = baseUrl + "/step/out/" + id;
+    public void stepReturn(@NotNull String id, long threadId, @NotNull AsyncRequestCallback<Void> callback) {
+        final String requestUrl = baseUrl + "/step/out/" + id + "?thread=" + threadId;
         asyncRequestFactory.createGetRequest(requestUrl).loader(loader).send(callback);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void evaluateExpression(@NotNull String id, @NotNull String expression, @NotNull AsyncRequestCallback<String> callback) {
-        final String requestUrl = baseUrl + "/expression/" + id;
+    public void evaluateExpression(@NotNull String id, long threadId, @NotNull String expression,
+                                   @NotNull AsyncRequestCallback<String> callback) {
+        final String requestUrl = baseUrl + "/expression/" + id + "?thread=" + threadId;
         asyncRequestFactory.createPostRequest(requestUrl, null)
                            .data(expression)
                            .header(ACCEPT, TEXT_PLAIN)
@@ -68,7 +68,9 @@ import org.vectomatic.dom.svg.ui.SVGResource;
 
 import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.codenvy.ide.api.notification.Notification.Type.ERROR;
 import static com.codenvy.ide.api.notification.Notification.Type.INFO;
@@ -84,7 +86,9 @@ import static com.codenvy.ide.ext.java.jdi.shared.DebuggerEvent.STEP;
  */
 @Singleton
 public class DebuggerPresenter extends BasePresenter implements DebuggerView.ActionDelegate, Debugger {
-    private static final String TITLE = "Debug";
+    private static final String TITLE               = "Debug";
+    /** Max number of nested variables requested at once. */
+    private static final int    VARIABLES_PAGE_SIZE = 100;
     private final DtoFactory                             dtoFactory;
     private final DtoUnmarshallerFactory                 dtoUnmarshallerFactory;
     private       ProjectServiceClient                   projectServiceClient;
@@ -114,6 +118,10 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     private       ApplicationProcessDescriptor           appDescriptor;
     private       ProjectDescriptor                      project;
     private       Location                               location;
+    /** Locations of suspended threads in order they were suspended. */
+    private final Map<Long, Location>                    suspendedThreads;
+    /** Thread which location and variables are shown, other suspended threads wait until it is resumed. */
+    private       Long                                   currentThread;
 
     /** Create presenter. */
     @Inject
@@ -148,6 +156,7 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
         this.gutterManager = gutterManager;
         this.resolverFactory = resolverFactory;
         this.variables = new ArrayList<>();
+        this.suspendedThreads = new LinkedHashMap<>();
         this.editorAgent = editorAgent;
         this.evaluateExpressionPresenter = evaluateExpressionPresenter;
         this.changeValuePresenter = changeValuePresenter;
@@ -262,11 +271,6 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
             return;
         }
 
-        FileNode activeFile = null;
-        EditorPartPresenter activeEditor = editorAgent.getActiveEditor();
-        if (activeEditor != null) {
-            activeFile = activeEditor.getEditorInput().getFile();
-        }
         Location location;
         List<DebuggerEvent> events = eventList.getEvents();
         for (DebuggerEvent event : events) {
@@ -281,32 +285,55 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
                     Log.error(DebuggerPresenter.class, "Unknown type of debugger event: " + event.getType());
                     return;
             }
-            this.location = location;
-
-            final String filePath = resolveFilePathByLocation(location);
-            if (activeFile == null || !filePath.equalsIgnoreCase(activeFile.getPath())) {
-                final Location finalLocation = location;
-                openFile(location, new AsyncCallback<ItemReference>() {
-                    @Override
-                    public void onSuccess(ItemReference result) {
-                        if (result != null && filePath != null && filePath.equalsIgnoreCase(result.getPath())) {
-                            gutterManager.markCurrentBreakpoint(finalLocation.getLineNumber() - 1);
-                        }
-                    }
+            long threadId = event.getThreadId();
+            suspendedThreads.put(threadId, location);
+            if (currentThread == null || currentThread == threadId) {
+                currentThread = threadId;
+                showLocation(location);
+            }
+        }
+    }
 
-                    @Override
-                    public void onFailure(Throwable caught) {
-                        Notification notification =
-                                new Notification(constant.errorSourceNotFoundForClass(finalLocation.getClassName()), WARNING);
-                        notificationManager.showNotification(notification);
+    /** Show the next suspended thread if any. */
+    private void showNextSuspendedThread() {
+        if (!suspendedThreads.isEmpty()) {
+            Map.Entry<Long, Location> next = suspendedThreads.entrySet().iterator().next();
+            currentThread = next.getKey();
+            showLocation(next.getValue());
+        }
+    }
+
+    /** Open file of the current thread location, mark its line and load its variables. */
+    private void showLocation(@NotNull final Location location) {
+        this.location = location;
+
+        FileNode activeFile = null;
+        EditorPartPresenter activeEditor = editorAgent.getActiveEditor();
+        if (activeEditor != null) {
+            activeFile = activeEditor.getEditorInput().getFile();
+        }
+        final String filePath = resolveFilePathByLocation(location);
+        if (activeFile == null || !filePath.equalsIgnoreCase(activeFile.getPath())) {
+            openFile(location, new AsyncCallback<ItemReference>() {
+                @Override
+                public void onSuccess(ItemReference result) {
+                    if (result != null && filePath != null && filePath.equalsIgnoreCase(result.getPath())) {
+                        gutterManager.markCurrentBreakpoint(location.getLineNumber() - 1);
                     }
-                });
-            } else {
-                gutterManager.markCurrentBreakpoint(location.getLineNumber() - 1);
-            }
-            getStackFrameDump();
-            changeButtonsEnableState(true);
+                }
+
+                @Override
+                public void onFailure(Throwable caught) {
+                    Notification notification =
+                            new Notification(constant.errorSourceNotFoundForClass(location.getClassName()), WARNING);
+                    notificationManager.showNotification(notification);
+                }
+            });
+        } else {
+            gutterManager.markCurrentBreakpoint(location.getLineNumber() - 1);
         }
+        getStackFrameDump();
+        changeButtonsEnableState(true);
     }
 
     /**
@@ -341,7 +368,7 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     }
 
     private void getStackFrameDump() {
-        service.getStackFrameDump(debuggerInfo.getId(),
+        service.getStackFrameDump(debuggerInfo.getId(), currentThread,
                                   new AsyncRequestCallback<StackFrameDump>(dtoUnmarshallerFactory.newUnmarshaller(StackFrameDump.class)) {
                                       @Override
                                       protected void onSuccess(StackFrameDump result) {
@@ -375,11 +402,20 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** {@inheritDoc} */
     @Override
     public void onResumeButtonClicked() {
+        if (currentThread == null) return;
         changeButtonsEnableState(false);
-        service.resume(debuggerInfo.getId(), new AsyncRequestCallback<Void>() {
+        final long threadId = currentThread;
+        final Location suspendedAt = suspendedThreads.get(threadId);
+        service.resume(debuggerInfo.getId(), threadId, new AsyncRequestCallback<Void>() {
             @Override
             protected void onSuccess(Void result) {
-                resetStates();
+                // thread may be already suspended again, then its new location is shown
+                if (suspendedThreads.get(threadId) == suspendedAt) {
+                    suspendedThreads.remove(threadId);
+                    currentThread = null;
+                    resetStates();
+                    showNextSuspendedThread();
+                }
             }
 
             @Override
@@ -418,11 +454,17 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** {@inheritDoc} */
     @Override
     public void onStepIntoButtonClicked() {
-        if (!view.resetStepIntoButton(false)) return;
-        service.stepInto(debuggerInfo.getId(), new AsyncRequestCallback<Void>() {
+        if (currentThread == null || !view.resetStepIntoButton(false)) return;
+        final long threadId = currentThread;
+        final Location suspendedAt = suspendedThreads.get(threadId);
+        service.stepInto(debuggerInfo.getId(), threadId, new AsyncRequestCallback<Void>() {
             @Override
             protected void onSuccess(Void result) {
-                resetStates();
+                // stepping thread stays current until it is suspended at the next location
+                if (suspendedThreads.get(threadId) == suspendedAt) {
+                    suspendedThreads.remove(threadId);
+                    resetStates();
+                }
                 view.resetStepIntoButton(true);
             }
 
@@ -438,11 +480,17 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** {@inheritDoc} */
     @Override
     public void onStepOverButtonClicked() {
-        if (!view.resetStepOverButton(false)) return;
-        service.stepOver(debuggerInfo.getId(), new AsyncRequestCallback<Void>() {
+        if (currentThread == null || !view.resetStepOverButton(false)) return;
+        final long threadId = currentThread;
+        final Location suspendedAt = suspendedThreads.get(threadId);
+        service.stepOver(debuggerInfo.getId(), threadId, new AsyncRequestCallback<Void>() {
             @Override
             protected void onSuccess(Void result) {
-                resetStates();
+                // stepping thread stays current until it is suspended at the next location
+                if (suspendedThreads.get(threadId) == suspendedAt) {
+                    suspendedThreads.remove(threadId);
+                    resetStates();
+                }
                 view.resetStepOverButton(true);
             }
 
@@ -459,11 +507,17 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** {@inheritDoc} */
     @Override
     public void onStepReturnButtonClicked() {
-        if (!view.resetStepReturnButton(false)) return;
-        service.stepReturn(debuggerInfo.getId(), new AsyncRequestCallback<Void>() {
+        if (currentThread == null || !view.resetStepReturnButton(false)) return;
+        final long threadId = currentThread;
+        final Location suspendedAt = suspendedThreads.get(threadId);
+        service.stepReturn(debuggerInfo.getId(), threadId, new AsyncRequestCallback<Void>() {
             @Override
             protected void onSuccess(Void result) {
-                resetStates();
+                // stepping thread stays current until it is suspended at the next location
+                if (suspendedThreads.get(threadId) == suspendedAt) {
+                    suspendedThreads.remove(threadId);
+                    resetStates();
+                }
                 view.resetStepReturnButton(true);
             }
 
@@ -480,11 +534,11 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** {@inheritDoc} */
     @Override
     public void onChangeValueButtonClicked() {
-        if (selectedVariable == null) {
+        if (selectedVariable == null || currentThread == null) {
             return;
         }
 
-        changeValuePresenter.showDialog(debuggerInfo, selectedVariable, new AsyncCallback<String>() {
+        changeValuePresenter.showDialog(debuggerInfo, currentThread, selectedVariable, new AsyncCallback<String>() {
             @Override
             public void onSuccess(String s) {
                 getStackFrameDump();
@@ -500,31 +554,49 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** {@inheritDoc} */
     @Override
     public void onEvaluateExpressionButtonClicked() {
-        evaluateExpressionPresenter.showDialog(debuggerInfo);
+        if (currentThread == null) {
+            return;
+        }
+        evaluateExpressionPresenter.showDialog(debuggerInfo, currentThread);
     }
 
     /** {@inheritDoc} */
     @Override
     public void onExpandVariablesTree() {
         List<Variable> rootVariables = selectedVariable.getVariables();
-        if (rootVariables.size() == 0) {
-            service.getValue(debuggerInfo.getId(), selectedVariable,
-                             new AsyncRequestCallback<Value>(dtoUnmarshallerFactory.newUnmarshaller(Value.class)) {
-                                 @Override
-                                 protected void onSuccess(Value result) {
-                                     List<Variable> variables = result.getVariables();
-                                     view.setVariablesIntoSelectedVariable(variables);
+        if (rootVariables.size() == 0 && currentThread != null) {
+            loadNestedVariables(currentThread, selectedVariable, new ArrayList<Variable>());
+        }
+    }
+
+    /** Load nested variables of variable by pages until all of them are loaded or thread is not current anymore. */
+    private void loadNestedVariables(final long threadId, @NotNull final Variable variable,
+                                     @NotNull final List<Variable> loaded) {
+        service.getValue(debuggerInfo.getId(), threadId, variable, loaded.size(), VARIABLES_PAGE_SIZE,
+                         new AsyncRequestCallback<Value>(dtoUnmarshallerFactory.newUnmarshaller(Value.class)) {
+                             @Override
+                             protected void onSuccess(Value result) {
+                                 List<Variable> page = result.getVariables();
+                                 loaded.addAll(page);
+                                 if (variable == selectedVariable) {
+                                     view.setVariablesIntoSelectedVariable(loaded);
                                      view.updateSelectedVariable();
+                                 } else {
+                                     variable.setVariables(loaded);
                                  }
-
-                                 @Override
-                                 protected void onFailure(Throwable exception) {
-                                     Notification notification = new Notification(exception.getMessage(), ERROR);
-                                     notificationManager.showNotification(notification);
+                                 if (!page.isEmpty() && loaded.size() < result.getChildCount() && debuggerInfo != null
+                                     && currentThread != null && currentThread == threadId) {
+                                     loadNestedVariables(threadId, variable, loaded);
                                  }
                              }
-                            );
-        }
+
+                             @Override
+                             protected void onFailure(Throwable exception) {
+                                 Notification notification = new Notification(exception.getMessage(), ERROR);
+                                 notificationManager.showNotification(notification);
+                             }
+                         }
+                        );
     }
 
     /** {@inheritDoc} */
@@ -658,6 +730,8 @@ public class DebuggerPresenter extends BasePresenter implements DebuggerView.Act
     /** Perform some action after disconnecting a debugger. */
     private void onDebuggerDisconnected() {
         debuggerInfo = null;
+        suspendedThreads.clear();
+        currentThread = null;
         gutterManager.unmarkCurrentBreakpoint();
         gutterManager.removeAllBreakPoints();
         Notification notification =
@@ -40,6 +40,8 @@ public class ChangeValuePresenter implements ChangeValueView.ActionDelegate {
     private       Variable                        variable;
     /** Connected debugger information. */
     private       DebuggerInfo                    debuggerInfo;
+    /** Suspended thread whose variable is changed. */
+    private       long                            threadId;
     private       DebuggerClientService           service;
     private       JavaRuntimeLocalizationConstant constant;
     private       NotificationManager             notificationManager;
@@ -58,8 +60,10 @@ public class ChangeValuePresenter implements ChangeValueView.ActionDelegate {
     }
 
     /** Show dialog. */
-    public void showDialog(@NotNull DebuggerInfo debuggerInfo, @NotNull Variable variable, @NotNull AsyncCallback<String> callback) {
+    public void showDialog(@NotNull DebuggerInfo debuggerInfo, long threadId, @NotNull Variable variable,
+                           @NotNull AsyncCallback<String> callback) {
         this.debuggerInfo = debuggerInfo;
+        this.threadId = threadId;
         this.variable = variable;
         this.callback = callback;
 
@@ -85,7 +89,7 @@ public class ChangeValuePresenter implements ChangeValueView.ActionDelegate {
         updateVariableRequest.setVariablePath(variable.getVariablePath());
         updateVariableRequest.setExpression(newValue);
 
-        service.setValue(debuggerInfo.getId(), updateVariableRequest, new AsyncRequestCallback<Void>() {
+        service.setValue(debuggerInfo.getId(), threadId, updateVariableRequest, new AsyncRequestCallback<Void>() {
             @Override
             protected void onSuccess(Void result) {
                 callback.onSuccess(newValue);
@@ -30,6 +30,8 @@ public class EvaluateExpressionPresenter implements EvaluateExpressionView.Actio
     private EvaluateExpressionView          view;
     private DebuggerClientService           service;
     private DebuggerInfo                    debuggerInfo;
+    /** Suspended thread in whose frame expression is evaluated. */
+    private long                            threadId;
     private JavaRuntimeLocalizationConstant constant;
 
     /** Create presenter. */
@@ -43,8 +45,9 @@ public class EvaluateExpressionPresenter implements EvaluateExpressionView.Actio
     }
 
     /** Show dialog. */
-    public void showDialog(@NotNull DebuggerInfo debuggerInfo) {
+    public void showDialog(@NotNull DebuggerInfo debuggerInfo, long threadId) {
         this.debuggerInfo = debuggerInfo;
+        this.threadId = threadId;
         view.setExpression("");
         view.setResult("");
         view.setEnableEvaluateButton(false);
@@ -67,7 +70,7 @@ public class EvaluateExpressionPresenter implements EvaluateExpressionView.Actio
     @Override
     public void onEvaluateClicked() {
         view.setEnableEvaluateButton(false);
-        service.evaluateExpression(debuggerInfo.getId(), view.getExpression(),
+        service.evaluateExpression(debuggerInfo.getId(), threadId, view.getExpression(),
                                    new AsyncRequestCallback<String>(new StringUnmarshaller()) {
                                        @Override
                                        protected void onSuccess(String result) {
@@ -11,6 +11,7 @@
 package com.codenvy.ide.ext.java.jdi.server;
 
 import com.codenvy.dto.server.DtoFactory;
+import com.codenvy.ide.ext.java.jdi.server.expression.CompiledCondition;
 import com.codenvy.ide.ext.java.jdi.server.expression.Evaluator;
 import com.codenvy.ide.ext.java.jdi.server.expression.ExpressionParser;
 import com.codenvy.ide.ext.java.jdi.shared.BreakPoint;
@@ -66,6 +67,10 @@ import static com.codenvy.commons.json.JsonHelper.toJson;
  * Connects to JVM over Java Debug Wire Protocol handle its events. All methods of this class may throws
  * DebuggerException. Typically such exception caused by errors in underlying JDI (Java Debug Interface), e.g.
  * connection errors. Instance of Debugger is not thread-safe.
+ * <p/>
+ * Breakpoints and steps suspend only the thread which reached them, other threads of the target JVM keep running. Each
+ * suspended thread is inspected, stepped and resumed separately by its unique id. Methods which don't take id of thread use
+ * the thread suspended last.
  *
  * @author andrew00x
  * @author Artem Zatsarynnyy
@@ -76,6 +81,8 @@ public class Debugger implements EventsHandler {
     private static final ConcurrentMap<String, Debugger> instances            = new ConcurrentHashMap<>();
     private static final String                          EVENTS_CHANNEL       = "debugger:events:";
     private static final String                          DISCONNECTED_CHANNEL = "debugger:disconnected:";
+    /** Max number of nested variables returned by {@link #getValue(VariablePath)} if range is not specified. */
+    public static final  int                             MAX_VARIABLES        = 100;
 
     public static Debugger newInstance(String host, int port) throws VMConnectException {
         Debugger d = new Debugger(host, port);
@@ -108,10 +115,15 @@ public class Debugger implements EventsHandler {
     private VirtualMachine  vm;
     private EventsCollector eventsCollector;
 
-    /** Current thread. Not <code>null</code> is thread suspended, e.g breakpoint reached. */
-    private ThreadReference thread;
-    /** Current stack frame. Not <code>null</code> is thread suspended, e.g breakpoint reached. */
-    private JdiStackFrame   stackFrame;
+    /** Suspended threads by unique id. Thread is added when breakpoint or end of step reached and removed when resumed. */
+    private final ConcurrentMap<Long, ThreadState> suspendedThreads = new ConcurrentHashMap<>();
+    /**
+     * Thread used by requests which don't specify thread. It is the first suspended thread and is kept until it is resumed,
+     * threads which hit breakpoints meanwhile don't replace it. Not <code>null</code> if any thread is suspended.
+     */
+    private volatile ThreadState currentThread;
+    /** Counts suspensions to order suspended threads. Guarded by this. */
+    private          long        suspendCount;
 
     /**
      * Create debugger and connect it to the JVM which already running at the specified host and port.
@@ -129,6 +141,13 @@ public class Debugger implements EventsHandler {
         connect();
     }
 
+    /** Create debugger for the already connected JVM whose events are delivered by the caller. Used in tests. */
+    Debugger(String host, int port, VirtualMachine vm) {
+        this.host = host;
+        this.port = port;
+        this.vm = vm;
+    }
+
     /**
      * Attach to a JVM that is already running at specified host.
      *
@@ -183,7 +202,7 @@ public class Debugger implements EventsHandler {
      *         when failed to close connection
      */
     public void disconnect() throws DebuggerException {
-        resume();
+        resumeAll();
         vm.dispose();
         LOG.debug("Close connection to {}:{}", host, port);
     }
@@ -237,11 +256,12 @@ public class Debugger implements EventsHandler {
 
         try {
             EventRequest breakPointRequest = requestManager.createBreakpointRequest(location);
-            breakPointRequest.setSuspendPolicy(EventRequest.SUSPEND_ALL);
+            // Stop only thread which reached breakpoint, other threads of application keep running.
+            breakPointRequest.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
             String expression = breakpoint.getCondition();
             if (!(expression == null || expression.isEmpty())) {
-                ExpressionParser parser = ExpressionParser.newInstance(expression);
-                breakPointRequest.putProperty("com.codenvy.ide.java.debug.condition.expression.parser", parser);
+                CompiledCondition condition = new CompiledCondition(expression);
+                breakPointRequest.putProperty("com.codenvy.ide.java.debug.condition.expression.parser", condition);
             }
             breakPointRequest.setEnabled(true);
         } catch (NativeMethodException | IllegalThreadStateException | InvalidRequestStateException e) {
@@ -353,20 +373,56 @@ public class Debugger implements EventsHandler {
     }
 
     /**
-     * Resume suspended JVM.
+     * Resume current thread. Other suspended threads stay suspended, the one suspended first becomes current.
      *
      * @throws DebuggerException
-     *         when failed to resume target JVM
+     *         when failed to resume thread
      */
     public void resume() throws DebuggerException {
+        ThreadState state = currentThread;
+        if (state != null) {
+            resume(state);
+        }
+    }
+
+    /**
+     * Resume suspended thread.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when failed to resume thread
+     */
+    public void resume(long threadId) throws DebuggerStateException, DebuggerException {
+        resume(getThreadState(threadId));
+    }
+
+    private void resume(ThreadState state) throws DebuggerException {
         try {
-            vm.resume();
-            LOG.debug("Resume VM");
+            state.thread.resume();
+            LOG.debug("Resume thread {}", state.id);
         } catch (VMCannotBeModifiedException e) {
             throw new DebuggerException(e.getMessage(), e);
         } finally {
-            resetCurrentThread();
+            removeThreadState(state);
+        }
+    }
+
+    /** Resume all suspended threads. Threads which reach breakpoints meanwhile stay suspended. */
+    private void resumeAll() throws DebuggerException {
+        List<ThreadState> snapshot = new ArrayList<>(suspendedThreads.values());
+        for (ThreadState state : snapshot) {
+            try {
+                state.thread.resume();
+            } catch (VMCannotBeModifiedException e) {
+                throw new DebuggerException(e.getMessage(), e);
+            } finally {
+                removeThreadState(state);
+            }
         }
+        LOG.debug("Resume VM");
     }
 
     /**
@@ -379,43 +435,42 @@ public class Debugger implements EventsHandler {
      *         when any other errors occur when try to access the current state of target JVM
      */
     public StackFrameDump dumpStackFrame() throws DebuggerStateException, DebuggerException {
+        return dumpStackFrame(getCurrentThreadState());
+    }
+
+    /**
+     * Get dump of fields and local variable of current object and top frame of suspended thread.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @return dump of stack frame
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when any other errors occur when try to access the current state of thread
+     */
+    public StackFrameDump dumpStackFrame(long threadId) throws DebuggerStateException, DebuggerException {
+        return dumpStackFrame(getThreadState(threadId));
+    }
 
+    private StackFrameDump dumpStackFrame(ThreadState state) throws DebuggerException {
         StackFrameDump dump = DtoFactory.getInstance().createDto(StackFrameDump.class);
         boolean existInformation = true;
         JdiLocalVariable[] variables = new JdiLocalVariable[0];
+        // Objects may be changed by other threads since the previous dump.
+        state.resetFrame();
+        JdiStackFrame frame = state.getFrame();
         try {
-            variables = getCurrentFrame().getLocalVariables();
+            variables = frame.getLocalVariables();
         } catch (DebuggerAbsentInformationException e) {
             existInformation = false;
         }
 
-        for (JdiField f : getCurrentFrame().getFields()) {
-            dump.getFields().add((Field)DtoFactory.getInstance().createDto(Field.class)
-                                                  .withIsFinal(f.isFinal())
-                                                  .withIsStatic(f.isStatic())
-                                                  .withIsTransient(f.isTransient())
-                                                  .withIsVolatile(f.isVolatile())
-                                                  .withName(f.getName())
-                                                  .withExistInformation(existInformation)
-                                                  .withValue(f.getValue().getAsString())
-                                                  .withType(f.getTypeName())
-                                                  .withVariablePath(
-                                                          DtoFactory.getInstance().createDto(VariablePath.class)
-                                                                    .withPath(Arrays.asList(f.isStatic() ? "static" : "this", f.getName()))
-                                                                   )
-                                                  .withPrimitive(f.isPrimitive()));
+        for (JdiField f : frame.getFields()) {
+            dump.getFields().add((Field)toDto(f, existInformation, Arrays.asList(f.isStatic() ? "static" : "this", f.getName())));
         }
         for (JdiLocalVariable var : variables) {
-            dump.getLocalVariables().add(DtoFactory.getInstance().createDto(Variable.class)
-                                                   .withName(var.getName())
-                                                   .withExistInformation(existInformation)
-                                                   .withValue(var.getValue().getAsString())
-                                                   .withType(var.getTypeName())
-                                                   .withVariablePath(
-                                                           DtoFactory.getInstance().createDto(VariablePath.class)
-                                                                     .withPath(Collections.singletonList(var.getName()))
-                                                                    )
-                                                   .withPrimitive(var.isPrimitive()));
+            dump.getLocalVariables().add(toDto(var, existInformation, Collections.singletonList(var.getName())));
         }
         return dump;
     }
@@ -456,6 +511,8 @@ public class Debugger implements EventsHandler {
      * <li>Through field <i>a</i> in class <i>B</i>: ['this', 'a', 'str']</li>
      * <li>Through local variable <i>var</i> in method <i>B.method()</i>: ['var', 'str']</li>
      * </ol>
+     * Returned value contains at most {@link #MAX_VARIABLES} nested variables, use {@link #getValue(VariablePath, int, int)}
+     * to get next of them. Total number of nested variables is available as child count of the value.
      *
      * @param variablePath
      *         path to variable
@@ -466,6 +523,72 @@ public class Debugger implements EventsHandler {
      *         when any other errors occur when try to access the variable
      */
     public Value getValue(VariablePath variablePath) throws DebuggerStateException, DebuggerException {
+        return getValue(getCurrentThreadState(), variablePath, 0, MAX_VARIABLES);
+    }
+
+    /**
+     * Get value of variable with specified path and range of its nested variables. See {@link #getValue(VariablePath)} for
+     * details about the path. Only values of nested variables in range are read from the target JVM, so large arrays and
+     * collections are read by pages.
+     *
+     * @param variablePath
+     *         path to variable
+     * @param offset
+     *         index of the first nested variable
+     * @param limit
+     *         max number of nested variables
+     * @return variable or <code>null</code> if variable not found
+     * @throws DebuggerStateException
+     *         when target JVM is not suspended
+     * @throws DebuggerException
+     *         when any other errors occur when try to access the variable
+     */
+    public Value getValue(VariablePath variablePath, int offset, int limit) throws DebuggerStateException, DebuggerException {
+        return getValue(getCurrentThreadState(), variablePath, offset, limit);
+    }
+
+    /**
+     * Get value of variable with specified path in the top frame of suspended thread. See {@link #getValue(VariablePath)} for
+     * details about the path.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @param variablePath
+     *         path to variable
+     * @return variable or <code>null</code> if variable not found
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when any other errors occur when try to access the variable
+     */
+    public Value getValue(long threadId, VariablePath variablePath) throws DebuggerStateException, DebuggerException {
+        return getValue(getThreadState(threadId), variablePath, 0, MAX_VARIABLES);
+    }
+
+    /**
+     * Get value of variable with specified path and range of its nested variables in the top frame of suspended thread.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @param variablePath
+     *         path to variable
+     * @param offset
+     *         index of the first nested variable
+     * @param limit
+     *         max number of nested variables
+     * @return variable or <code>null</code> if variable not found
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when any other errors occur when try to access the variable
+     * @see #getValue(VariablePath, int, int)
+     */
+    public Value getValue(long threadId, VariablePath variablePath, int offset, int limit)
+            throws DebuggerStateException, DebuggerException {
+        return getValue(getThreadState(threadId), variablePath, offset, limit);
+    }
+
+    private Value getValue(ThreadState state, VariablePath variablePath, int first, int limit) throws DebuggerException {
         List<String> path = variablePath.getPath();
         if (path.size() == 0) {
             throw new IllegalArgumentException("Path to value may not be empty. ");
@@ -476,11 +599,11 @@ public class Debugger implements EventsHandler {
             if (path.size() < 2) {
                 throw new IllegalArgumentException("Name of field required. ");
             }
-            variable = getCurrentFrame().getFieldByName(path.get(1));
+            variable = state.getFrame().getFieldByName(path.get(1));
             offset = 2;
         } else {
             try {
-                variable = getCurrentFrame().getLocalVariableByName(path.get(0));
+                variable = state.getFrame().getLocalVariableByName(path.get(0));
             } catch (DebuggerAbsentInformationException e) {
                 return null;
             }
@@ -495,37 +618,43 @@ public class Debugger implements EventsHandler {
             return null;
         }
 
-        Value value = DtoFactory.getInstance().createDto(Value.class).withValue(variable.getValue().getAsString());
-        for (JdiVariable ch : variable.getValue().getVariables()) {
-            VariablePath chPath = DtoFactory.getInstance().createDto(VariablePath.class).withPath(new ArrayList<>(path));
-            chPath.getPath().add(ch.getName());
-            if (ch instanceof JdiField) {
-                JdiField f = (JdiField)ch;
-                value.getVariables().add(DtoFactory.getInstance().createDto(Field.class)
-                                                   .withIsFinal(f.isFinal())
-                                                   .withIsStatic(f.isStatic())
-                                                   .withIsTransient(f.isTransient())
-                                                   .withIsVolatile(f.isVolatile())
-                                                   .withName(f.getName())
-                                                   .withExistInformation(true)
-                                                   .withValue(f.getValue().getAsString())
-                                                   .withType(f.getTypeName())
-                                                   .withVariablePath(chPath)
-                                                   .withPrimitive(f.isPrimitive()));
-            } else {
-                // Array element.
-                value.getVariables().add(DtoFactory.getInstance().createDto(Variable.class)
-                                                   .withName(ch.getName())
-                                                   .withExistInformation(true)
-                                                   .withValue(ch.getValue().getAsString())
-                                                   .withType(ch.getTypeName())
-                                                   .withVariablePath(chPath)
-                                                   .withPrimitive(ch.isPrimitive()));
-            }
+        JdiValue jdiValue = variable.getValue();
+        Value value = DtoFactory.getInstance().createDto(Value.class)
+                                .withValue(jdiValue.getAsString())
+                                .withChildCount(jdiValue.getVariablesCount());
+        for (JdiVariable ch : jdiValue.getVariables(first, limit)) {
+            List<String> chPath = new ArrayList<>(path);
+            chPath.add(ch.getName());
+            value.getVariables().add(toDto(ch, true, chPath));
         }
         return value;
     }
 
+    /** Describe variable. Value of variable is given as short string, nested variables are not read. */
+    private Variable toDto(JdiVariable variable, boolean existInformation, List<String> path) throws DebuggerException {
+        Variable dto;
+        if (variable instanceof JdiField) {
+            JdiField f = (JdiField)variable;
+            dto = DtoFactory.getInstance().createDto(Field.class)
+                            .withIsFinal(f.isFinal())
+                            .withIsStatic(f.isStatic())
+                            .withIsTransient(f.isTransient())
+                            .withIsVolatile(f.isVolatile());
+        } else {
+            // Local variable or array element.
+            dto = DtoFactory.getInstance().createDto(Variable.class);
+        }
+        JdiValue value = variable.getValue();
+        return dto.withName(variable.getName())
+                  .withExistInformation(existInformation)
+                  .withValue(value.getAsString())
+                  .withType(variable.getTypeName())
+                  .withVariablePath(DtoFactory.getInstance().createDto(VariablePath.class).withPath(path))
+                  .withPrimitive(variable.isPrimitive())
+                  .withChildCount(value.getVariablesCount())
+                  .withObjectId(value.getObjectId());
+    }
+
     /**
      * Update the value of variable with the value of an evaluated expression.
      *
@@ -537,6 +666,26 @@ public class Debugger implements EventsHandler {
      *         when any other errors occur when try to update the variable
      */
     public void setValue(VariablePath variablePath, String valueExpression) throws DebuggerException {
+        setValue(getCurrentThreadState(), variablePath, valueExpression);
+    }
+
+    /**
+     * Update the value of variable in the top frame of suspended thread with the value of an evaluated expression.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @param variablePath
+     *         path to updated variable
+     * @param valueExpression
+     *         expression
+     * @throws DebuggerException
+     *         when any other errors occur when try to update the variable
+     */
+    public void setValue(long threadId, VariablePath variablePath, String valueExpression) throws DebuggerException {
+        setValue(getThreadState(threadId), variablePath, valueExpression);
+    }
+
+    private void setValue(ThreadState state, VariablePath variablePath, String valueExpression) throws DebuggerException {
         StringBuilder expression = new StringBuilder();
         for (String s : variablePath.getPath()) {
             if ("static".equals(s)) {
@@ -549,7 +698,7 @@ public class Debugger implements EventsHandler {
         }
         expression.append('=');
         expression.append(valueExpression);
-        expression(expression.toString());
+        evaluate(ExpressionParser.newInstance(expression.toString()), state);
     }
 
     /**
@@ -606,11 +755,11 @@ public class Debugger implements EventsHandler {
     }
 
     private boolean processBreakPointEvent(com.sun.jdi.event.BreakpointEvent event) throws DebuggerException {
-        setCurrentThread(event.thread());
         boolean hitBreakpoint;
-        ExpressionParser parser = (ExpressionParser)event.request().getProperty("com.codenvy.ide.java.debug.condition.expression.parser");
-        if (parser != null) {
-            com.sun.jdi.Value result = evaluate(parser);
+        CompiledCondition condition =
+                (CompiledCondition)event.request().getProperty("com.codenvy.ide.java.debug.condition.expression.parser");
+        if (condition != null) {
+            com.sun.jdi.Value result = evaluate(condition, event.thread());
             hitBreakpoint = result instanceof com.sun.jdi.BooleanValue && ((com.sun.jdi.BooleanValue)result).value();
         } else {
             // If there is no expression.
@@ -618,6 +767,7 @@ public class Debugger implements EventsHandler {
         }
 
         if (hitBreakpoint) {
+            long threadId = addThreadState(event.thread());
             com.sun.jdi.Location location = event.location();
             BreakPointEvent breakPointEvent;
             synchronized (events) {
@@ -633,6 +783,7 @@ public class Debugger implements EventsHandler {
                                                                                                  .withLineNumber(location.lineNumber())
                                                                                             )
                                                                             )
+                                                             .withThreadId(threadId)
                                                              .withType(DebuggerEvent.BREAKPOINT);
                 events.add(breakPointEvent);
             }
@@ -643,13 +794,13 @@ public class Debugger implements EventsHandler {
                                     EVENTS_CHANNEL + id);
         }
 
-        // Left target JVM in suspended state if result of evaluation of expression is boolean value and true
+        // Left thread in suspended state if result of evaluation of expression is boolean value and true
         // or if condition expression is not set.
         return !hitBreakpoint;
     }
 
     private boolean processStepEvent(com.sun.jdi.event.StepEvent event) throws DebuggerException {
-        setCurrentThread(event.thread());
+        long threadId = addThreadState(event.thread());
         com.sun.jdi.Location location = event.location();
         StepEvent stepEvent;
         synchronized (events) {
@@ -657,6 +808,7 @@ public class Debugger implements EventsHandler {
                                              .withLocation(DtoFactory.getInstance().createDto(Location.class)
                                                                      .withClassName(location.declaringType().name())
                                                                      .withLineNumber(location.lineNumber()))
+                                             .withThreadId(threadId)
                                              .withType(DebuggerEvent.STEP);
             events.add(stepEvent);
         }
@@ -665,7 +817,7 @@ public class Debugger implements EventsHandler {
         eventsList.add(stepEvent);
         publishWebSocketMessage(DtoFactory.getInstance().createDto(DebuggerEventList.class).withEvents(eventsList),
                                 EVENTS_CHANNEL + id);
-        // Lets target JVM to be in suspend state.
+        // Lets thread to be in suspend state.
         return false;
     }
 
@@ -705,7 +857,21 @@ public class Debugger implements EventsHandler {
      *         when any other JDI errors occur
      */
     public void stepOver() throws DebuggerException {
-        doStep(StepRequest.STEP_OVER);
+        doStep(getCurrentThreadState(), StepRequest.STEP_OVER);
+    }
+
+    /**
+     * Step to the next line. Only specified thread is resumed.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when any other JDI errors occur
+     */
+    public void stepOver(long threadId) throws DebuggerException {
+        doStep(getThreadState(threadId), StepRequest.STEP_OVER);
     }
 
     /**
@@ -717,7 +883,21 @@ public class Debugger implements EventsHandler {
      *         when any other JDI errors occur
      */
     public void stepInto() throws DebuggerException {
-        doStep(StepRequest.STEP_INTO);
+        doStep(getCurrentThreadState(), StepRequest.STEP_INTO);
+    }
+
+    /**
+     * Step to the next frame. Only specified thread is resumed.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when any other JDI errors occur
+     */
+    public void stepInto(long threadId) throws DebuggerException {
+        doStep(getThreadState(threadId), StepRequest.STEP_INTO);
     }
 
     /**
@@ -729,74 +909,171 @@ public class Debugger implements EventsHandler {
      *         when any other JDI errors occur
      */
     public void stepOut() throws DebuggerException {
-        doStep(StepRequest.STEP_OUT);
+        doStep(getCurrentThreadState(), StepRequest.STEP_OUT);
     }
 
-    private void doStep(int depth) throws DebuggerException {
-        clearSteps();
-        StepRequest request = getEventManager().createStepRequest(getCurrentThread(), StepRequest.STEP_LINE, depth);
+    /**
+     * Step out of the current frame. Only specified thread is resumed.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     * @throws DebuggerException
+     *         when any other JDI errors occur
+     */
+    public void stepOut(long threadId) throws DebuggerException {
+        doStep(getThreadState(threadId), StepRequest.STEP_OUT);
+    }
+
+    private void doStep(ThreadState state, int depth) throws DebuggerException {
+        clearSteps(state.thread);
+        StepRequest request = getEventManager().createStepRequest(state.thread, StepRequest.STEP_LINE, depth);
+        request.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
         request.addCountFilter(1);
         request.enable();
-        resume();
+        try {
+            state.thread.resume();
+        } catch (VMCannotBeModifiedException e) {
+            throw new DebuggerException(e.getMessage(), e);
+        } finally {
+            removeThreadState(state);
+        }
     }
 
-    private void clearSteps() throws DebuggerException {
+    private void clearSteps(ThreadReference thread) throws DebuggerException {
         List<StepRequest> snapshot = new ArrayList<>(getEventManager().stepRequests());
         for (StepRequest stepRequest : snapshot) {
-            if (stepRequest.thread().equals(getCurrentThread())) {
+            if (stepRequest.thread().equals(thread)) {
                 getEventManager().deleteEventRequest(stepRequest);
             }
         }
     }
 
     public String expression(String expression) throws DebuggerStateException {
-        com.sun.jdi.Value result = evaluate(ExpressionParser.newInstance(expression));
+        return toString(evaluate(ExpressionParser.newInstance(expression), getCurrentThreadState()));
+    }
+
+    /**
+     * Evaluate expression in the top frame of suspended thread.
+     *
+     * @param threadId
+     *         unique id of thread
+     * @param expression
+     *         expression
+     * @return result of evaluation
+     * @throws DebuggerStateException
+     *         when thread is not suspended
+     */
+    public String expression(long threadId, String expression) throws DebuggerStateException {
+        return toString(evaluate(ExpressionParser.newInstance(expression), getThreadState(threadId)));
+    }
+
+    private String toString(com.sun.jdi.Value result) {
         return result == null ? "null" : result.toString();
     }
 
-    private com.sun.jdi.Value evaluate(ExpressionParser parser) throws DebuggerStateException {
+    private com.sun.jdi.Value evaluate(ExpressionParser parser, ThreadState state) {
         final long startTime = System.currentTimeMillis();
         try {
-            return parser.evaluate(new Evaluator(vm, getCurrentThread()));
+            return parser.evaluate(new Evaluator(vm, state.thread));
         } finally {
             final long endTime = System.currentTimeMillis();
             LOG.debug("==>> Evaluate time: {} ms", (endTime - startTime));
             // Evaluation of expression may update state of frame.
-            resetCurrentFrame();
+            state.resetFrame();
         }
     }
 
-    private ThreadReference getCurrentThread() throws DebuggerStateException {
-        if (thread == null) {
-            throw new DebuggerStateException("Target Java VM is not suspended. ");
+    private com.sun.jdi.Value evaluate(CompiledCondition condition, ThreadReference thread) {
+        final long startTime = System.currentTimeMillis();
+        try {
+            return condition.evaluate(vm, thread);
+        } finally {
+            final long endTime = System.currentTimeMillis();
+            LOG.debug("==>> Evaluate condition time: {} ms", (endTime - startTime));
         }
-        return thread;
     }
 
-    private JdiStackFrame getCurrentFrame() throws DebuggerException {
-        if (stackFrame != null) {
-            return stackFrame;
+    private ThreadState getCurrentThreadState() throws DebuggerStateException {
+        ThreadState state = currentThread;
+        if (state == null) {
+            throw new DebuggerStateException("Target Java VM is not suspended. ");
         }
-        try {
-            stackFrame = new JdiStackFrameImpl(getCurrentThread().frame(0));
-        } catch (IncompatibleThreadStateException e) {
-            throw new DebuggerException("Thread is not suspended. ", e);
+        return state;
+    }
+
+    private ThreadState getThreadState(long threadId) throws DebuggerStateException {
+        ThreadState state = suspendedThreads.get(threadId);
+        if (state == null) {
+            throw new DebuggerStateException("Thread " + threadId + " is not suspended. ");
         }
-        return stackFrame;
+        return state;
     }
 
-    private void setCurrentThread(ThreadReference t) {
-        stackFrame = null;
-        thread = t;
+    private synchronized long addThreadState(ThreadReference thread) {
+        ThreadState state = new ThreadState(thread, suspendCount++);
+        suspendedThreads.put(state.id, state);
+        ThreadState current = currentThread;
+        if (current == null || current.id == state.id) {
+            currentThread = state;
+        }
+        return state.id;
     }
 
-    private void resetCurrentFrame() {
-        stackFrame = null;
+    private synchronized void removeThreadState(ThreadState state) {
+        suspendedThreads.remove(state.id, state);
+        if (currentThread == state) {
+            // Switch to the thread suspended first.
+            ThreadState next = null;
+            for (ThreadState other : suspendedThreads.values()) {
+                if (next == null || other.suspendedAt < next.suspendedAt) {
+                    next = other;
+                }
+            }
+            currentThread = next;
+        }
     }
 
-    private void resetCurrentThread() {
-        this.stackFrame = null;
-        this.thread = null;
+    /**
+     * State of thread suspended at breakpoint or after step. Values read from the target JVM are cached until frame is dumped
+     * again or thread is resumed or stepped, the state is dropped then. Fields of types are cached until thread is resumed.
+     */
+    private static class ThreadState {
+        final    long            id;
+        final    ThreadReference thread;
+        /** Order in which thread was suspended. */
+        final    long            suspendedAt;
+        final    JdiValueCache   cache;
+        /** Top stack frame, created on demand. */
+        volatile JdiStackFrame   stackFrame;
+
+        ThreadState(ThreadReference thread, long suspendedAt) {
+            this.id = thread.uniqueID();
+            this.thread = thread;
+            this.suspendedAt = suspendedAt;
+            this.cache = new JdiValueCache();
+        }
+
+        JdiStackFrame getFrame() throws DebuggerException {
+            JdiStackFrame frame = stackFrame;
+            if (frame != null) {
+                return frame;
+            }
+            try {
+                frame = new JdiStackFrameImpl(thread.frame(0), cache);
+            } catch (IncompatibleThreadStateException e) {
+                throw new DebuggerException("Thread is not suspended. ", e);
+            }
+            stackFrame = frame;
+            return frame;
+        }
+
+        /** Drop frame and cached values of objects, e.g. if they may be changed by evaluation of expression. */
+        void resetFrame() {
+            stackFrame = null;
+            cache.clearValues();
+        }
     }
 
     //
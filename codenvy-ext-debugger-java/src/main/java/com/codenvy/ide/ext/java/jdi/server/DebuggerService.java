@@ -58,8 +58,12 @@ public class DebuggerService {
 
     @GET
     @Path("resume/{id}")
-    public void resume(@PathParam("id") String id) throws DebuggerException {
-        Debugger.getInstance(id).resume();
+    public void resume(@PathParam("id") String id, @QueryParam("thread") Long thread) throws DebuggerException {
+        if (thread == null) {
+            Debugger.getInstance(id).resume();
+        } else {
+            Debugger.getInstance(id).resume(thread);
+        }
     }
 
     @POST
@@ -100,48 +104,75 @@ public class DebuggerService {
     @GET
     @Path("dump/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public StackFrameDump getStackFrameDump(@PathParam("id") String id) throws DebuggerException {
-        return Debugger.getInstance(id).dumpStackFrame();
+    public StackFrameDump getStackFrameDump(@PathParam("id") String id, @QueryParam("thread") Long thread)
+            throws DebuggerException {
+        Debugger d = Debugger.getInstance(id);
+        return thread == null ? d.dumpStackFrame() : d.dumpStackFrame(thread);
     }
 
     @POST
     @Path("value/get/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Value getValue(@PathParam("id") String id, VariablePath path) throws DebuggerException {
-        return Debugger.getInstance(id).getValue(path);
+    public Value getValue(@PathParam("id") String id,
+                          @QueryParam("thread") Long thread,
+                          @QueryParam("offset") int offset,
+                          @QueryParam("limit") Integer limit,
+                          VariablePath path) throws DebuggerException {
+        Debugger d = Debugger.getInstance(id);
+        int max = limit == null ? Debugger.MAX_VARIABLES : limit;
+        return thread == null ? d.getValue(path, offset, max) : d.getValue(thread, path, offset, max);
     }
 
     @POST
     @Path("value/set/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public void setValue(@PathParam("id") String id, UpdateVariableRequest request) throws DebuggerException {
-        Debugger.getInstance(id).setValue(request.getVariablePath(), request.getExpression());
+    public void setValue(@PathParam("id") String id, @QueryParam("thread") Long thread, UpdateVariableRequest request)
+            throws DebuggerException {
+        if (thread == null) {
+            Debugger.getInstance(id).setValue(request.getVariablePath(), request.getExpression());
+        } else {
+            Debugger.getInstance(id).setValue(thread, request.getVariablePath(), request.getExpression());
+        }
     }
 
     @GET
     @Path("step/over/{id}")
-    public void stepOver(@PathParam("id") String id) throws DebuggerException {
-        Debugger.getInstance(id).stepOver();
+    public void stepOver(@PathParam("id") String id, @QueryParam("thread") Long thread) throws DebuggerException {
+        if (thread == null) {
+            Debugger.getInstance(id).stepOver();
+        } else {
+            Debugger.getInstance(id).stepOver(thread);
+        }
     }
 
     @GET
     @Path("step/into/{id}")
-    public void stepInto(@PathParam("id") String id) throws DebuggerException {
-        Debugger.getInstance(id).stepInto();
+    public void stepInto(@PathParam("id") String id, @QueryParam("thread") Long thread) throws DebuggerException {
+        if (thread == null) {
+            Debugger.getInstance(id).stepInto();
+        } else {
+            Debugger.getInstance(id).stepInto(thread);
+        }
     }
 
     @GET
     @Path("step/out/{id}")
-    public void stepOut(@PathParam("id") String id) throws DebuggerException {
-        Debugger.getInstance(id).stepOut();
+    public void stepOut(@PathParam("id") String id, @QueryParam("thread") Long thread) throws DebuggerException {
+        if (thread == null) {
+            Debugger.getInstance(id).stepOut();
+        } else {
+            Debugger.getInstance(id).stepOut(thread);
+        }
     }
 
     @POST
     @Path("expression/{id}")
     @Consumes(MediaType.TEXT_PLAIN)
     @Produces(MediaType.TEXT_PLAIN)
-    public String expression(@PathParam("id") String id, String expression) throws DebuggerException {
-        return Debugger.getInstance(id).expression(expression);
+    public String expression(@PathParam("id") String id, @QueryParam("thread") Long thread, String expression)
+            throws DebuggerException {
+        Debugger d = Debugger.getInstance(id);
+        return thread == null ? d.expression(expression) : d.expression(thread, expression);
     }
 }
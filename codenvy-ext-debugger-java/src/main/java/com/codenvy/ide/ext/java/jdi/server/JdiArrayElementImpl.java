@@ -16,13 +16,15 @@ import com.sun.jdi.Value;
 
 /** @author andrew00x */
 public class JdiArrayElementImpl implements JdiArrayElement {
-    private final int    index;
-    private final Value  value;
-    private final String name;
+    private final int           index;
+    private final Value         value;
+    private final String        name;
+    private final JdiValueCache cache;
 
-    public JdiArrayElementImpl(int index, Value value) {
+    public JdiArrayElementImpl(int index, Value value, JdiValueCache cache) {
         this.index = index;
         this.value = value;
+        this.cache = cache;
         this.name = "[" + index + "]";
     }
 
@@ -48,10 +50,7 @@ public class JdiArrayElementImpl implements JdiArrayElement {
 
     @Override
     public JdiValue getValue() {
-        if (value == null) {
-            return new JdiNullValue();
-        }
-        return new JdiValueImpl(value);
+        return cache.getValue(value);
     }
 
     @Override
@@ -11,26 +11,18 @@
 package com.codenvy.ide.ext.java.jdi.server;
 
 import com.sun.jdi.Field;
-import com.sun.jdi.ObjectReference;
-import com.sun.jdi.ReferenceType;
 import com.sun.jdi.Value;
 
 /** @author andrew00x */
 public class JdiFieldImpl implements JdiField, Comparable<JdiFieldImpl> {
-    private final Field           field;
-    private final ReferenceType   type;
-    private final ObjectReference object;
+    private final Field         field;
+    private final Value         value;
+    private final JdiValueCache cache;
 
-    public JdiFieldImpl(Field field, ObjectReference object) {
+    public JdiFieldImpl(Field field, Value value, JdiValueCache cache) {
         this.field = field;
-        this.object = object;
-        this.type = null;
-    }
-
-    public JdiFieldImpl(Field field, ReferenceType type) {
-        this.field = field;
-        this.type = type;
-        this.object = null;
+        this.value = value;
+        this.cache = cache;
     }
 
     @Override
@@ -70,11 +62,7 @@ public class JdiFieldImpl implements JdiField, Comparable<JdiFieldImpl> {
 
     @Override
     public JdiValue getValue() {
-        Value value = object == null ? type.getValue(field) : object.getValue(field);
-        if (value == null) {
-            return new JdiNullValue();
-        }
-        return new JdiValueImpl(value);
+        return cache.getValue(value);
     }
 
     @Override
@@ -11,17 +11,18 @@
 package com.codenvy.ide.ext.java.jdi.server;
 
 import com.sun.jdi.LocalVariable;
-import com.sun.jdi.StackFrame;
 import com.sun.jdi.Value;
 
 /** @author andrew00x */
 public class JdiLocalVariableImpl implements JdiLocalVariable {
     private final LocalVariable variable;
-    private final StackFrame    stackFrame;
+    private final Value         value;
+    private final JdiValueCache cache;
 
-    public JdiLocalVariableImpl(StackFrame stackFrame, LocalVariable variable) {
-        this.stackFrame = stackFrame;
+    public JdiLocalVariableImpl(LocalVariable variable, Value value, JdiValueCache cache) {
         this.variable = variable;
+        this.value = value;
+        this.cache = cache;
     }
 
     @Override
@@ -41,11 +42,7 @@ public class JdiLocalVariableImpl implements JdiLocalVariable {
 
     @Override
     public JdiValue getValue() {
-        Value value = stackFrame.getValue(variable);
-        if (value == null) {
-            return new JdiNullValue();
-        }
-        return new JdiValueImpl(value);
+        return cache.getValue(value);
     }
 
     @Override
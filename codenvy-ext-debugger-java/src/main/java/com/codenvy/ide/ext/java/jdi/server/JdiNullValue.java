@@ -22,6 +22,21 @@ public final class JdiNullValue implements JdiValue {
         return new JdiVariable[0];
     }
 
+    @Override
+    public int getVariablesCount() throws DebuggerException {
+        return 0;
+    }
+
+    @Override
+    public JdiVariable[] getVariables(int offset, int limit) throws DebuggerException {
+        return new JdiVariable[0];
+    }
+
+    @Override
+    public long getObjectId() throws DebuggerException {
+        return 0;
+    }
+
     @Override
     public JdiVariable getVariableByName(String name) throws DebuggerException {
         return null;
@@ -18,18 +18,26 @@ import com.sun.jdi.NativeMethodException;
 import com.sun.jdi.ObjectReference;
 import com.sun.jdi.ReferenceType;
 import com.sun.jdi.StackFrame;
+import com.sun.jdi.Value;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /** @author andrew00x */
 public class JdiStackFrameImpl implements JdiStackFrame {
     private final StackFrame         stackFrame;
+    private final JdiValueCache      cache;
     private       JdiField[]         fields;
     private       JdiLocalVariable[] localVariables;
 
     public JdiStackFrameImpl(StackFrame stackFrame) {
+        this(stackFrame, new JdiValueCache());
+    }
+
+    public JdiStackFrameImpl(StackFrame stackFrame, JdiValueCache cache) {
         this.stackFrame = stackFrame;
+        this.cache = cache;
     }
 
     @Override
@@ -37,24 +45,28 @@ public class JdiStackFrameImpl implements JdiStackFrame {
         if (fields == null) {
             try {
                 ObjectReference object = stackFrame.thisObject();
+                // Fields are sorted by cache, see JdiFieldImpl#compareTo(JdiFieldImpl).
+                List<Field> fs;
+                Map<Field, Value> values;
                 if (object == null) {
                     ReferenceType type = stackFrame.location().declaringType();
-                    List<Field> fs = stackFrame.location().declaringType().allFields();
-                    fields = new JdiField[fs.size()];
-                    int i = 0;
-                    for (Field f : fs) {
-                        fields[i++] = new JdiFieldImpl(f, type);
+                    // Only static fields are accessible in static method.
+                    fs = new ArrayList<>();
+                    for (Field f : cache.getFields(type)) {
+                        if (f.isStatic()) {
+                            fs.add(f);
+                        }
                     }
+                    values = type.getValues(fs);
                 } else {
-                    List<Field> fs = object.referenceType().allFields();
-                    fields = new JdiField[fs.size()];
-                    int i = 0;
-                    for (Field f : fs) {
-                        fields[i++] = new JdiFieldImpl(f, object);
-                    }
+                    fs = cache.getFields(object.referenceType());
+                    values = object.getValues(fs);
+                }
+                fields = new JdiField[fs.size()];
+                int i = 0;
+                for (Field f : fs) {
+                    fields[i++] = new JdiFieldImpl(f, values.get(f), cache);
                 }
-
-                Arrays.sort(fields);
             } catch (InvalidStackFrameException e) {
                 throw new DebuggerException(e.getMessage(), e);
             }
@@ -80,10 +92,12 @@ public class JdiStackFrameImpl implements JdiStackFrame {
         if (localVariables == null) {
             try {
                 List<LocalVariable> targetVariables = stackFrame.visibleVariables();
+                // Read values of all variables at once.
+                Map<LocalVariable, Value> values = stackFrame.getValues(targetVariables);
                 localVariables = new JdiLocalVariable[targetVariables.size()];
                 int i = 0;
                 for (LocalVariable var : targetVariables) {
-                    localVariables[i++] = new JdiLocalVariableImpl(stackFrame, var);
+                    localVariables[i++] = new JdiLocalVariableImpl(var, values.get(var), cache);
                 }
             } catch (AbsentInformationException e) {
                 throw new DebuggerAbsentInformationException(e.getMessage(), e);
@@ -35,6 +35,37 @@ public interface JdiValue {
      */
     JdiVariable[] getVariables() throws DebuggerException;
 
+    /**
+     * Get number of nested variables without reading their values.
+     *
+     * @return length of array, number of fields of object or <code>0</code> for primitive type
+     * @throws DebuggerException
+     *         if an error occurs
+     */
+    int getVariablesCount() throws DebuggerException;
+
+    /**
+     * Get range of nested variables. Only values of variables in range are read from the target JVM.
+     *
+     * @param offset
+     *         index of the first variable
+     * @param limit
+     *         max number of variables
+     * @return nested variables in the same order as {@link #getVariables()} returns them
+     * @throws DebuggerException
+     *         if an error occurs
+     */
+    JdiVariable[] getVariables(int offset, int limit) throws DebuggerException;
+
+    /**
+     * Get unique id of object in the target JVM.
+     *
+     * @return id of object or <code>0</code> if value is primitive or <code>null</code>
+     * @throws DebuggerException
+     *         if an error occurs
+     */
+    long getObjectId() throws DebuggerException;
+
     /**
      * Get nested variable by name.
      *
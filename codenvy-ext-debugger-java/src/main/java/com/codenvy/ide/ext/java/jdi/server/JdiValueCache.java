@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.jdi.server;
+
+import com.sun.jdi.Field;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mirrors read from the target JVM while thread is suspended. Fields of types and values of objects are read once and
+ * shared by all variables which refer to them, so exploring of object graph costs one request to the target JVM per
+ * expanded object. Values must be dropped with {@link #clearValues()} when state of thread may be changed, e.g. after
+ * evaluation of expression or when frame is dumped again, fields of types don't change and are kept. Cache must be dropped
+ * when thread is resumed.
+ */
+public final class JdiValueCache {
+    /* See JdiFieldImpl#compareTo(JdiFieldImpl). */
+    private static final Comparator<Field> FIELD_COMPARATOR = new Comparator<Field>() {
+        @Override
+        public int compare(Field o1, Field o2) {
+            final boolean thisStatic = o1.isStatic();
+            final boolean thatStatic = o2.isStatic();
+            if (thisStatic && !thatStatic) {
+                return -1;
+            }
+            if (!thisStatic && thatStatic) {
+                return 1;
+            }
+            return o1.name().compareTo(o2.name());
+        }
+    };
+
+    private final Map<ReferenceType, List<Field>>     fields  = new HashMap<>();
+    private final Map<ObjectReference, JdiValueImpl> objects = new HashMap<>();
+
+    /**
+     * Get all fields of type, static fields go before non-static fields, fields of the same kind are ordered by name.
+     *
+     * @param type
+     *         type
+     * @return fields of type
+     */
+    public synchronized List<Field> getFields(ReferenceType type) {
+        List<Field> typeFields = fields.get(type);
+        if (typeFields == null) {
+            typeFields = new ArrayList<>(type.allFields());
+            Collections.sort(typeFields, FIELD_COMPARATOR);
+            typeFields = Collections.unmodifiableList(typeFields);
+            fields.put(type, typeFields);
+        }
+        return typeFields;
+    }
+
+    /**
+     * Get wrapper of value. The same wrapper is returned for the same object, so its nested variables are read once.
+     *
+     * @param value
+     *         value, may be <code>null</code>
+     * @return wrapper of value
+     */
+    public synchronized JdiValue getValue(Value value) {
+        if (value == null) {
+            return new JdiNullValue();
+        }
+        if (!(value instanceof ObjectReference)) {
+            return new JdiValueImpl(value, this);
+        }
+        JdiValueImpl object = objects.get(value);
+        if (object == null) {
+            object = new JdiValueImpl(value, this);
+            objects.put((ObjectReference)value, object);
+        }
+        return object;
+    }
+
+    /** Drop values of objects, next request reads them from the target JVM again. */
+    public synchronized void clearValues() {
+        objects.clear();
+    }
+}
@@ -11,60 +11,103 @@
 package com.codenvy.ide.ext.java.jdi.server;
 
 import com.sun.jdi.ArrayReference;
+import com.sun.jdi.CharValue;
 import com.sun.jdi.Field;
 import com.sun.jdi.ObjectReference;
 import com.sun.jdi.PrimitiveValue;
-import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StringReference;
 import com.sun.jdi.Value;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
-/** @author andrew00x */
+/**
+ * Value of variable. Nested variables are read on demand: elements of array are read in ranges, values of all fields of
+ * object are read at once when requested first time.
+ *
+ * @author andrew00x
+ */
 public class JdiValueImpl implements JdiValue {
-    private final Value         value;
-    private       JdiVariable[] variables;
+    /* longer strings are cut in string representation of value */
+    private static final int MAX_STRING_LENGTH = 256;
+
+    private final    Value         value;
+    private final    JdiValueCache cache;
+    /* fields of object, not used for arrays. Value may be shared by requests to the suspended thread, see JdiValueCache */
+    private volatile JdiField[]    fields;
+    /* length of array, -1 if not read yet */
+    private volatile int           length = -1;
 
     public JdiValueImpl(Value value) {
+        this(value, new JdiValueCache());
+    }
+
+    public JdiValueImpl(Value value, JdiValueCache cache) {
         if (value == null) {
             throw new IllegalArgumentException("Underlying value may not be null. ");
         }
         this.value = value;
+        this.cache = cache;
     }
 
     @Override
     public String getAsString() {
+        if (value instanceof StringReference) {
+            String prefix = getLongStringPrefix((StringReference)value);
+            if (prefix != null) {
+                return '"' + prefix + "...\"";
+            }
+        }
         return value.toString();
     }
 
     @Override
     public JdiVariable[] getVariables() {
-        if (variables == null) {
-            if (isPrimitive()) {
-                variables = new JdiVariable[0];
-            } else {
-                if (isArray()) {
-                    ArrayReference array = (ArrayReference)value;
-                    int length = array.length();
-                    variables = new JdiVariable[length];
-                    for (int i = 0; i < length; i++) {
-                        variables[i] = new JdiArrayElementImpl(i, array.getValue(i));
-                    }
-                } else {
-                    ObjectReference object = (ObjectReference)value;
-                    ReferenceType type = object.referenceType();
-                    List<Field> fields = type.allFields();
-                    variables = new JdiVariable[fields.size()];
-                    int i = 0;
-                    for (Field f : fields) {
-                        variables[i++] = new JdiFieldImpl(f, object);
-                    }
-                    // See JdiFieldImpl#compareTo(JdiFieldImpl).
-                    Arrays.sort(variables);
+        return getVariables(0, getVariablesCount());
+    }
+
+    @Override
+    public int getVariablesCount() {
+        if (isPrimitive()) {
+            return 0;
+        }
+        if (isArray()) {
+            return getLength();
+        }
+        // Number of fields is known without reading their values.
+        return cache.getFields(((ObjectReference)value).referenceType()).size();
+    }
+
+    @Override
+    public JdiVariable[] getVariables(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit may not be negative. ");
+        }
+        if (isPrimitive()) {
+            return new JdiVariable[0];
+        }
+        if (isArray()) {
+            ArrayReference array = (ArrayReference)value;
+            int count = Math.max(0, Math.min(limit, getLength() - offset));
+            JdiVariable[] elements = new JdiVariable[count];
+            if (count > 0) {
+                // Read all elements in range at once.
+                List<Value> values = array.getValues(offset, count);
+                for (int i = 0; i < count; i++) {
+                    elements[i] = new JdiArrayElementImpl(offset + i, values.get(i), cache);
                 }
             }
+            return elements;
         }
-        return variables;
+        JdiField[] all = getFields();
+        int from = Math.min(offset, all.length);
+        return Arrays.copyOfRange(all, from, from + Math.min(limit, all.length - from), JdiVariable[].class);
+    }
+
+    @Override
+    public long getObjectId() {
+        return value instanceof ObjectReference ? ((ObjectReference)value).uniqueID() : 0;
     }
 
     @Override
@@ -72,6 +115,19 @@ public class JdiValueImpl implements JdiValue {
         if (name == null) {
             throw new IllegalArgumentException("Variable name may not be null. ");
         }
+        if (isArray()) {
+            // Name of array element is [i], see JdiArrayElementImpl.
+            int index;
+            try {
+                index = name.startsWith("[") && name.endsWith("]") ? Integer.parseInt(name.substring(1, name.length() - 1)) : -1;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (index < 0 || index >= getLength()) {
+                return null;
+            }
+            return new JdiArrayElementImpl(index, ((ArrayReference)value).getValue(index), cache);
+        }
         for (JdiVariable variable : getVariables()) {
             if (name.equals(variable.getName())) {
                 return variable;
@@ -80,6 +136,58 @@ public class JdiValueImpl implements JdiValue {
         return null;
     }
 
+    /**
+     * Read the first {@link #MAX_STRING_LENGTH} characters of string from its backing array without transferring the whole
+     * string from the target JVM.
+     *
+     * @return prefix of string or <code>null</code> if string isn't longer than {@link #MAX_STRING_LENGTH}
+     */
+    private static String getLongStringPrefix(StringReference str) {
+        // Characters are backed by 'value' array since Java 7u6. Older versions may share array between strings and newer
+        // versions may keep characters in bytes, read the whole string in such case.
+        Field valueField = str.referenceType().fieldByName("value");
+        if (valueField != null && str.referenceType().fieldByName("offset") == null) {
+            Value chars = str.getValue(valueField);
+            if (chars instanceof ArrayReference && "char[]".equals(chars.type().name())) {
+                ArrayReference array = (ArrayReference)chars;
+                if (array.length() <= MAX_STRING_LENGTH) {
+                    return null;
+                }
+                StringBuilder prefix = new StringBuilder(MAX_STRING_LENGTH);
+                for (Value c : array.getValues(0, MAX_STRING_LENGTH)) {
+                    prefix.append(((CharValue)c).value());
+                }
+                return prefix.toString();
+            }
+        }
+        String whole = str.value();
+        return whole.length() > MAX_STRING_LENGTH ? whole.substring(0, MAX_STRING_LENGTH) : null;
+    }
+
+    private JdiField[] getFields() {
+        if (fields == null) {
+            ObjectReference object = (ObjectReference)value;
+            // Fields are sorted by cache, see JdiFieldImpl#compareTo(JdiFieldImpl).
+            List<Field> targetFields = cache.getFields(object.referenceType());
+            // Read values of all fields at once.
+            Map<Field, Value> values = object.getValues(targetFields);
+            JdiField[] fs = new JdiField[targetFields.size()];
+            int i = 0;
+            for (Field f : targetFields) {
+                fs[i++] = new JdiFieldImpl(f, values.get(f), cache);
+            }
+            fields = fs;
+        }
+        return fields;
+    }
+
+    private int getLength() {
+        if (length < 0) {
+            length = ((ArrayReference)value).length();
+        }
+        return length;
+    }
+
     private boolean isArray() {
         return value instanceof ArrayReference;
     }
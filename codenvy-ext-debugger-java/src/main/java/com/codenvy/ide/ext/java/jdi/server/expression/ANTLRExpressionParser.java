@@ -16,6 +16,10 @@ import org.antlr.runtime.ANTLRStringStream;
 import org.antlr.runtime.CommonTokenStream;
 import org.antlr.runtime.RecognitionException;
 import org.antlr.runtime.tree.CommonTreeNodeStream;
+import org.antlr.runtime.tree.Tree;
+
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * ANTLR based implementation of ExpressionParser.
@@ -24,6 +28,7 @@ import org.antlr.runtime.tree.CommonTreeNodeStream;
  */
 public final class ANTLRExpressionParser extends ExpressionParser {
     private CommonTreeNodeStream nodes;
+    private Tree                 tree;
 
     public ANTLRExpressionParser(String expression) {
         super(expression);
@@ -44,10 +49,56 @@ public final class ANTLRExpressionParser extends ExpressionParser {
         }
     }
 
+    /**
+     * Get names which may refer to local variables, i.e. simple names which are not method names and not qualified with
+     * other expression.
+     *
+     * @return names of local variables or fields used in the expression
+     * @throws ExpressionException
+     *         if expression is invalid
+     */
+    public Set<String> getVariableNames() {
+        Set<String> names = new HashSet<>();
+        collectVariableNames(getTree(), names);
+        return names;
+    }
+
+    /**
+     * Get syntax tree of the expression.
+     *
+     * @return root of the tree
+     * @throws ExpressionException
+     *         if expression is invalid
+     */
+    public Tree getTree() {
+        try {
+            if (tree == null) {
+                parse();
+            }
+        } catch (RecognitionException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+        return tree;
+    }
+
+    private void collectVariableNames(Tree node, Set<String> names) {
+        if (node.getType() == JavaParser.IDENT) {
+            Tree parent = node.getParent();
+            if (parent == null
+                || !(parent.getType() == JavaParser.METHOD_CALL || (parent.getType() == JavaParser.DOT && node.getChildIndex() > 0))) {
+                names.add(node.getText());
+            }
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            collectVariableNames(node.getChild(i), names);
+        }
+    }
+
     private void parse() throws RecognitionException {
         JavaLexer lexer = new JavaLexer(new ANTLRStringStream(getExpression()));
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         JavaParser parser = new JavaParser(tokens);
-        nodes = new CommonTreeNodeStream(parser.expression().getTree());
+        tree = (Tree)parser.expression().getTree();
+        nodes = new CommonTreeNodeStream(tree);
     }
 }
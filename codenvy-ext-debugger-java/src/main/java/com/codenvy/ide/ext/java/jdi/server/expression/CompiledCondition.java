@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.jdi.server.expression;
+
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.IncompatibleThreadStateException;
+import com.sun.jdi.InvalidStackFrameException;
+import com.sun.jdi.LocalVariable;
+import com.sun.jdi.Location;
+import com.sun.jdi.NativeMethodException;
+import com.sun.jdi.StackFrame;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+import com.sun.jdi.VirtualMachine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Condition of breakpoint which is evaluated each time the breakpoint is hit.
+ * <p/>
+ * Expression is parsed once. On the first hit at a location the names used in the expression are resolved to local variables
+ * visible at this location and the mirrors are reused for next hits. Values of all these variables are fetched with a single
+ * request to the target VM before evaluation instead of a request per use of a variable. Simple conditions over integral and
+ * boolean local variables are compiled to {@link ConditionPredicate} per location and tested without the syntax tree.
+ */
+public final class CompiledCondition {
+    private final ANTLRExpressionParser parser;
+    private       Set<String>           names;
+    /* variables and predicate resolved on the first hit at each location */
+    private final Map<Location, Plan>   plans = new HashMap<>();
+
+    public CompiledCondition(String expression) {
+        this.parser = new ANTLRExpressionParser(expression);
+    }
+
+    public String getExpression() {
+        return parser.getExpression();
+    }
+
+    /**
+     * Evaluate condition in the top frame of the suspended thread.
+     *
+     * @return result of evaluation
+     * @throws ExpressionException
+     *         if expression is invalid or another error occurs when try to evaluate expression
+     */
+    public Value evaluate(VirtualMachine vm, ThreadReference thread) {
+        if (names == null) {
+            names = parser.getVariableNames();
+        }
+        StackFrame frame;
+        try {
+            frame = thread.frame(0);
+        } catch (IncompatibleThreadStateException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+        Location location = frame.location();
+        Plan plan = plans.get(location);
+        if (plan == null) {
+            Map<String, LocalVariable> visible = resolveVariables(frame);
+            plan = new Plan(visible, visible == null ? null : ConditionPredicate.compile(parser.getTree(), visible));
+            plans.put(location, plan);
+        }
+        if (plan.variables == null) {
+            // variables are looked up on demand to report the error if the expression really uses them
+            return parser.evaluate(new Evaluator(vm, thread));
+        }
+        Map<LocalVariable, Value> values = plan.variables.isEmpty()
+                                           ? Collections.<LocalVariable, Value>emptyMap()
+                                           : frame.getValues(new ArrayList<>(plan.variables.values()));
+        if (plan.predicate != null) {
+            return vm.mirrorOf(plan.predicate.test(values));
+        }
+        return parser.evaluate(new Evaluator(vm, thread, plan.variables, values));
+    }
+
+    private Map<String, LocalVariable> resolveVariables(StackFrame frame) {
+        Map<String, LocalVariable> visible = new HashMap<>();
+        try {
+            for (String name : names) {
+                LocalVariable variable = frame.visibleVariableByName(name);
+                if (variable != null) {
+                    visible.put(name, variable);
+                }
+            }
+        } catch (AbsentInformationException | NativeMethodException e) {
+            return null;
+        } catch (InvalidStackFrameException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+        return visible;
+    }
+
+    private static final class Plan {
+        /* visible variables by name, null if the location has no information about local variables */
+        final Map<String, LocalVariable> variables;
+        final ConditionPredicate         predicate;
+
+        Plan(Map<String, LocalVariable> variables, ConditionPredicate predicate) {
+            this.variables = variables;
+            this.predicate = predicate;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.jdi.server.expression;
+
+import com.sun.jdi.BooleanValue;
+import com.sun.jdi.LocalVariable;
+import com.sun.jdi.PrimitiveValue;
+import com.sun.jdi.Value;
+
+import org.antlr.runtime.tree.Tree;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simple condition compiled to a predicate over values of local variables, e.g. <code>i == 99999 && !done</code>.
+ * <p/>
+ * Only comparisons of integral and boolean local variables and literals combined with <code>&&</code>, <code>||</code> and
+ * <code>!</code> are compiled. Such condition is tested without walking the syntax tree and without creating mirrors of
+ * intermediate values in the target VM. Other conditions are evaluated with {@link Evaluator}.
+ */
+final class ConditionPredicate {
+    private static final Set<String> INTEGRAL_TYPES = new HashSet<>(Arrays.asList("byte", "char", "short", "int", "long"));
+
+    private final BooleanTerm condition;
+
+    private ConditionPredicate(BooleanTerm condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * Compile condition.
+     *
+     * @param tree
+     *         syntax tree of the condition
+     * @param variables
+     *         local variables visible at the location of breakpoint by name
+     * @return predicate or <code>null</code> if condition is not simple enough
+     */
+    static ConditionPredicate compile(Tree tree, Map<String, LocalVariable> variables) {
+        Term condition = compileTerm(tree, variables);
+        return condition instanceof BooleanTerm ? new ConditionPredicate((BooleanTerm)condition) : null;
+    }
+
+    /**
+     * Test condition.
+     *
+     * @param values
+     *         values of the local variables used in the condition
+     * @return result of the condition
+     */
+    boolean test(Map<LocalVariable, Value> values) {
+        return condition.booleanValue(values);
+    }
+
+    private static Term compileTerm(Tree node, Map<String, LocalVariable> variables) {
+        switch (node.getType()) {
+            case JavaParser.EXPR:
+            case JavaParser.PARENTESIZED_EXPR:
+                return node.getChildCount() == 1 ? compileTerm(node.getChild(0), variables) : null;
+            case JavaParser.IDENT:
+                return compileVariable(variables.get(node.getText()));
+            case JavaParser.DECIMAL_LITERAL:
+            case JavaParser.HEX_LITERAL:
+            case JavaParser.OCTAL_LITERAL:
+                return compileLiteral(node, false);
+            case JavaParser.TRUE:
+                return new BooleanConstant(true);
+            case JavaParser.FALSE:
+                return new BooleanConstant(false);
+            case JavaParser.UNARY_MINUS: {
+                Tree child = node.getChild(0);
+                switch (child.getType()) {
+                    case JavaParser.DECIMAL_LITERAL:
+                    case JavaParser.HEX_LITERAL:
+                    case JavaParser.OCTAL_LITERAL:
+                        // literal is negated as a whole, 2147483648 is valid only here
+                        return compileLiteral(child, true);
+                }
+                Term operand = compileTerm(child, variables);
+                return operand instanceof IntegralConstant ? new IntegralConstant(-((IntegralConstant)operand).value) : null;
+            }
+            case JavaParser.LOGICAL_NOT: {
+                Term term = compileTerm(node.getChild(0), variables);
+                if (!(term instanceof BooleanTerm)) {
+                    return null;
+                }
+                final BooleanTerm operand = (BooleanTerm)term;
+                return new BooleanTerm() {
+                    @Override
+                    boolean booleanValue(Map<LocalVariable, Value> values) {
+                        return !operand.booleanValue(values);
+                    }
+                };
+            }
+            case JavaParser.LOGICAL_AND:
+            case JavaParser.LOGICAL_OR:
+            case JavaParser.EQUAL:
+            case JavaParser.NOT_EQUAL:
+            case JavaParser.LESS_THAN:
+            case JavaParser.LESS_OR_EQUAL:
+            case JavaParser.GREATER_THAN:
+            case JavaParser.GREATER_OR_EQUAL:
+                if (node.getChildCount() != 2) {
+                    return null;
+                }
+                Term left = compileTerm(node.getChild(0), variables);
+                Term right = compileTerm(node.getChild(1), variables);
+                if (left == null || right == null || left.isBoolean() != right.isBoolean()) {
+                    return null;
+                }
+                return compileOperation(node.getType(), left, right);
+            default:
+                return null;
+        }
+    }
+
+    private static Term compileVariable(final LocalVariable variable) {
+        if (variable == null) {
+            // field or not visible variable
+            return null;
+        }
+        if ("boolean".equals(variable.typeName())) {
+            return new BooleanTerm() {
+                @Override
+                boolean booleanValue(Map<LocalVariable, Value> values) {
+                    return ((BooleanValue)values.get(variable)).value();
+                }
+            };
+        }
+        if (INTEGRAL_TYPES.contains(variable.typeName())) {
+            return new IntegralTerm() {
+                @Override
+                long longValue(Map<LocalVariable, Value> values) {
+                    return ((PrimitiveValue)values.get(variable)).longValue();
+                }
+            };
+        }
+        return null;
+    }
+
+    /**
+     * Compile integer literal with the rules of Java: a literal without <code>L</code> suffix is an <code>int</code>, hexadecimal
+     * and octal literals may use all 32 bits and wrap to negative values, decimal literal must be in the range of
+     * <code>int</code>.
+     *
+     * @return constant or <code>null</code> if literal is out of range
+     */
+    private static Term compileLiteral(Tree node, boolean negative) {
+        String text = node.getText();
+        int end = text.length();
+        boolean isLong = text.charAt(end - 1) == 'l' || text.charAt(end - 1) == 'L';
+        if (isLong) {
+            end--;
+        }
+        if (node.getType() == JavaParser.DECIMAL_LITERAL) {
+            long value;
+            try {
+                value = Long.parseLong(negative ? '-' + text.substring(0, end) : text.substring(0, end));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (!isLong && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+                return null;
+            }
+            return new IntegralConstant(value);
+        }
+        BigInteger value = node.getType() == JavaParser.HEX_LITERAL
+                           ? new BigInteger(text.substring(2, end), 16)
+                           : new BigInteger(text.substring(1, end), 8);
+        if (value.bitLength() > (isLong ? 64 : 32)) {
+            return null;
+        }
+        if (isLong) {
+            return new IntegralConstant(negative ? -value.longValue() : value.longValue());
+        }
+        return new IntegralConstant(negative ? -value.intValue() : value.intValue());
+    }
+
+    private static Term compileOperation(final int op, Term leftTerm, Term rightTerm) {
+        if (leftTerm.isBoolean()) {
+            final BooleanTerm left = (BooleanTerm)leftTerm;
+            final BooleanTerm right = (BooleanTerm)rightTerm;
+            switch (op) {
+                case JavaParser.LOGICAL_AND:
+                case JavaParser.LOGICAL_OR:
+                case JavaParser.EQUAL:
+                case JavaParser.NOT_EQUAL:
+                    return new BooleanTerm() {
+                        @Override
+                        boolean booleanValue(Map<LocalVariable, Value> values) {
+                            switch (op) {
+                                case JavaParser.LOGICAL_AND:
+                                    return left.booleanValue(values) && right.booleanValue(values);
+                                case JavaParser.LOGICAL_OR:
+                                    return left.booleanValue(values) || right.booleanValue(values);
+                                case JavaParser.EQUAL:
+                                    return left.booleanValue(values) == right.booleanValue(values);
+                                default:
+                                    return left.booleanValue(values) != right.booleanValue(values);
+                            }
+                        }
+                    };
+                default:
+                    return null;
+            }
+        }
+        if (op == JavaParser.LOGICAL_AND || op == JavaParser.LOGICAL_OR) {
+            return null;
+        }
+        final IntegralTerm left = (IntegralTerm)leftTerm;
+        final IntegralTerm right = (IntegralTerm)rightTerm;
+        return new BooleanTerm() {
+            @Override
+            boolean booleanValue(Map<LocalVariable, Value> values) {
+                long l = left.longValue(values);
+                long r = right.longValue(values);
+                switch (op) {
+                    case JavaParser.EQUAL:
+                        return l == r;
+                    case JavaParser.NOT_EQUAL:
+                        return l != r;
+                    case JavaParser.LESS_THAN:
+                        return l < r;
+                    case JavaParser.LESS_OR_EQUAL:
+                        return l <= r;
+                    case JavaParser.GREATER_THAN:
+                        return l > r;
+                    default:
+                        return l >= r;
+                }
+            }
+        };
+    }
+
+    private abstract static class Term {
+        abstract boolean isBoolean();
+    }
+
+    private abstract static class BooleanTerm extends Term {
+        @Override
+        boolean isBoolean() {
+            return true;
+        }
+
+        abstract boolean booleanValue(Map<LocalVariable, Value> values);
+    }
+
+    private abstract static class IntegralTerm extends Term {
+        @Override
+        boolean isBoolean() {
+            return false;
+        }
+
+        abstract long longValue(Map<LocalVariable, Value> values);
+    }
+
+    private static final class BooleanConstant extends BooleanTerm {
+        final boolean value;
+
+        BooleanConstant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean booleanValue(Map<LocalVariable, Value> values) {
+            return value;
+        }
+    }
+
+    private static final class IntegralConstant extends IntegralTerm {
+        final long value;
+
+        IntegralConstant(long value) {
+            this.value = value;
+        }
+
+        @Override
+        long longValue(Map<LocalVariable, Value> values) {
+            return value;
+        }
+    }
+}
@@ -46,9 +46,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /** @author andrew00x */
@@ -67,12 +69,34 @@ public class Evaluator {
         PRIMITIVE_TYPES.add("double");
     }
 
-    private final VirtualMachine  vm;
-    private final ThreadReference thread;
+    private final VirtualMachine               vm;
+    private final ThreadReference              thread;
+    /* visible local variables and their values fetched before evaluation, null if they are looked up on demand */
+    private final Map<String, LocalVariable>   variables;
+    private final Map<LocalVariable, Value>    values;
+    private final Map<String, ExpressionValue> localValues;
+    private       ObjectReference              thisObject;
+    private       boolean                      thisObjectFetched;
 
     public Evaluator(VirtualMachine vm, ThreadReference thread) {
+        this(vm, thread, null, null);
+    }
+
+    /**
+     * Create evaluator which takes local variables from the given map instead of looking them up in the current frame.
+     *
+     * @param variables
+     *         local variables visible at the current location by name, variable which is not in the map is not visible
+     * @param values
+     *         values of the variables in the current frame
+     */
+    public Evaluator(VirtualMachine vm, ThreadReference thread, Map<String, LocalVariable> variables,
+                     Map<LocalVariable, Value> values) {
         this.vm = vm;
         this.thread = thread;
+        this.variables = variables;
+        this.values = values;
+        this.localValues = variables == null ? null : new HashMap<String, ExpressionValue>();
     }
 
     private static boolean isPrimitive(Type type) {
@@ -227,11 +251,15 @@ public class Evaluator {
     }
 
     public ExpressionValue getThisObject() {
-        try {
-            return new ReadOnlyValue(thread.frame(0).thisObject());
-        } catch (IncompatibleThreadStateException e) {
-            throw new ExpressionException(e.getMessage(), e);
+        if (!thisObjectFetched) {
+            try {
+                thisObject = thread.frame(0).thisObject();
+            } catch (IncompatibleThreadStateException e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+            thisObjectFetched = true;
         }
+        return new ReadOnlyValue(thisObject);
     }
 
     public ExpressionValue getField(Value parent, String name) {
@@ -253,6 +281,9 @@ public class Evaluator {
     }
 
     public ExpressionValue getLocalVariable(String text) {
+        if (variables != null) {
+            return getFetchedLocalVariable(text);
+        }
         ExpressionValue value = null;
         try {
             StackFrame frame = thread.frame(0);
@@ -267,6 +298,20 @@ public class Evaluator {
         return value;
     }
 
+    private ExpressionValue getFetchedLocalVariable(String text) {
+        // the same value is returned for each use of the variable, so assignments are seen by the rest of the expression
+        ExpressionValue value = localValues.get(text);
+        if (value == null) {
+            LocalVariable var = variables.get(text);
+            if (var != null) {
+                value = new LocalValue(thread, var, values.get(var));
+                localValues.put(text, value);
+            }
+        }
+        LOG.debug("GET local variable {} {} ", text, value);
+        return value;
+    }
+
     public ExpressionValue getArrayElement(Value arrayValue, Value indexValue) {
         if (!(arrayValue instanceof ArrayReference)) {
             throw new ExpressionException("Cannot get array element. Object is not array. ");
@@ -23,17 +23,26 @@ public class LocalValue implements ExpressionValue {
     private final ThreadReference thread;
     private final LocalVariable   variable;
     private       Value           value;
+    private       boolean         fetched;
 
     public LocalValue(ThreadReference thread, LocalVariable variable) {
         this.thread = thread;
         this.variable = variable;
     }
 
+    /** Create variable which value is already fetched from the target VM, <code>null</code> means null reference. */
+    public LocalValue(ThreadReference thread, LocalVariable variable, Value value) {
+        this(thread, variable);
+        this.value = value;
+        this.fetched = true;
+    }
+
     @Override
     public Value getValue() {
-        if (value == null) {
+        if (!fetched) {
             try {
                 value = thread.frame(0).getValue(variable);
+                fetched = true;
             } catch (IncompatibleThreadStateException | IllegalArgumentException | InvalidStackFrameException e) {
                 throw new ExpressionException(e.getMessage(), e);
             }
@@ -49,5 +58,6 @@ public class LocalValue implements ExpressionValue {
             throw new ExpressionException(e.getMessage(), e);
         }
         this.value = value;
+        this.fetched = true;
     }
 }
@@ -23,4 +23,11 @@ public interface DebuggerEvent {
     void setType(int type);
 
     DebuggerEvent withType(int type);
+
+    /** Unique id of thread which is suspended by this event. */
+    long getThreadId();
+
+    void setThreadId(long threadId);
+
+    DebuggerEvent withThreadId(long threadId);
 }
\ No newline at end of file
@@ -23,6 +23,13 @@ public interface Value {
 
     Value withVariables(List<Variable> variables);
 
+    /** Total number of nested variables, {@link #getVariables()} contains only the requested range of them. */
+    int getChildCount();
+
+    void setChildCount(int childCount);
+
+    Value withChildCount(int childCount);
+
     String getValue();
 
     void setValue(String value);
@@ -53,6 +53,20 @@ public interface Variable {
 
     Variable withPrimitive(boolean primitive);
 
+    /** Number of nested variables: length of array or number of fields of object. */
+    int getChildCount();
+
+    void setChildCount(int childCount);
+
+    Variable withChildCount(int childCount);
+
+    /** Unique id of object in the target JVM or <code>0</code> if value is primitive or <code>null</code>. */
+    long getObjectId();
+
+    void setObjectId(long objectId);
+
+    Variable withObjectId(long objectId);
+
     List<Variable> getVariables();
 
     void setVariables(List<Variable> variables);
@@ -35,6 +35,7 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public abstract class BaseTest {
     public static final String  DEBUGGER_ID    = "debugger_id";
+    public static final long    THREAD_ID      = 1L;
     public static final boolean DISABLE_BUTTON = false;
     @Mock
     protected DebuggerClientService           service;
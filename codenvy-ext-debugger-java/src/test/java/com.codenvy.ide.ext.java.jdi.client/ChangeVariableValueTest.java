@@ -29,6 +29,7 @@ import org.mockito.stubbing.Answer;
 
 import java.lang.reflect.Method;
 
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -68,7 +69,7 @@ public class ChangeVariableValueTest extends BaseTest {
 
     @Test
     public void shouldShowDialog() throws Exception {
-        presenter.showDialog(debuggerInfo, var, asyncCallback);
+        presenter.showDialog(debuggerInfo, THREAD_ID, var, asyncCallback);
 
         verify(view).setValueTitle(constants.changeValueViewExpressionFieldTitle(VAR_NAME));
         verify(view).setValue(VAR_VALUE);
@@ -109,18 +110,18 @@ public class ChangeVariableValueTest extends BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[3];
                 Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
                 onSuccess.invoke(callback, (Void)null);
                 return callback;
             }
-        }).when(service).setValue(anyString(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).setValue(anyString(), anyLong(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
         when(view.getValue()).thenReturn(VAR_VALUE);
 
-        presenter.showDialog(debuggerInfo, var, asyncCallback);
+        presenter.showDialog(debuggerInfo, THREAD_ID, var, asyncCallback);
         presenter.onChangeClicked();
 
-        verify(service).setValue(anyString(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).setValue(anyString(), anyLong(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
         verify(asyncCallback).onSuccess(eq(VAR_VALUE));
         verify(view).close();
     }
@@ -131,18 +132,18 @@ public class ChangeVariableValueTest extends BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[3];
                 Method onFailure = GwtReflectionUtils.getMethod(callback.getClass(), "onFailure");
                 onFailure.invoke(callback, mock(Throwable.class));
                 return callback;
             }
-        }).when(service).setValue(anyString(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).setValue(anyString(), anyLong(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
         when(view.getValue()).thenReturn(VAR_VALUE);
 
-        presenter.showDialog(debuggerInfo, var, asyncCallback);
+        presenter.showDialog(debuggerInfo, THREAD_ID, var, asyncCallback);
         presenter.onChangeClicked();
 
-        verify(service).setValue(anyString(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).setValue(anyString(), anyLong(), (UpdateVariableRequest)anyObject(), (AsyncRequestCallback<Void>)anyObject());
         verify(asyncCallback).onFailure((Throwable)anyObject());
         verify(notificationManager).showNotification((Notification)anyObject());
         verify(view).close();
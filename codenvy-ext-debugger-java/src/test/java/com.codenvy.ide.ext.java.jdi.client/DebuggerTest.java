@@ -27,6 +27,7 @@ import com.codenvy.ide.ext.java.jdi.client.fqn.FqnResolverFactory;
 import com.codenvy.ide.ext.java.jdi.shared.BreakPoint;
 import com.codenvy.ide.ext.java.jdi.shared.DebuggerInfo;
 import com.codenvy.ide.ext.java.jdi.shared.Location;
+import com.codenvy.ide.ext.java.jdi.shared.Value;
 import com.codenvy.ide.ext.java.jdi.shared.Variable;
 import com.codenvy.ide.extension.runner.client.run.RunnerController;
 import com.codenvy.ide.rest.AsyncRequestCallback;
@@ -41,15 +42,19 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -101,6 +106,7 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
         when(dtoFactory.createDto(Location.class)).thenReturn(mock(Location.class));
         when(dtoFactory.createDto(BreakPoint.class)).thenReturn(mock(BreakPoint.class));
         when(resolverFactory.getResolver(anyString())).thenReturn(mock(FqnResolver.class));
+        GwtReflectionUtils.setPrivateFieldValue(presenter, "currentThread", THREAD_ID);
     }
 
     @Test
@@ -200,38 +206,47 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
                 onSuccess.invoke(callback, (Void)null);
                 return callback;
             }
-        }).when(service).resume(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).resume(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
 
         presenter.onResumeButtonClicked();
 
         verifySetEnableButtons(DISABLE_BUTTON);
-        verify(service).resume(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).resume(anyString(), eq(THREAD_ID), (AsyncRequestCallback<Void>)anyObject());
         verify(view).setVariables(anyListOf(Variable.class));
         verify(view).setEnableChangeValueButtonEnable(eq(DISABLE_BUTTON));
         verify(gutterManager).unmarkCurrentBreakpoint();
     }
 
+    @Test
+    public void testResumeRequestIfNoThreadIsSuspended() throws Exception {
+        GwtReflectionUtils.setPrivateFieldValue(presenter, "currentThread", null);
+
+        presenter.onResumeButtonClicked();
+
+        verify(service, never()).resume(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
+    }
+
     @Test
     public void testResumeRequestIsFailed() throws Exception {
         doAnswer(new Answer() {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onFailure = GwtReflectionUtils.getMethod(callback.getClass(), "onFailure");
                 onFailure.invoke(callback, mock(Throwable.class));
                 return callback;
             }
-        }).when(service).resume(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).resume(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
 
         presenter.onResumeButtonClicked();
 
-        verify(service).resume(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).resume(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(notificationManager).showNotification((Notification)anyObject());
     }
 
@@ -241,17 +256,17 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
                 onSuccess.invoke(callback, (Void)null);
                 return callback;
             }
-        }).when(service).stepInto(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).stepInto(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         when(view.resetStepIntoButton(false)).thenReturn(true);
 
         presenter.onStepIntoButtonClicked();
 
-        verify(service).stepInto(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).stepInto(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(view).setVariables(anyListOf(Variable.class));
         verify(view).setEnableChangeValueButtonEnable(eq(DISABLE_BUTTON));
         verify(gutterManager).unmarkCurrentBreakpoint();
@@ -272,17 +287,17 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onFailure = GwtReflectionUtils.getMethod(callback.getClass(), "onFailure");
                 onFailure.invoke(callback, mock(Throwable.class));
                 return callback;
             }
-        }).when(service).stepInto(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).stepInto(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         when(view.resetStepIntoButton(false)).thenReturn(true);
 
         presenter.onStepIntoButtonClicked();
 
-        verify(service).stepInto(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).stepInto(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(notificationManager).showNotification((Notification)anyObject());
     }
 
@@ -292,17 +307,17 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
                 onSuccess.invoke(callback, (Void)null);
                 return callback;
             }
-        }).when(service).stepOver(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).stepOver(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         when(view.resetStepOverButton(false)).thenReturn(true);
 
         presenter.onStepOverButtonClicked();
 
-        verify(service).stepOver(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).stepOver(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(view).setVariables(anyListOf(Variable.class));
         verify(view).setEnableChangeValueButtonEnable(eq(DISABLE_BUTTON));
         verify(gutterManager).unmarkCurrentBreakpoint();
@@ -314,17 +329,17 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onFailure = GwtReflectionUtils.getMethod(callback.getClass(), "onFailure");
                 onFailure.invoke(callback, mock(Throwable.class));
                 return callback;
             }
-        }).when(service).stepOver(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).stepOver(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         when(view.resetStepOverButton(false)).thenReturn(true);
 
         presenter.onStepOverButtonClicked();
 
-        verify(service).stepOver(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).stepOver(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(notificationManager).showNotification((Notification)anyObject());
     }
 
@@ -343,17 +358,17 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
                 onSuccess.invoke(callback, (Void)null);
                 return callback;
             }
-        }).when(service).stepReturn(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).stepReturn(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         when(view.resetStepReturnButton(false)).thenReturn(true);
 
         presenter.onStepReturnButtonClicked();
 
-        verify(service).stepReturn(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).stepReturn(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(view).setVariables(anyListOf(Variable.class));
         verify(view).setEnableChangeValueButtonEnable(eq(DISABLE_BUTTON));
         verify(gutterManager).unmarkCurrentBreakpoint();
@@ -365,17 +380,17 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[1];
+                AsyncRequestCallback<Void> callback = (AsyncRequestCallback<Void>)arguments[2];
                 Method onFailure = GwtReflectionUtils.getMethod(callback.getClass(), "onFailure");
                 onFailure.invoke(callback, mock(Throwable.class));
                 return callback;
             }
-        }).when(service).stepReturn(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        }).when(service).stepReturn(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         when(view.resetStepReturnButton(false)).thenReturn(true);
 
         presenter.onStepReturnButtonClicked();
 
-        verify(service).stepReturn(anyString(), (AsyncRequestCallback<Void>)anyObject());
+        verify(service).stepReturn(anyString(), anyLong(), (AsyncRequestCallback<Void>)anyObject());
         verify(notificationManager).showNotification((Notification)anyObject());
     }
 
@@ -469,14 +484,49 @@ public class DebuggerTest extends com.codenvy.ide.ext.java.jdi.client.BaseTest {
         presenter.onSelectedVariableElement(mock(Variable.class));
         presenter.onChangeValueButtonClicked();
 
-        verify(changeValuePresenter).showDialog((DebuggerInfo)anyObject(), (Variable)anyObject(), (AsyncCallback<String>)anyObject());
+        verify(changeValuePresenter).showDialog((DebuggerInfo)anyObject(), anyLong(), (Variable)anyObject(), (AsyncCallback<String>)anyObject());
     }
 
     @Test
     public void shouldOpenEvaluateExpressionDialog() throws Exception {
         presenter.onEvaluateExpressionButtonClicked();
 
-        verify(evaluateExpressionPresenter).showDialog((DebuggerInfo)anyObject());
+        verify(evaluateExpressionPresenter).showDialog((DebuggerInfo)anyObject(), anyLong());
+    }
+
+    @Test
+    public void shouldLoadNestedVariablesByPages() throws Exception {
+        Variable variable = mock(Variable.class);
+        when(variable.getVariables()).thenReturn(new ArrayList<Variable>());
+        final Value firstPage = mock(Value.class);
+        when(firstPage.getVariables()).thenReturn(Arrays.asList(mock(Variable.class)));
+        when(firstPage.getChildCount()).thenReturn(2);
+        final Value secondPage = mock(Value.class);
+        when(secondPage.getVariables()).thenReturn(Arrays.asList(mock(Variable.class)));
+        when(secondPage.getChildCount()).thenReturn(2);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Object[] arguments = invocation.getArguments();
+                AsyncRequestCallback<Value> callback = (AsyncRequestCallback<Value>)arguments[5];
+                Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
+                onSuccess.invoke(callback, (Integer)arguments[3] == 0 ? firstPage : secondPage);
+                return callback;
+            }
+        }).when(service).getValue(anyString(), anyLong(), (Variable)anyObject(), anyInt(), anyInt(),
+                                  (AsyncRequestCallback<Value>)anyObject());
+        GwtReflectionUtils.setPrivateFieldValue(presenter, "debuggerInfo", debuggerInfo);
+        presenter.onSelectedVariableElement(variable);
+
+        presenter.onExpandVariablesTree();
+
+        verify(service).getValue(eq(DEBUGGER_ID), eq(THREAD_ID), eq(variable), eq(0), anyInt(),
+                                 (AsyncRequestCallback<Value>)anyObject());
+        verify(service).getValue(eq(DEBUGGER_ID), eq(THREAD_ID), eq(variable), eq(1), anyInt(),
+                                 (AsyncRequestCallback<Value>)anyObject());
+        verify(service, never()).getValue(anyString(), anyLong(), (Variable)anyObject(), eq(2), anyInt(),
+                                          (AsyncRequestCallback<Value>)anyObject());
+        verify(view, times(2)).updateSelectedVariable();
     }
 
     protected void verifySetEnableButtons(boolean enabled) {
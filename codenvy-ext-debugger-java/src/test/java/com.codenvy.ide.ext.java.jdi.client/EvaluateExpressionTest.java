@@ -23,6 +23,7 @@ import org.mockito.stubbing.Answer;
 
 import java.lang.reflect.Method;
 
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -49,7 +50,7 @@ public class EvaluateExpressionTest extends BaseTest {
 
     @Test
     public void shouldShowDialog() throws Exception {
-        presenter.showDialog(debuggerInfo);
+        presenter.showDialog(debuggerInfo, THREAD_ID);
 
         verify(view).setExpression(eq(EMPTY_EXPRESSION));
         verify(view).setResult(eq(EMPTY_EXPRESSION));
@@ -96,19 +97,19 @@ public class EvaluateExpressionTest extends BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<String> callback = (AsyncRequestCallback<String>)arguments[2];
+                AsyncRequestCallback<String> callback = (AsyncRequestCallback<String>)arguments[3];
                 Method onSuccess = GwtReflectionUtils.getMethod(callback.getClass(), "onSuccess");
                 onSuccess.invoke(callback, EVALUATION_RESULT);
                 return callback;
             }
-        }).when(service).evaluateExpression(anyString(), anyString(), (AsyncRequestCallback<String>)anyObject());
+        }).when(service).evaluateExpression(anyString(), anyLong(), anyString(), (AsyncRequestCallback<String>)anyObject());
         when(view.getExpression()).thenReturn(EXPRESSION);
 
-        presenter.showDialog(debuggerInfo);
+        presenter.showDialog(debuggerInfo, THREAD_ID);
         presenter.onEvaluateClicked();
 
         verify(view, atLeastOnce()).setEnableEvaluateButton(eq(DISABLE_BUTTON));
-        verify(service).evaluateExpression(eq(DEBUGGER_ID), eq(EXPRESSION), (AsyncRequestCallback<String>)anyObject());
+        verify(service).evaluateExpression(eq(DEBUGGER_ID), eq(THREAD_ID), eq(EXPRESSION), (AsyncRequestCallback<String>)anyObject());
         verify(view).setResult(eq(EVALUATION_RESULT));
         verify(view).setEnableEvaluateButton(eq(!DISABLE_BUTTON));
     }
@@ -120,20 +121,20 @@ public class EvaluateExpressionTest extends BaseTest {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
                 Object[] arguments = invocation.getArguments();
-                AsyncRequestCallback<String> callback = (AsyncRequestCallback<String>)arguments[2];
+                AsyncRequestCallback<String> callback = (AsyncRequestCallback<String>)arguments[3];
                 Method onFailure = GwtReflectionUtils.getMethod(callback.getClass(), "onFailure");
                 onFailure.invoke(callback, throwable);
                 return callback;
             }
-        }).when(service).evaluateExpression(anyString(), anyString(), (AsyncRequestCallback<String>)anyObject());
+        }).when(service).evaluateExpression(anyString(), anyLong(), anyString(), (AsyncRequestCallback<String>)anyObject());
         when(view.getExpression()).thenReturn(EXPRESSION);
         when(throwable.getMessage()).thenReturn(FAIL_REASON);
 
-        presenter.showDialog(debuggerInfo);
+        presenter.showDialog(debuggerInfo, THREAD_ID);
         presenter.onEvaluateClicked();
 
         verify(view, atLeastOnce()).setEnableEvaluateButton(eq(DISABLE_BUTTON));
-        verify(service).evaluateExpression(eq(DEBUGGER_ID), eq(EXPRESSION), (AsyncRequestCallback<String>)anyObject());
+        verify(service).evaluateExpression(eq(DEBUGGER_ID), eq(THREAD_ID), eq(EXPRESSION), (AsyncRequestCallback<String>)anyObject());
         verify(constants).evaluateExpressionFailed(FAIL_REASON);
         verify(view).setEnableEvaluateButton(eq(!DISABLE_BUTTON));
     }
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.jdi.server;
+
+import com.codenvy.ide.ext.java.jdi.shared.DebuggerEvent;
+import com.sun.jdi.Location;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.event.BreakpointEvent;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.BreakpointRequest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testing suspended threads of {@link Debugger}.
+ */
+public class DebuggerTest {
+    private VirtualMachine vm;
+    private Debugger       debugger;
+
+    @Before
+    public void setUp() {
+        vm = mock(VirtualMachine.class);
+        debugger = new Debugger("localhost", 8000, vm);
+    }
+
+    @Test
+    public void shouldKeepStateOfEachSuspendedThread() throws Exception {
+        ThreadReference first = newThread(1);
+        ThreadReference second = newThread(2);
+
+        hitBreakpoint(first);
+        hitBreakpoint(second);
+
+        List<DebuggerEvent> events = debugger.getEvents();
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).getThreadId());
+        assertEquals(2, events.get(1).getThreadId());
+        verify(vm, never()).suspend();
+    }
+
+    @Test
+    public void shouldResumeOnlyRequestedThread() throws Exception {
+        ThreadReference first = newThread(1);
+        ThreadReference second = newThread(2);
+        hitBreakpoint(first);
+        hitBreakpoint(second);
+
+        debugger.resume(1);
+
+        verify(first).resume();
+        verify(second, never()).resume();
+        assertNotSuspended(1);
+        debugger.resume(2);
+        verify(second).resume();
+    }
+
+    @Test
+    public void shouldResumeFirstSuspendedThreadWhenThreadIsNotSpecified() throws Exception {
+        ThreadReference first = newThread(1);
+        ThreadReference second = newThread(2);
+        hitBreakpoint(first);
+        hitBreakpoint(second);
+
+        debugger.resume();
+
+        verify(first).resume();
+        verify(second, never()).resume();
+        verify(vm, never()).resume();
+        assertNotSuspended(1);
+        debugger.resume();
+        verify(second).resume();
+        assertNotSuspended(2);
+    }
+
+    @Test
+    public void shouldKeepThreadWhichHitBreakpointWhileResuming() throws Exception {
+        ThreadReference first = newThread(1);
+        final ThreadReference concurrent = newThread(2);
+        hitBreakpoint(first);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                hitBreakpoint(concurrent);
+                return null;
+            }
+        }).when(first).resume();
+
+        debugger.resume();
+
+        verify(concurrent, never()).resume();
+        assertNotSuspended(1);
+        // thread suspended while resuming becomes current
+        debugger.resume();
+        verify(concurrent).resume();
+        verify(first, times(1)).resume();
+        assertNotSuspended(2);
+    }
+
+    @Test
+    public void shouldResumeAllSuspendedThreadsOnDisconnect() throws Exception {
+        ThreadReference first = newThread(1);
+        ThreadReference second = newThread(2);
+        hitBreakpoint(first);
+        hitBreakpoint(second);
+
+        debugger.disconnect();
+
+        verify(first).resume();
+        verify(second).resume();
+        verify(vm).dispose();
+    }
+
+    private void assertNotSuspended(long threadId) throws Exception {
+        try {
+            debugger.resume(threadId);
+            fail("Thread " + threadId + " must not be suspended");
+        } catch (DebuggerStateException e) {
+            // not suspended
+        }
+    }
+
+    private void hitBreakpoint(ThreadReference thread) throws Exception {
+        ReferenceType type = mock(ReferenceType.class);
+        when(type.name()).thenReturn("com.codenvy.Test");
+        Location location = mock(Location.class);
+        when(location.declaringType()).thenReturn(type);
+        when(location.lineNumber()).thenReturn(10);
+        BreakpointEvent event = mock(BreakpointEvent.class);
+        when(event.thread()).thenReturn(thread);
+        when(event.location()).thenReturn(location);
+        when(event.request()).thenReturn(mock(BreakpointRequest.class));
+        EventSet eventSet = mock(EventSet.class);
+        when(eventSet.iterator()).thenReturn(Collections.<Event>singletonList(event).iterator());
+
+        debugger.handleEvents(eventSet);
+
+        verify(eventSet, never()).resume();
+    }
+
+    private static ThreadReference newThread(long id) {
+        ThreadReference thread = mock(ThreadReference.class);
+        when(thread.uniqueID()).thenReturn(id);
+        return thread;
+    }
+}
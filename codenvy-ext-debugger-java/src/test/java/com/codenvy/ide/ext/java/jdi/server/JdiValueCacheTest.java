@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.jdi.server;
+
+import com.sun.jdi.Field;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testing {@link JdiValueCache} functionality.
+ */
+public class JdiValueCacheTest {
+    private JdiValueCache cache;
+    private ReferenceType type;
+    private Field         b;
+    private Field         a;
+    private Field         staticZ;
+
+    @Before
+    public void setUp() {
+        cache = new JdiValueCache();
+        b = newField("b", false);
+        a = newField("a", false);
+        staticZ = newField("z", true);
+        type = mock(ReferenceType.class);
+        when(type.allFields()).thenReturn(Arrays.asList(b, staticZ, a));
+    }
+
+    @Test
+    public void shouldSortStaticFieldsFirstAndByName() {
+        assertEquals(Arrays.asList(staticZ, a, b), cache.getFields(type));
+    }
+
+    @Test
+    public void shouldReadFieldsOfTypeOnce() {
+        List<Field> fields = cache.getFields(type);
+
+        assertSame(fields, cache.getFields(type));
+        verify(type, times(1)).allFields();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowToModifyFields() {
+        cache.getFields(type).clear();
+    }
+
+    @Test
+    public void shouldReturnTheSameWrapperForTheSameObject() {
+        ObjectReference object = mock(ObjectReference.class);
+
+        assertSame(cache.getValue(object), cache.getValue(object));
+        assertNotSame(cache.getValue(object), cache.getValue(mock(ObjectReference.class)));
+    }
+
+    @Test
+    public void shouldNotCacheNullAndPrimitiveValues() {
+        IntegerValue primitive = mock(IntegerValue.class);
+
+        assertTrue(cache.getValue(null) instanceof JdiNullValue);
+        assertNotSame(cache.getValue(primitive), cache.getValue(primitive));
+    }
+
+    @Test
+    public void shouldDropValuesButKeepFieldsOfTypes() {
+        ObjectReference object = mock(ObjectReference.class);
+        JdiValue value = cache.getValue(object);
+        List<Field> fields = cache.getFields(type);
+
+        cache.clearValues();
+
+        assertNotSame(value, cache.getValue(object));
+        assertSame(fields, cache.getFields(type));
+        verify(type, times(1)).allFields();
+    }
+
+    private static Field newField(String name, boolean isStatic) {
+        Field field = mock(Field.class);
+        when(field.name()).thenReturn(name);
+        when(field.isStatic()).thenReturn(isStatic);
+        return field;
+    }
+}
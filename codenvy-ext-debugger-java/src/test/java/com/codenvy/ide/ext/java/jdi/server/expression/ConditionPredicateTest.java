@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.jdi.server.expression;
+
+import com.sun.jdi.BooleanValue;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.LocalVariable;
+import com.sun.jdi.LongValue;
+import com.sun.jdi.Value;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testing {@link ConditionPredicate} functionality.
+ */
+public class ConditionPredicateTest {
+    private Map<String, LocalVariable> variables;
+    private Map<LocalVariable, Value>  values;
+
+    @Before
+    public void setUp() {
+        variables = new HashMap<>();
+        values = new HashMap<>();
+        addVariable("s", "java.lang.String", mock(Value.class));
+    }
+
+    @Test
+    public void shouldCompileLogicalOperators() {
+        setBoolean("done", true);
+        setBoolean("ready", false);
+
+        assertFalse(test("done && ready"));
+        assertTrue(test("done || ready"));
+        assertTrue(test("!ready"));
+        assertTrue(test("!(done && ready) && (ready || done)"));
+        assertTrue(test("done != ready"));
+    }
+
+    @Test
+    public void shouldCompileComparisonsOfIntegralVariables() {
+        setInt("i", 99999);
+        setLong("l", 5000000000L);
+
+        assertTrue(test("i == 99999"));
+        assertFalse(test("i != 99999"));
+        assertTrue(test("i < l && l >= 5000000000L"));
+        assertTrue(test("i > 0 || i <= -1"));
+    }
+
+    @Test
+    public void shouldNotCompileMixedBooleanAndIntegralTerms() {
+        setBoolean("done", true);
+        setInt("i", 1);
+
+        assertNull(compile("done == i"));
+        assertNull(compile("i && done"));
+        assertNull(compile("!i"));
+        assertNull(compile("i == 1 && i"));
+        assertNull(compile("i"));
+    }
+
+    @Test
+    public void shouldNotCompileOtherVariables() {
+        setInt("i", 1);
+
+        assertNull(compile("s == null"));
+        assertNull(compile("i == field"));
+    }
+
+    @Test
+    public void shouldCompileHexAndOctalLiteralsAsInt() {
+        setInt("i", -1);
+
+        assertTrue(test("i == 0xFFFFFFFF"));
+        assertTrue(test("i == 037777777777"));
+        assertFalse(test("i == 0xFFFFFFFFL"));
+        assertTrue(test("i == 0xFFFFFFFFFFFFFFFFL"));
+        assertTrue(test("0x10 == 020"));
+        assertNull(compile("i == 0x100000000"));
+        assertNull(compile("i == 040000000000"));
+    }
+
+    @Test
+    public void shouldCompileDecimalLiteralsInRangeOfInt() {
+        setInt("i", Integer.MAX_VALUE);
+
+        assertTrue(test("i == 2147483647"));
+        assertNull(compile("i < 2147483648"));
+        assertTrue(test("i < 2147483648L"));
+    }
+
+    @Test
+    public void shouldCompileNegativeLiterals() {
+        setInt("i", Integer.MIN_VALUE);
+        setLong("l", Long.MIN_VALUE);
+
+        assertTrue(test("i == -2147483648"));
+        assertTrue(test("i == -0x80000000"));
+        assertTrue(test("l == -9223372036854775808L"));
+        assertTrue(test("-1 < 0 && -(1) == -1"));
+        assertNull(compile("i == -2147483649"));
+    }
+
+    private ConditionPredicate compile(String expression) {
+        return ConditionPredicate.compile(new ANTLRExpressionParser(expression).getTree(), variables);
+    }
+
+    private boolean test(String expression) {
+        ConditionPredicate predicate = compile(expression);
+        assertNotNull(expression, predicate);
+        return predicate.test(values);
+    }
+
+    private void setBoolean(String name, boolean value) {
+        BooleanValue mirror = mock(BooleanValue.class);
+        when(mirror.value()).thenReturn(value);
+        addVariable(name, "boolean", mirror);
+    }
+
+    private void setInt(String name, int value) {
+        IntegerValue mirror = mock(IntegerValue.class);
+        when(mirror.longValue()).thenReturn((long)value);
+        addVariable(name, "int", mirror);
+    }
+
+    private void setLong(String name, long value) {
+        LongValue mirror = mock(LongValue.class);
+        when(mirror.longValue()).thenReturn(value);
+        addVariable(name, "long", mirror);
+    }
+
+    private void addVariable(String name, String type, Value value) {
+        LocalVariable variable = mock(LocalVariable.class);
+        when(variable.typeName()).thenReturn(type);
+        variables.put(name, variable);
+        values.put(variable, value);
+    }
+}
@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server;
+
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.internal.compiler.env.ClassSignature;
+import org.eclipse.jdt.internal.compiler.env.EnumConstantSignature;
+import org.eclipse.jdt.internal.compiler.env.IBinaryAnnotation;
+import org.eclipse.jdt.internal.compiler.env.IBinaryElementValuePair;
+import org.eclipse.jdt.internal.compiler.env.IBinaryField;
+import org.eclipse.jdt.internal.compiler.env.IBinaryMethod;
+import org.eclipse.jdt.internal.compiler.env.IBinaryNestedType;
+import org.eclipse.jdt.internal.compiler.env.IBinaryType;
+import org.eclipse.jdt.internal.compiler.impl.Constant;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_JavaLangString;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_boolean;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_byte;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_char;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_double;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_float;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_int;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_long;
+import static org.eclipse.jdt.internal.compiler.lookup.TypeIds.T_short;
+
+/**
+ * Writes {@link IBinaryType} in the compact format understood by the java worker, an alternative to
+ * {@link BinaryTypeConvector} for clients which ask for it with <code>format=compact</code>.
+ * <p/>
+ * The type is written straight to the stream as positional JSON arrays, names and signatures are replaced with indexes
+ * into a string table written after the type, so repeated signatures are sent once. Index <code>0</code> and
+ * <code>0</code> in place of an array stand for <code>null</code>. Layout:
+ * <pre>
+ * [version, type, [strings]]
+ * type       = [flags, modifiers, tagBits, name, sourceName, superclassName, enclosingTypeName, enclosingMethod,
+ *               genericSignature, sourceFileName, fileName, [interfaceNames], [annotation], [field], [method], [memberType],
+ *               [[missingTypeName]]]
+ * field      = [modifiers, tagBits, name, typeName, genericSignature, constant, [annotation]]
+ * method     = [flags, modifiers, tagBits, selector, methodDescriptor, genericSignature, [argumentNames],
+ *               [exceptionTypeNames], [annotation], [[annotation]], value]
+ * memberType = [modifiers, name, enclosingTypeName]
+ * annotation = [typeName, [[name, value]]]
+ * constant   = [typeId, value] or [typeId] for NotAConstant
+ * value      = [1, constant] | [2, className] | [3, annotation] | [4, typeName, constantName] | [5, [value]]
+ * </pre>
+ * Tag bits are numbers unless they don't fit into double precision, then they are decimal strings.
+ * Worker counterpart is <code>com.codenvy.ide.ext.java.worker.env.json.CompactTypeDecoder</code>, both must be changed together.
+ */
+public class CompactTypeWriter {
+    public static final int VERSION = 1;
+
+    /* largest integer javascript represents exactly */
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    private final JsonWriter           writer;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String>         strings = new ArrayList<>();
+
+    private CompactTypeWriter(Writer out) {
+        writer = new JsonWriter(out);
+        writer.setHtmlSafe(false);
+    }
+
+    public static void write(IBinaryType type, Writer out) throws IOException {
+        CompactTypeWriter compactWriter = new CompactTypeWriter(out);
+        compactWriter.writeDocument(type);
+        compactWriter.writer.flush();
+    }
+
+    private void writeDocument(IBinaryType type) throws IOException {
+        writer.beginArray();
+        writer.value(VERSION);
+        writeType(type);
+        writer.beginArray();
+        for (String string : strings) {
+            writer.value(string);
+        }
+        writer.endArray();
+        writer.endArray();
+    }
+
+    private void writeType(IBinaryType type) throws IOException {
+        writer.beginArray();
+        int flags = (type.isAnonymous() ? 1 : 0) | (type.isLocal() ? 2 : 0) | (type.isMember() ? 4 : 0) | (type.isBinaryType() ? 8 : 0);
+        writer.value(flags);
+        writer.value(type.getModifiers());
+        writeTagBits(type.getTagBits());
+        writeString(type.getName());
+        writeString(type.getSourceName());
+        writeString(type.getSuperclassName());
+        writeString(type.getEnclosingTypeName());
+        writeString(type.getEnclosingMethod());
+        writeString(type.getGenericSignature());
+        writeString(type.sourceFileName());
+        writeString(type.getFileName());
+        writeStrings(type.getInterfaceNames());
+        writeAnnotations(type.getAnnotations());
+        writeFields(type.getFields());
+        writeMethods(type.getMethods());
+        writeMemberTypes(type.getMemberTypes());
+        char[][][] missingTypeNames = type.getMissingTypeNames();
+        if (missingTypeNames == null) {
+            writer.value(0);
+        } else {
+            writer.beginArray();
+            for (char[][] typeName : missingTypeNames) {
+                writeStrings(typeName);
+            }
+            writer.endArray();
+        }
+        writer.endArray();
+    }
+
+    private void writeFields(IBinaryField[] fields) throws IOException {
+        if (fields == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        for (IBinaryField field : fields) {
+            writer.beginArray();
+            writer.value(field.getModifiers());
+            writeTagBits(field.getTagBits());
+            writeString(field.getName());
+            writeString(field.getTypeName());
+            writeString(field.getGenericSignature());
+            writeConstant(field.getConstant());
+            writeAnnotations(field.getAnnotations());
+            writer.endArray();
+        }
+        writer.endArray();
+    }
+
+    private void writeMethods(IBinaryMethod[] methods) throws IOException {
+        if (methods == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        for (IBinaryMethod method : methods) {
+            writer.beginArray();
+            writer.value((method.isConstructor() ? 1 : 0) | (method.isClinit() ? 2 : 0));
+            writer.value(method.getModifiers());
+            writeTagBits(method.getTagBits());
+            writeString(method.getSelector());
+            writeString(method.getMethodDescriptor());
+            writeString(method.getGenericSignature());
+            writeStrings(method.getArgumentNames());
+            writeStrings(method.getExceptionTypeNames());
+            writeAnnotations(method.getAnnotations());
+            if (method.getAnnotatedParametersCount() != 0) {
+                writer.beginArray();
+                int parameterCount = Signature.getParameterCount(method.getMethodDescriptor());
+                for (int i = 0; i < parameterCount; i++) {
+                    writeAnnotations(method.getParameterAnnotations(i));
+                }
+                writer.endArray();
+            } else {
+                writer.value(0);
+            }
+            writeValue(method.getDefaultValue());
+            writer.endArray();
+        }
+        writer.endArray();
+    }
+
+    private void writeMemberTypes(IBinaryNestedType[] memberTypes) throws IOException {
+        if (memberTypes == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        for (IBinaryNestedType memberType : memberTypes) {
+            writer.beginArray();
+            writer.value(memberType.getModifiers());
+            writeString(memberType.getName());
+            writeString(memberType.getEnclosingTypeName());
+            writer.endArray();
+        }
+        writer.endArray();
+    }
+
+    private void writeAnnotations(IBinaryAnnotation[] annotations) throws IOException {
+        if (annotations == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        for (IBinaryAnnotation annotation : annotations) {
+            writeAnnotation(annotation);
+        }
+        writer.endArray();
+    }
+
+    private void writeAnnotation(IBinaryAnnotation annotation) throws IOException {
+        writer.beginArray();
+        writeString(annotation.getTypeName());
+        IBinaryElementValuePair[] pairs = annotation.getElementValuePairs();
+        if (pairs == null) {
+            writer.value(0);
+        } else {
+            writer.beginArray();
+            for (IBinaryElementValuePair pair : pairs) {
+                writer.beginArray();
+                writeString(pair.getName());
+                writeValue(pair.getValue());
+                writer.endArray();
+            }
+            writer.endArray();
+        }
+        writer.endArray();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        if (value instanceof Constant) {
+            writer.value(1);
+            writeConstant((Constant)value);
+        } else if (value instanceof ClassSignature) {
+            writer.value(2);
+            writeString(((ClassSignature)value).getTypeName());
+        } else if (value instanceof IBinaryAnnotation) {
+            writer.value(3);
+            writeAnnotation((IBinaryAnnotation)value);
+        } else if (value instanceof EnumConstantSignature) {
+            EnumConstantSignature signature = (EnumConstantSignature)value;
+            writer.value(4);
+            writeString(signature.getTypeName());
+            writeString(signature.getEnumConstantName());
+        } else if (value instanceof Object[]) {
+            writer.value(5);
+            writer.beginArray();
+            for (Object o : (Object[])value) {
+                writeValue(o);
+            }
+            writer.endArray();
+        } else {
+            writer.value(0);
+        }
+        writer.endArray();
+    }
+
+    /** Constant values are written as {@link BinaryTypeConvector#toJsonConstant(Constant)} writes them. */
+    private void writeConstant(Constant constant) throws IOException {
+        if (constant == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        writer.value(constant.typeID());
+        switch (constant.typeID()) {
+            case T_int:
+                writer.value(constant.intValue());
+                break;
+            case T_byte:
+                writer.value(constant.byteValue());
+                break;
+            case T_short:
+                writer.value(constant.shortValue());
+                break;
+            case T_char:
+                writer.value(String.valueOf(constant.charValue()));
+                break;
+            case T_float:
+                writer.value(String.valueOf(constant.floatValue()));
+                break;
+            case T_double:
+                if (!Constant.NotAConstant.equals(constant)) {
+                    writer.value(constant.stringValue());
+                }
+                break;
+            case T_boolean:
+                writer.value(constant.booleanValue());
+                break;
+            case T_long:
+                writer.value(String.valueOf(constant.longValue()));
+                break;
+            case T_JavaLangString:
+                writer.value(constant.stringValue());
+                break;
+            default:
+                break;
+        }
+        writer.endArray();
+    }
+
+    private void writeTagBits(long tagBits) throws IOException {
+        if (tagBits >= -MAX_SAFE_INTEGER && tagBits <= MAX_SAFE_INTEGER) {
+            writer.value(tagBits);
+        } else {
+            writer.value(String.valueOf(tagBits));
+        }
+    }
+
+    private void writeStrings(char[][] chars) throws IOException {
+        if (chars == null) {
+            writer.value(0);
+            return;
+        }
+        writer.beginArray();
+        for (char[] aChar : chars) {
+            writeString(aChar);
+        }
+        writer.endArray();
+    }
+
+    private void writeString(char[] chars) throws IOException {
+        if (chars == null) {
+            writer.value(0);
+            return;
+        }
+        String string = new String(chars);
+        Integer index = indexes.get(string);
+        if (index == null) {
+            strings.add(string);
+            index = strings.size();
+            indexes.put(string, index);
+        }
+        writer.value(index);
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server;
+
+import com.codenvy.ide.ext.java.server.internal.core.JavaProject;
+
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of resolved source files, so the outer type and the member types of a file are resolved once.
+ * <p/>
+ * Units are resolved without method bodies and aren't converted to DOM. Each of them keeps its own lookup environment with
+ * all bindings it refers to, so the cache is bounded by the estimated heap size of the units, see {@link #estimateSize}.
+ * Entries belong to a {@link JavaProject} instance and keys must identify the state of the source file. Units of a project
+ * are dropped on any change of its sources, since bindings may refer to types of other files.
+ * <p/>
+ * Bindings of a unit are completed lazily, so a unit taken from the cache must be used while holding its monitor.
+ */
+public class CompilationUnitCache {
+    private static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+
+    private final long                      maxSize;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong                hits    = new AtomicLong();
+    private final AtomicLong                misses  = new AtomicLong();
+    /* estimated size of all cached units, guarded by this */
+    private long size;
+
+    public CompilationUnitCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize
+     *         max estimated heap size of the cached units in bytes, least recently used units are dropped above it
+     */
+    public CompilationUnitCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public synchronized CompilationUnitDeclaration get(JavaProject project, String key) {
+        Entry entry = entries.get(new Key(project, key));
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry != null ? entry.unit : null;
+    }
+
+    public synchronized void put(JavaProject project, String key, CompilationUnitDeclaration unit) {
+        Entry entry = new Entry(unit, estimateSize(unit));
+        Entry previous = entries.put(new Key(project, key), entry);
+        size += entry.size - (previous != null ? previous.size : 0);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && entries.size() > 1 && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    /** Drops all units of the project. */
+    public synchronized void invalidate(JavaProject project) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().project == project) {
+                size -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Returns number of units taken from the cache. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Returns number of units which weren't cached and had to be resolved. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Returns estimated heap size of the cached units in bytes. */
+    public synchronized long getEstimatedSize() {
+        return size;
+    }
+
+    /**
+     * The lookup environment of a unit isn't accessible, so its size is estimated from the size of the source, which gives
+     * the size of the syntax tree, and from the number of imports, each of them brings bindings of other types.
+     */
+    static long estimateSize(CompilationUnitDeclaration unit) {
+        long size = 64 * 1024 + Math.max(unit.sourceEnd, 0) * 16L;
+        if (unit.imports != null) {
+            size += unit.imports.length * 8 * 1024L;
+        }
+        return size;
+    }
+
+    private static class Entry {
+        final CompilationUnitDeclaration unit;
+        final long                       size;
+
+        Entry(CompilationUnitDeclaration unit, long size) {
+            this.unit = unit;
+            this.size = size;
+        }
+    }
+
+    private static class Key {
+        final JavaProject project;
+        final String      key;
+
+        Key(JavaProject project, String key) {
+            this.project = project;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key)o;
+            return project == other.project && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(project) + key.hashCode();
+        }
+    }
+}
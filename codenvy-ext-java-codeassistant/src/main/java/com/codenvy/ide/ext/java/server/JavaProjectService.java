@@ -15,8 +15,13 @@ import com.codenvy.api.core.notification.EventService;
 import com.codenvy.api.core.notification.EventSubscriber;
 import com.codenvy.api.vfs.server.observation.VirtualFileEvent;
 import com.codenvy.commons.lang.IoUtil;
+import com.codenvy.ide.ext.java.server.internal.core.JavaModelManager;
 import com.codenvy.ide.ext.java.server.internal.core.JavaProject;
 import com.codenvy.ide.ext.java.server.internal.core.ProjectApiRestClient;
+import com.codenvy.ide.ext.java.server.internal.core.ZipFilePool;
+import com.codenvy.ide.ext.java.server.internal.core.builder.JarPackageCache;
+import com.codenvy.ide.ext.java.server.internal.core.search.indexing.LibraryIndexStore;
+import com.codenvy.ide.ext.java.server.internal.core.util.Util;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -28,11 +33,29 @@ import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Maintenance and create JavaProjects
@@ -44,13 +67,36 @@ public class JavaProjectService {
     /** Logger. */
     private static final Logger LOG = LoggerFactory.getLogger(JavaProjectService.class);
 
+    private static final long DEFAULT_IDLE_TIMEOUT   = TimeUnit.MINUTES.toMillis(30);
+    private static final long DEFAULT_MAX_CACHE_SIZE = 512 * 1024 * 1024;
+    private static final int  DEFAULT_MAX_PROJECTS   = 200;
+    private static final long EVICTION_PERIOD        = TimeUnit.MINUTES.toMillis(1);
+
     private ConcurrentHashMap<String, JavaProject>                 cache       = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, CopyOnWriteArraySet<String>> projectInWs = new ConcurrentHashMap<>();
+    /* projects which are being created, concurrent requests for the same project wait for the single creation */
+    private ConcurrentHashMap<String, FutureTask<JavaProject>>     creating    = new ConcurrentHashMap<>();
+    /* projects removed from the cache while requests used them, value is true if their index files are deleted too */
+    private ConcurrentHashMap<JavaProject, Boolean>                removed     = new ConcurrentHashMap<>();
     private WorkspaceHashLocalFSMountStrategy fsMountStrategy;
     private ProjectApiRestClient              apiRestClient;
     private String                            tempDir;
+    private LibraryIndexStore                 libraryIndexStore;
+    private TypePayloadCache                  typePayloadCache = new TypePayloadCache();
+    private CompilationUnitCache              compilationUnitCache = new CompilationUnitCache();
     private Map<String, String> options = new HashMap<>();
 
+    /* time of the last request of cached projects, key as in cache */
+    private ConcurrentHashMap<String, Long> lastAccess    = new ConcurrentHashMap<>();
+    private AtomicLong                      hits          = new AtomicLong();
+    private AtomicLong                      misses        = new AtomicLong();
+    private AtomicLong                      idleUnloads   = new AtomicLong();
+    private AtomicLong                      evictions     = new AtomicLong();
+    private volatile long                   idleTimeout   = DEFAULT_IDLE_TIMEOUT;
+    private volatile long                   maxCacheSize  = DEFAULT_MAX_CACHE_SIZE;
+    private volatile int                    maxProjects   = DEFAULT_MAX_PROJECTS;
+    private ScheduledExecutorService        evictor;
+
     @Inject
     public JavaProjectService(EventService eventService,
                               WorkspaceHashLocalFSMountStrategy fsMountStrategy,
@@ -60,6 +106,8 @@ public class JavaProjectService {
         this.fsMountStrategy = fsMountStrategy;
         this.apiRestClient = apiRestClient;
         tempDir = temp;
+        libraryIndexStore = new LibraryIndexStore(temp + "/libraries-index/");
+        JarPackageCache.setDirectory(new File(temp, "libraries-packages"));
         options.put(JavaCore.COMPILER_COMPLIANCE, JavaCore.VERSION_1_7);
         options.put(JavaCore.CORE_ENCODING, "UTF-8");
         options.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_7);
@@ -73,12 +121,123 @@ public class JavaProjectService {
         options.put(JavaCore.COMPILER_PB_UNUSED_PARAMETER_INCLUDE_DOC_COMMENT_REFERENCE, JavaCore.ENABLED);
         options.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
         options.put(CompilerOptions.OPTION_Process_Annotations, JavaCore.DISABLED);
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Java projects eviction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    evictProjects();
+                } catch (RuntimeException e) {
+                    LOG.error("Can't evict java projects", e);
+                }
+            }
+        }, EVICTION_PERIOD, EVICTION_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /** Projects which weren't requested for the given time are unloaded. */
+    @Inject(optional = true)
+    public void setIdleTimeout(@Named("java.project.cache.idle_timeout_minutes") long minutes) {
+        idleTimeout = TimeUnit.MINUTES.toMillis(minutes);
+    }
+
+    /** Least recently used projects are unloaded while estimated heap size of all projects exceeds the limit. */
+    @Inject(optional = true)
+    public void setMaxCacheSize(@Named("java.project.cache.max_size_mb") long megabytes) {
+        maxCacheSize = megabytes * 1024 * 1024;
+    }
+
+    @Inject(optional = true)
+    public void setMaxProjects(@Named("java.project.cache.max_projects") int projects) {
+        maxProjects = projects;
+    }
+
+    /** Archives which aren't being read are closed while more of them are open, see {@link ZipFilePool}. */
+    @Inject(optional = true)
+    public void setMaxOpenArchives(@Named("java.project.cache.max_open_archives") int archives) {
+        JavaModelManager.getJavaModelManager().getZipFilePool().setMaxOpen(archives);
+    }
+
+    @PreDestroy
+    public void stop() {
+        evictor.shutdownNow();
+        JavaModelManager.getJavaModelManager().getZipFilePool().flush();
+    }
+
+    /**
+     * Returns cached java project or creates it and marks it as used, the project isn't unloaded until it's released with
+     * {@link #releaseJavaProject(JavaProject)}. Creation doesn't wait for the classpath, the classpath of the created project
+     * is resolved, opened and indexed in background, see {@link JavaProject#isReady()}. A name lookup which comes earlier opens
+     * the classpath itself, searches use the indexes built so far.
+     */
+    public JavaProject acquireJavaProject(String wsId, String projectPath) {
+        for (; ; ) {
+            JavaProject javaProject = getOrCreateJavaProject(wsId, projectPath);
+            if (javaProject.acquire()) {
+                return javaProject;
+            }
+            // unloaded meanwhile, the cached project is dropped and created again
+            cache.remove(wsId + projectPath, javaProject);
+        }
+    }
+
+    /**
+     * Ends the use of the project returned by {@link #acquireJavaProject(String, String)}. The project which was removed
+     * meanwhile is unloaded by the last request which used it.
+     */
+    public void releaseJavaProject(JavaProject javaProject) {
+        javaProject.release();
+        if (removed.containsKey(javaProject)) {
+            disposeRemovedProject(javaProject);
+        }
+    }
+
+    private JavaProject getOrCreateJavaProject(final String wsId, final String projectPath) {
+        final String key = wsId + projectPath;
+        JavaProject javaProject = cache.get(key);
+        if (javaProject != null) {
+            hits.incrementAndGet();
+            lastAccess.put(key, System.currentTimeMillis());
+            return javaProject;
+        }
+        FutureTask<JavaProject> task = new FutureTask<>(new Callable<JavaProject>() {
+            @Override
+            public JavaProject call() throws Exception {
+                return createJavaProject(key, wsId, projectPath);
+            }
+        });
+        FutureTask<JavaProject> existing = creating.putIfAbsent(key, task);
+        if (existing == null) {
+            existing = task;
+            task.run();
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            creating.remove(key, existing);
+        }
     }
 
-    public JavaProject getOrCreateJavaProject(String wsId, String projectPath) {
-        String key = wsId + projectPath;
-        if (cache.containsKey(key)) {
-            return cache.get(key);
+    private JavaProject createJavaProject(String key, String wsId, String projectPath) {
+        // project may be created by concurrent request which finished before this task was registered
+        JavaProject javaProject = cache.get(key);
+        if (javaProject != null) {
+            return javaProject;
         }
         File mountPath;
         try {
@@ -86,12 +245,19 @@ public class JavaProjectService {
         } catch (ServerException e) {
             throw new RuntimeException(e);
         }
-        JavaProject javaProject = new JavaProject(mountPath, projectPath, tempDir, wsId, new HashMap<>(options));
+        misses.incrementAndGet();
+        javaProject = new JavaProject(mountPath, projectPath, tempDir, wsId, new HashMap<>(options), libraryIndexStore);
+        lastAccess.put(key, System.currentTimeMillis());
         cache.put(key, javaProject);
-        if (!projectInWs.containsKey(wsId)) {
-            projectInWs.put(wsId, new CopyOnWriteArraySet<String>());
+        CopyOnWriteArraySet<String> projects = projectInWs.get(wsId);
+        if (projects == null) {
+            CopyOnWriteArraySet<String> newProjects = new CopyOnWriteArraySet<>();
+            projects = projectInWs.putIfAbsent(wsId, newProjects);
+            if (projects == null) {
+                projects = newProjects;
+            }
         }
-        projectInWs.get(wsId).add(projectPath);
+        projects.add(projectPath);
         return javaProject;
     }
 
@@ -103,28 +269,204 @@ public class JavaProjectService {
         return projectDepDir.exists();
     }
 
-    public void removeProject(String wsId, String projectPath) {
-        JavaProject javaProject = cache.remove(wsId + projectPath);
-        if (projectInWs.containsKey(wsId)) {
-            projectInWs.get(wsId).remove(projectPath);
+    /**
+     * Returns fingerprint of the libraries of the project: names, sizes and modification times of dependency jars and the JRE version.
+     * Clients use it to find out if the type information they cached for the project is still valid.
+     */
+    public String getDependenciesFingerprint(String wsId, String projectPath) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(System.getProperty("java.home")).append(':').append(System.getProperty("java.version"));
+        File[] jars = new File(tempDir, wsId + projectPath).listFiles();
+        if (jars != null) {
+            Arrays.sort(jars);
+            for (File jar : jars) {
+                builder.append('|').append(jar.getName()).append(':').append(jar.length()).append(':').append(jar.lastModified());
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+            return Util.toHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
         }
+    }
+
+    public void removeProject(String wsId, String projectPath) {
+        JavaProject javaProject = cache.get(wsId + projectPath);
         if (javaProject != null) {
-            try {
-                javaProject.close();
-            } catch (JavaModelException e) {
-                LOG.error("Error when trying close project.", e);
-            }
+            removeCachedProject(wsId + projectPath, javaProject, true);
         }
         File projectDepDir = new File(tempDir, wsId + projectPath);
         if (projectDepDir.exists()) {
             IoUtil.deleteRecursive(projectDepDir);
         }
+        // dependencies are replaced
+        JavaModelManager.flushExternalFileCache(projectDepDir.getPath());
     }
 
     public Map<String, String> getOptions() {
         return options;
     }
 
+    /**
+     * Returns statistics of the projects cache: number of requests served from the cache (hits), number of created projects
+     * (misses), number of projects unloaded because they were idle or to free memory, number of cached projects and their
+     * estimated heap size in bytes. Open archives and hits, misses, number and estimated size of the units of
+     * {@link CompilationUnitCache} are reported too.
+     */
+    public Map<String, Long> getCacheStatistics() {
+        long size = 0;
+        for (JavaProject javaProject : cache.values()) {
+            size += javaProject.estimateSize();
+        }
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hits.get());
+        statistics.put("misses", misses.get());
+        statistics.put("idleUnloads", idleUnloads.get());
+        statistics.put("evictions", evictions.get());
+        statistics.put("projects", (long)cache.size());
+        statistics.put("estimatedSize", size);
+        ZipFilePool zipFilePool = JavaModelManager.getJavaModelManager().getZipFilePool();
+        statistics.put("openArchives", (long)zipFilePool.getOpenCount());
+        statistics.put("archivesInUse", (long)zipFilePool.getReferencedCount());
+        statistics.put("unitHits", compilationUnitCache.getHits());
+        statistics.put("unitMisses", compilationUnitCache.getMisses());
+        statistics.put("units", (long)compilationUnitCache.size());
+        statistics.put("unitsSize", compilationUnitCache.getEstimatedSize());
+        return statistics;
+    }
+
+    /**
+     * Unloads projects which weren't requested for {@link #idleTimeout}, then least recently used projects while there are more
+     * than {@link #maxProjects} of them or their estimated size exceeds {@link #maxCacheSize}. Index files of unloaded projects
+     * are kept, so the project is restored without full reindexing when it's requested again.
+     */
+    void evictProjects() {
+        for (JavaProject javaProject : removed.keySet()) {
+            disposeRemovedProject(javaProject);
+        }
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Long>> byAccess = new ArrayList<>(lastAccess.entrySet());
+        Collections.sort(byAccess, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return Long.compare(o1.getValue(), o2.getValue());
+            }
+        });
+
+        Map<String, Long> sizes = new HashMap<>();
+        long totalSize = 0;
+        for (Map.Entry<String, Long> entry : byAccess) {
+            JavaProject javaProject = cache.get(entry.getKey());
+            if (javaProject == null) {
+                continue;
+            }
+            if (now - entry.getValue() > idleTimeout) {
+                if (unloadProject(entry.getKey(), javaProject)) {
+                    idleUnloads.incrementAndGet();
+                }
+            } else {
+                long size = javaProject.estimateSize();
+                sizes.put(entry.getKey(), size);
+                totalSize += size;
+            }
+        }
+
+        int projects = sizes.size();
+        for (Map.Entry<String, Long> entry : byAccess) {
+            if (projects <= 1 || (projects <= maxProjects && totalSize <= maxCacheSize)) {
+                break;
+            }
+            Long size = sizes.get(entry.getKey());
+            JavaProject javaProject = cache.get(entry.getKey());
+            if (size == null || javaProject == null) {
+                continue;
+            }
+            if (unloadProject(entry.getKey(), javaProject)) {
+                evictions.incrementAndGet();
+                totalSize -= size;
+                projects--;
+            }
+        }
+    }
+
+    /** Projects which are used by requests are kept, they are unloaded by the next eviction if they become idle. */
+    private boolean unloadProject(String key, JavaProject javaProject) {
+        if (!javaProject.markUnloaded()) {
+            return false;
+        }
+        // a request which found the project unloaded may have removed it already and created a new one
+        if (cache.remove(key, javaProject)) {
+            lastAccess.remove(key);
+        }
+        CopyOnWriteArraySet<String> projects = projectInWs.get(javaProject.getVfsId());
+        if (projects != null && !cache.containsKey(key)) {
+            projects.remove(javaProject.getProjectPath());
+        }
+        typePayloadCache.invalidate(javaProject);
+        compilationUnitCache.invalidate(javaProject);
+        disposeProject(javaProject, false);
+        LOG.debug("Java project {} unloaded", key);
+        return true;
+    }
+
+    /**
+     * Removes the project from the cache, so next requests create it again. The project is unloaded at once if no request
+     * uses it, otherwise by the last request which releases it, see {@link #releaseJavaProject(JavaProject)}.
+     *
+     * @param deleteIndexes
+     *         <code>true</code> if index files of the project are deleted, e.g. because the project is deleted
+     */
+    private void removeCachedProject(String key, JavaProject javaProject, boolean deleteIndexes) {
+        if (cache.remove(key, javaProject)) {
+            lastAccess.remove(key);
+            CopyOnWriteArraySet<String> projects = projectInWs.get(javaProject.getVfsId());
+            if (projects != null) {
+                projects.remove(javaProject.getProjectPath());
+            }
+        }
+        typePayloadCache.invalidate(javaProject);
+        compilationUnitCache.invalidate(javaProject);
+        if (deleteIndexes) {
+            removed.put(javaProject, true);
+        } else {
+            removed.putIfAbsent(javaProject, false);
+        }
+        disposeRemovedProject(javaProject);
+    }
+
+    private void disposeRemovedProject(JavaProject javaProject) {
+        Boolean deleteIndexes = removed.get(javaProject);
+        if (deleteIndexes == null || !javaProject.markUnloaded()) {
+            return;
+        }
+        removed.remove(javaProject);
+        disposeProject(javaProject, deleteIndexes);
+        LOG.debug("Java project {} removed", javaProject.getProjectPath());
+    }
+
+    private void disposeProject(JavaProject javaProject, boolean deleteIndexes) {
+        try {
+            if (deleteIndexes) {
+                javaProject.close();
+            } else {
+                javaProject.unload();
+            }
+        } catch (JavaModelException | RuntimeException e) {
+            LOG.warn("Can't unload java project " + javaProject.getProjectPath(), e);
+        }
+    }
+
+    /** Returns cache of types sent to the java worker, shared by all projects. */
+    public TypePayloadCache getTypePayloadCache() {
+        return typePayloadCache;
+    }
+
+    /** Returns cache of resolved source files, shared by all projects. */
+    public CompilationUnitCache getCompilationUnitCache() {
+        return compilationUnitCache;
+    }
+
     public void openProject(String wsId, String path) {
 
     }
@@ -137,18 +479,17 @@ public class JavaProjectService {
             final String eventWorkspace = event.getWorkspaceId();
             final String eventPath = event.getPath();
 
-            if (cache.containsKey(eventWorkspace + eventPath)) {
-                JavaProject javaProject = cache.remove(eventWorkspace + eventPath);
-                if (javaProject != null) {
-                    if (eventType == VirtualFileEvent.ChangeType.DELETED) {
-                        javaProject.getIndexManager().deleteIndexFiles();
-                        javaProject.getIndexManager().shutdown();
-                        String vfsId = javaProject.getVfsId();
-                        if (vfsId != null) {
-                            File projectDepDir = new File(tempDir, vfsId);
-                            if (projectDepDir.exists()) {
-                                IoUtil.deleteRecursive(projectDepDir);
-                            }
+            JavaProject removedProject = cache.get(eventWorkspace + eventPath);
+            if (removedProject != null) {
+                boolean deleted = eventType == VirtualFileEvent.ChangeType.DELETED;
+                removeCachedProject(eventWorkspace + eventPath, removedProject, deleted);
+                JavaModelManager.flushExternalFileCache(removedProject.getFullPath().toOSString());
+                if (deleted) {
+                    String vfsId = removedProject.getVfsId();
+                    if (vfsId != null) {
+                        File projectDepDir = new File(tempDir, vfsId);
+                        if (projectDepDir.exists()) {
+                            IoUtil.deleteRecursive(projectDepDir);
                         }
                     }
                 }
@@ -158,12 +499,38 @@ public class JavaProjectService {
                         if (eventPath.startsWith(path)) {
                             JavaProject javaProject = cache.get(eventWorkspace + path);
                             if (javaProject != null)
-                                javaProject.getIndexManager().indexAll(javaProject);
+                                fileChanged(javaProject, eventType, eventPath.substring(path.length()));
                             break;
                         }
                     }
                 }
             }
         }
+
+        private void fileChanged(JavaProject javaProject, VirtualFileEvent.ChangeType eventType, String relativePath) {
+            typePayloadCache.invalidateSources(javaProject);
+            compilationUnitCache.invalidate(javaProject);
+            if (eventType != VirtualFileEvent.ChangeType.CONTENT_UPDATED) {
+                // source folders or jars inside the project may appear or disappear
+                JavaModelManager.flushExternalFileCache(javaProject.getFullPath().append(relativePath).toOSString());
+            }
+            switch (eventType) {
+                case CREATED:
+                case CONTENT_UPDATED:
+                    javaProject.sourceChanged(relativePath);
+                    return;
+                case DELETED:
+                    if (!javaProject.sourceRemoved(relativePath)) {
+                        // removed folder, the name lookup caches are already updated
+                        javaProject.getIndexManager().indexAll(javaProject);
+                    }
+                    return;
+                default:
+                    break;
+            }
+            // moved or renamed items, let IndexAllProject find out what was changed
+            javaProject.resetNameEnvironment();
+            javaProject.getIndexManager().indexAll(javaProject);
+        }
     }
 }
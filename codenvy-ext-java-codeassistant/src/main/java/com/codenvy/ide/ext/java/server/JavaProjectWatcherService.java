@@ -13,10 +13,14 @@ package com.codenvy.ide.ext.java.server;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
 
 /**
  * @author Evgen Vidolob
@@ -31,6 +35,9 @@ public class JavaProjectWatcherService {
     @Inject
     private JavaProjectWatcher watcher;
 
+    @Inject
+    private JavaProjectService projectService;
+
     @POST
     @Path("open/{path:.*}")
     public void openProject(@PathParam("path")String path, @Context HttpServletRequest request) {
@@ -43,6 +50,14 @@ public class JavaProjectWatcherService {
         watcher.projectClosed(request.getSession().getId(), wsId, normalizePath(path));
     }
 
+    /** Returns statistics of the java projects cache of this node, see {@link JavaProjectService#getCacheStatistics()}. */
+    @GET
+    @Path("cache-statistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Long> getCacheStatistics() {
+        return projectService.getCacheStatistics();
+    }
+
     private String normalizePath(String path) {
         return path.startsWith("/") ? path : "/" + path;
     }
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server;
+
+import com.codenvy.ide.ext.java.server.internal.core.search.IRestrictedAccessTypeRequestor;
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.jdt.internal.codeassist.ISearchRequestor;
+import org.eclipse.jdt.internal.compiler.env.AccessRestriction;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Search requestor which keeps only the best <code>limit</code> types or constructors and writes them best first
+ * in the format of {@link JsonSearchRequester}.
+ * <p/>
+ * Matches declared in the project sources go first, then matches from the preferred packages (current package and imports of
+ * the edited file), then from <code>java.lang</code>. Matches which simple name starts with the prefix in the same case are
+ * preferred inside each group, shorter names go first.
+ */
+public class RankedSearchRequester implements ISearchRequestor, IRestrictedAccessTypeRequestor {
+    private static final int SOURCE            = 8;
+    private static final int PREFERRED_PACKAGE = 4;
+    private static final int JAVA_LANG         = 2;
+    private static final int SAME_CASE_PREFIX  = 1;
+
+    /* best match first */
+    private static final Comparator<Match> RANK = new Comparator<Match>() {
+        @Override
+        public int compare(Match m1, Match m2) {
+            if (m1.score != m2.score) {
+                return m2.score - m1.score;
+            }
+            if (m1.simpleName.length() != m2.simpleName.length()) {
+                return m1.simpleName.length() - m2.simpleName.length();
+            }
+            int result = m1.simpleName.compareTo(m2.simpleName);
+            return result != 0 ? result : m1.packageName.compareTo(m2.packageName);
+        }
+    };
+
+    private final int                  limit;
+    private final String               prefix;
+    private final Set<String>          preferredPackages;
+    /* worst match at the head, so it's dropped when the limit is reached */
+    private final PriorityQueue<Match> matches;
+
+    /**
+     * @param limit
+     *         max number of written matches, <code>0</code> for no limit
+     * @param prefix
+     *         simple name part of the searched prefix
+     * @param preferredPackages
+     *         dot separated names of packages which matches are ranked higher
+     */
+    public RankedSearchRequester(int limit, String prefix, Set<String> preferredPackages) {
+        this.limit = limit;
+        this.prefix = prefix;
+        this.preferredPackages = preferredPackages;
+        this.matches = new PriorityQueue<>(limit > 0 ? limit + 1 : 64, Collections.reverseOrder(RANK));
+    }
+
+    @Override
+    public void acceptType(int modifiers, char[] packageName, char[] simpleTypeName, char[][] enclosingTypeNames, String path,
+                           AccessRestriction access) {
+        add(new TypeMatch(new String(packageName), new String(simpleTypeName), path, enclosingTypeNames, modifiers));
+    }
+
+    @Override
+    public void acceptType(char[] packageName, char[] typeName, char[][] enclosingTypeNames, int modifiers,
+                           AccessRestriction accessRestriction) {
+        acceptType(modifiers, packageName, typeName, enclosingTypeNames, null, accessRestriction);
+    }
+
+    @Override
+    public void acceptConstructor(final int modifiers, char[] simpleTypeName, final int parameterCount, final char[] signature,
+                                  final char[][] parameterTypes, final char[][] parameterNames, final int typeModifiers,
+                                  char[] typePackageName, final int extraFlags, String path, AccessRestriction access) {
+        add(new Match(new String(typePackageName), new String(simpleTypeName), path) {
+            @Override
+            void write(JsonWriter writer) throws IOException {
+                writer.beginObject();
+                writer.name("modifiers").value(modifiers);
+                writer.name("simpleTypeName").value(simpleName);
+                writer.name("parameterCount").value(parameterCount);
+                writer.name("signature").value(signature == null ? null : new String(signature));
+                writer.name("parameterTypes");
+                writeStrings(writer, parameterTypes);
+                writer.name("parameterNames");
+                writeStrings(writer, parameterNames);
+                writer.name("typeModifiers").value(typeModifiers);
+                writer.name("packageName").value(packageName);
+                writer.name("extraFlags").value(extraFlags);
+                writer.endObject();
+            }
+        });
+    }
+
+    @Override
+    public void acceptPackage(char[] packageName) {
+        // packages are searched with JsonSearchRequester
+    }
+
+    /** Writes accepted matches as JSON array, best match first. */
+    public void write(Writer out) throws IOException {
+        List<Match> sorted = new ArrayList<>(matches);
+        Collections.sort(sorted, RANK);
+        JsonWriter writer = new JsonWriter(out);
+        writer.setHtmlSafe(false);
+        writer.setSerializeNulls(true);
+        writer.beginArray();
+        for (Match match : sorted) {
+            match.write(writer);
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    private void add(Match match) {
+        int score = 0;
+        if (match.path != null && match.path.endsWith(".java")) {
+            score |= SOURCE;
+        }
+        if (preferredPackages.contains(match.packageName)) {
+            score |= PREFERRED_PACKAGE;
+        }
+        if ("java.lang".equals(match.packageName)) {
+            score |= JAVA_LANG;
+        }
+        if (match.simpleName.startsWith(prefix)) {
+            score |= SAME_CASE_PREFIX;
+        }
+        match.score = score;
+        matches.add(match);
+        if (limit > 0 && matches.size() > limit) {
+            matches.poll();
+        }
+    }
+
+    private static void writeStrings(JsonWriter writer, char[][] strings) throws IOException {
+        if (strings == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginArray();
+        for (char[] string : strings) {
+            writer.value(new String(string));
+        }
+        writer.endArray();
+    }
+
+    private abstract static class Match {
+        final String packageName;
+        final String simpleName;
+        final String path;
+        int score;
+
+        Match(String packageName, String simpleName, String path) {
+            this.packageName = packageName;
+            this.simpleName = simpleName;
+            this.path = path;
+        }
+
+        abstract void write(JsonWriter writer) throws IOException;
+    }
+
+    private static class TypeMatch extends Match {
+        final char[][] enclosingTypeNames;
+        final int      modifiers;
+
+        TypeMatch(String packageName, String simpleName, String path, char[][] enclosingTypeNames, int modifiers) {
+            super(packageName, simpleName, path);
+            this.enclosingTypeNames = enclosingTypeNames;
+            this.modifiers = modifiers;
+        }
+
+        @Override
+        void write(JsonWriter writer) throws IOException {
+            writer.beginObject();
+            writer.name("packageName").value(packageName);
+            writer.name("typeName").value(simpleName);
+            writer.name("enclosingTypeNames");
+            writeStrings(writer, enclosingTypeNames);
+            writer.name("modifiers").value(modifiers);
+            writer.endObject();
+        }
+    }
+}
@@ -21,26 +21,23 @@ import com.codenvy.commons.lang.ZipUtils;
 import com.codenvy.commons.user.User;
 import com.codenvy.dto.server.DtoFactory;
 import com.codenvy.ide.ext.java.server.internal.core.JavaProject;
+import com.codenvy.ide.ext.java.server.internal.core.util.ResourceCompilationUnit;
 import com.codenvy.ide.ext.java.server.internal.core.search.matching.JavaSearchNameEnvironment;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import com.google.inject.name.Named;
 
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.dom.ASTVisitor;
-import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
-import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
-import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.dom.CodenvyCompilationUnitResolver;
-import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.dom.EnumDeclaration;
-import org.eclipse.jdt.core.dom.ITypeBinding;
-import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.env.IBinaryType;
 import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
-import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
 import org.eclipse.jdt.internal.core.INameEnvironmentWithProgress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +45,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -57,18 +55,28 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Rest service for WorkerNameEnvironment
@@ -79,6 +87,13 @@ import java.util.Map;
 public class RestNameEnvironment {
     /** Logger. */
     private static final Logger LOG = LoggerFactory.getLogger(RestNameEnvironment.class);
+    /* value of format parameter for types in CompactTypeWriter format */
+    private static final String COMPACT_FORMAT = "compact";
+    /*
+     * header set on search responses computed while the project is being indexed, such results contain only types from the
+     * indexes built so far and must not be kept by clients
+     */
+    private static final String PARTIAL_RESULT_HEADER = "X-Partial-Result";
 
     @Inject
     private WorkspaceHashLocalFSMountStrategy fsMountStrategy;
@@ -100,67 +115,238 @@ public class RestNameEnvironment {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @javax.ws.rs.Path("findTypeCompound")
-    public String findTypeCompound(@QueryParam("compoundTypeName") String compoundTypeName, @QueryParam("projectpath") String projectPath) {
+    public Response findTypeCompound(@QueryParam("compoundTypeName") String compoundTypeName,
+                                     @QueryParam("projectpath") String projectPath,
+                                     @QueryParam("format") String format) {
         JavaProject javaProject = getJavaProject(projectPath);
         JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
         try {
-            NameEnvironmentAnswer answer = environment.findType(getCharArrayFrom(compoundTypeName));
-            if (answer == null && compoundTypeName.contains("$")) {
-                String innerName = compoundTypeName.substring(compoundTypeName.indexOf('$') + 1, compoundTypeName.length());
-                compoundTypeName = compoundTypeName.substring(0, compoundTypeName.indexOf('$'));
-                answer = environment.findType(getCharArrayFrom(compoundTypeName));
-                if (!answer.isCompilationUnit()) return null;
-                ICompilationUnit compilationUnit = answer.getCompilationUnit();
-                CompilationUnit result = getCompilationUnit(javaProject, environment, compilationUnit);
-                AbstractTypeDeclaration o = (AbstractTypeDeclaration)result.types().get(0);
-                ITypeBinding typeBinding = o.resolveBinding();
-
-                for (ITypeBinding binding : typeBinding.getDeclaredTypes()) {
-                    if (binding.getBinaryName().endsWith(innerName)) {
-                        typeBinding = binding;
-                        break;
-                    }
+            return typeResponse(findTypeCompound(javaProject, environment, getCharArrayFrom(compoundTypeName),
+                                                 COMPACT_FORMAT.equals(format)));
+        } catch (JavaModelException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.error("Can't parse class: ", e);
+            }
+            throw new WebApplicationException();
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
+        }
+    }
+
+    /**
+     * Resolves many types and packages with one request, so the worker doesn't need a round trip per import.
+     * Request is a JSON object with arrays of dot separated names: <code>{"types":[...], "packages":[...]}</code>.
+     * Response is <code>{"types":[{"name":..., "type":...}], "packages":[{"name":..., "exists":...}]}</code>
+     * where <code>type</code> is <code>null</code> if type wasn't found. Types are written in the requested format,
+     * see {@link #writeType(Object, boolean, Writer)}. The response is written while types are resolved, the project is
+     * acquired when writing starts and released once the response is written, so it isn't held if the response is never written.
+     */
+    @POST
+    @javax.ws.rs.Path("findTypesAndPackages")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput findTypesAndPackages(@QueryParam("projectpath") final String projectPath,
+                                                @QueryParam("format") String format, String request) {
+        final JsonObject names = new JsonParser().parse(request).getAsJsonObject();
+        final boolean compact = COMPACT_FORMAT.equals(format);
+        return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                JavaProject javaProject = getJavaProject(projectPath);
+                try {
+                    writeTypesAndPackages(output, javaProject, javaProject.getNameEnvironment());
+                } finally {
+                    javaProjectService.releaseJavaProject(javaProject);
                 }
-                Map<TypeBinding, ?> bindings = (Map<TypeBinding, ?>)result.getProperty("compilerBindingsToASTBindings");
-                SourceTypeBinding binding = null;
-                for (Map.Entry<TypeBinding, ?> entry : bindings.entrySet()) {
-                    if (entry.getValue().equals(typeBinding)) {
-                        binding = (SourceTypeBinding)entry.getKey();
-                        break;
+            }
+
+            private void writeTypesAndPackages(OutputStream output, JavaProject javaProject, JavaSearchNameEnvironment environment)
+                    throws IOException {
+                Writer result = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                result.write("{\"types\":[");
+                JsonArray types = names.has("types") ? names.getAsJsonArray("types") : new JsonArray();
+                for (int i = 0; i < types.size(); i++) {
+                    String name = types.get(i).getAsString();
+                    String type = null;
+                    try {
+                        type = findTypeCompound(javaProject, environment, CharOperation.splitOn('.', name.toCharArray()), compact);
+                    } catch (JavaModelException | RuntimeException e) {
+                        LOG.debug("Can't resolve type " + name, e);
                     }
+                    if (i > 0) result.write(',');
+                    result.write("{\"name\":" + new JsonPrimitive(name) + ",\"type\":" + type + '}');
                 }
-                return TypeBindingConvector.toJsonBinaryType(binding);
+
+                result.write("],\"packages\":[");
+                JsonArray packages = names.has("packages") ? names.getAsJsonArray("packages") : new JsonArray();
+                for (int i = 0; i < packages.size(); i++) {
+                    String name = packages.get(i).getAsString();
+                    char[][] compoundName = CharOperation.splitOn('.', name.toCharArray());
+                    boolean exists = environment.isPackage(CharOperation.subarray(compoundName, 0, compoundName.length - 1),
+                                                           compoundName[compoundName.length - 1]);
+                    if (i > 0) result.write(',');
+                    result.write("{\"name\":" + new JsonPrimitive(name) + ",\"exists\":" + exists + '}');
+                }
+                result.write("]}");
+                result.flush();
             }
+        };
+    }
 
-            return processAnswer(answer, javaProject, environment);
-        } catch (JavaModelException e) {
-            if (LOG.isDebugEnabled()) {
-                LOG.error("Can't parse class: ", e);
+    /** Returns response with the type, <code>204 No Content</code> if the type wasn't found. */
+    private Response typeResponse(String type) {
+        if (type == null) {
+            return Response.noContent().build();
+        }
+        return Response.ok(type, MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Binary types are written in {@link CompactTypeWriter} format if the client asks for <code>format=compact</code>,
+     * other types and clients get JSON of {@link BinaryTypeConvector} and {@link TypeBindingConvector}.
+     */
+    private void writeType(Object type, boolean compact, Writer writer) throws IOException {
+        if (type instanceof IBinaryType) {
+            if (compact) {
+                CompactTypeWriter.write((IBinaryType)type, writer);
+            } else {
+                writer.write(BinaryTypeConvector.toJsonBinaryType((IBinaryType)type));
             }
-            throw new WebApplicationException();
+        } else if (type instanceof SourceTypeBinding) {
+            writer.write(TypeBindingConvector.toJsonBinaryType((SourceTypeBinding)type));
+        } else {
+            writer.write("null");
+        }
+    }
+
+    /** Returns serialized type, <code>null</code> if it wasn't found. */
+    private String findTypeCompound(JavaProject javaProject, JavaSearchNameEnvironment environment, char[][] compoundTypeName,
+                                    boolean compact) throws JavaModelException {
+        NameEnvironmentAnswer answer = environment.findType(compoundTypeName);
+        String lastSegment = new String(compoundTypeName[compoundTypeName.length - 1]);
+        if (answer == null && lastSegment.contains("$")) {
+            String innerName = lastSegment.substring(lastSegment.indexOf('$') + 1, lastSegment.length());
+            compoundTypeName[compoundTypeName.length - 1] = lastSegment.substring(0, lastSegment.indexOf('$')).toCharArray();
+            answer = environment.findType(compoundTypeName);
+            if (answer == null || !answer.isCompilationUnit()) return null;
+            return getTypePayload(javaProject, environment, answer, innerName, compact);
+        }
+
+        return getTypePayload(javaProject, environment, answer, null, compact);
+    }
+
+    /**
+     * Returns serialized type of the answer or of its inner type with the given name. Payloads are taken from
+     * {@link TypePayloadCache} if the answer didn't change since they were cached, so hot types aren't resolved again.
+     */
+    private String getTypePayload(JavaProject javaProject, JavaSearchNameEnvironment environment, NameEnvironmentAnswer answer,
+                                  String innerName, boolean compact) throws JavaModelException {
+        if (answer == null) return null;
+        TypePayloadCache cache = javaProjectService.getTypePayloadCache();
+        String key = getPayloadKey(answer, innerName, compact);
+        String payload = key != null ? cache.get(javaProject, key, answer.isCompilationUnit()) : null;
+        if (payload != null) {
+            return payload;
+        }
+        if (answer.isBinaryType()) {
+            payload = writeType(answer.getBinaryType(), compact);
+        } else if (answer.isCompilationUnit()) {
+            ICompilationUnit compilationUnit = answer.getCompilationUnit();
+            CompilationUnitDeclaration unit = getCompilationUnit(javaProject, environment, compilationUnit);
+            // bindings of a cached unit are completed lazily, so they aren't used concurrently
+            synchronized (unit) {
+                TypeDeclaration type = findMainType(unit, compilationUnit.getMainTypeName());
+                if (innerName != null) {
+                    type = findMemberType(type, innerName);
+                }
+                payload = writeType(type != null ? type.binding : null, compact);
+            }
+        }
+        if (payload == null) return null;
+        if (key != null) {
+            cache.put(javaProject, key, answer.isCompilationUnit(), payload);
+        }
+        return payload;
+    }
+
+    /** Returns serialized type or <code>null</code> if type is <code>null</code>. */
+    private String writeType(Object type, boolean compact) {
+        if (type == null) return null;
+        StringWriter writer = new StringWriter();
+        try {
+            writeType(type, compact, writer);
+        } catch (IOException e) {
+            // never happens with StringWriter
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Returns cache key of the answer or <code>null</code> if its payload can't be cached. Sources are identified by
+     * file path, size and modification time, binary types by name and format, they don't change while the project lives.
+     */
+    private String getPayloadKey(NameEnvironmentAnswer answer, String innerName, boolean compact) {
+        if (answer.isBinaryType()) {
+            return new String(answer.getBinaryType().getName()) + (compact ? "|compact" : "|json");
+        } else if (answer.isCompilationUnit()) {
+            String key = getSourceKey(answer.getCompilationUnit());
+            if (key == null) return null;
+            return key + (innerName != null ? '$' + innerName : "");
+        }
+        return null;
+    }
+
+    /** Returns key of the state of the source file, <code>null</code> if the unit isn't a file. */
+    private String getSourceKey(ICompilationUnit compilationUnit) {
+        if (!(compilationUnit instanceof ResourceCompilationUnit)) return null;
+        File file = new File(new String(compilationUnit.getFileName()));
+        long lastModified = file.lastModified();
+        if (lastModified == 0) return null;
+        return file.getPath() + '|' + file.length() + '|' + lastModified;
+    }
+
+    /**
+     * Returns member type with the given name, nested member types are separated with '$', or <code>null</code> if there
+     * is no such type.
+     */
+    private TypeDeclaration findMemberType(TypeDeclaration type, String innerName) {
+        for (String name : innerName.split("\\$")) {
+            if (type == null || type.memberTypes == null) return null;
+            TypeDeclaration memberType = null;
+            for (TypeDeclaration member : type.memberTypes) {
+                if (CharOperation.equals(member.name, name.toCharArray())) {
+                    memberType = member;
+                    break;
+                }
+            }
+            type = memberType;
         }
+        return type;
     }
 
+    /** Returns the project marked as used, it must be released when the request is done with it. */
     private JavaProject getJavaProject(String projectPath) {
-        return javaProjectService.getOrCreateJavaProject(wsId, projectPath);
+        return javaProjectService.acquireJavaProject(wsId, projectPath);
     }
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @javax.ws.rs.Path("findType")
-    public String findType(@QueryParam("typename") String typeName, @QueryParam("packagename") String packageName,
-                           @QueryParam("projectpath") String projectPath) {
+    public Response findType(@QueryParam("typename") String typeName, @QueryParam("packagename") String packageName,
+                             @QueryParam("projectpath") String projectPath, @QueryParam("format") String format) {
         JavaProject javaProject = getJavaProject(projectPath);
         JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
-
-        NameEnvironmentAnswer answer = environment.findType(typeName.toCharArray(), getCharArrayFrom(packageName));
         try {
-            return processAnswer(answer, javaProject, environment);
+            NameEnvironmentAnswer answer = environment.findType(typeName.toCharArray(), getCharArrayFrom(packageName));
+            return typeResponse(getTypePayload(javaProject, environment, answer, null, COMPACT_FORMAT.equals(format)));
         } catch (JavaModelException e) {
             if (LOG.isDebugEnabled()) {
                 LOG.error("Can't parse class: ", e);
             }
             throw new WebApplicationException(e);
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
         }
     }
 
@@ -170,8 +356,19 @@ public class RestNameEnvironment {
     public String isPackage(@QueryParam("packagename") String packageName, @QueryParam("parent") String parentPackageName,
                             @QueryParam("projectpath") String projectPath) {
         JavaProject javaProject = getJavaProject(projectPath);
-        JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
-        return String.valueOf(environment.isPackage(getCharArrayFrom(parentPackageName), packageName.toCharArray()));
+        try {
+            JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
+            return String.valueOf(environment.isPackage(getCharArrayFrom(parentPackageName), packageName.toCharArray()));
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
+        }
+    }
+
+    @GET
+    @Path("dependencies-fingerprint")
+    @Produces("text/plain")
+    public String getDependenciesFingerprint(@QueryParam("projectpath") String projectPath) {
+        return javaProjectService.getDependenciesFingerprint(wsId, projectPath);
     }
 
     @GET
@@ -179,50 +376,113 @@ public class RestNameEnvironment {
     @Produces(MediaType.APPLICATION_JSON)
     public String findPackages(@QueryParam("packagename") String packageName, @QueryParam("projectpath") String projectPath) {
         JavaProject javaProject = getJavaProject(projectPath);
-        JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester requestor = new JsonSearchRequester();
-        environment.findPackages(packageName.toCharArray(), requestor);
-        return requestor.toJsonString();
+        try {
+            JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
+            JsonSearchRequester requestor = new JsonSearchRequester();
+            environment.findPackages(packageName.toCharArray(), requestor);
+            return requestor.toJsonString();
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
+        }
     }
 
     @GET
     @javax.ws.rs.Path("findConstructor")
     @Produces(MediaType.APPLICATION_JSON)
-    public String findConstructorDeclarations(@QueryParam("prefix") String prefix,
-                                              @QueryParam("camelcase") boolean camelCaseMatch,
-                                              @QueryParam("projectpath") String projectPath) {
+    public Response findConstructorDeclarations(@QueryParam("prefix") String prefix,
+                                                       @QueryParam("camelcase") boolean camelCaseMatch,
+                                                       @QueryParam("projectpath") String projectPath,
+                                                       @QueryParam("limit") int limit,
+                                                       @QueryParam("packages") String packages) {
         JavaProject javaProject = getJavaProject(projectPath);
-        JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester searchRequester = new JsonSearchRequester();
-        environment.findConstructorDeclarations(prefix.toCharArray(), camelCaseMatch, searchRequester, null);
-        return searchRequester.toJsonString();
+        try {
+            JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
+            boolean partial = !environment.isIndexReady();
+            RankedSearchRequester searchRequester = new RankedSearchRequester(limit, getSimpleName(prefix), getPackages(packages));
+            environment.findConstructorDeclarations(prefix.toCharArray(), camelCaseMatch, searchRequester, null);
+            return searchResponse(streamResults(searchRequester), partial);
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
+        }
     }
 
     @GET
     @javax.ws.rs.Path("findTypes")
     @Produces(MediaType.APPLICATION_JSON)
-    public String findTypes(@QueryParam("qualifiedname") String qualifiedName, @QueryParam("findmembers") boolean findMembers,
-                            @QueryParam("camelcase") boolean camelCaseMatch,
-                            @QueryParam("searchfor") int searchFor,
-                            @QueryParam("projectpath") String projectPath) {
+    public Response findTypes(@QueryParam("qualifiedname") String qualifiedName,
+                              @QueryParam("findmembers") boolean findMembers,
+                              @QueryParam("camelcase") boolean camelCaseMatch,
+                              @QueryParam("searchfor") int searchFor,
+                              @QueryParam("projectpath") String projectPath,
+                              @QueryParam("limit") int limit,
+                              @QueryParam("packages") String packages) {
         JavaProject javaProject = getJavaProject(projectPath);
-        JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester searchRequester = new JsonSearchRequester();
-        environment.findTypes(qualifiedName.toCharArray(), findMembers, camelCaseMatch, searchFor, searchRequester);
-        return searchRequester.toJsonString();
+        try {
+            JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
+            boolean partial = !environment.isIndexReady();
+            RankedSearchRequester searchRequester =
+                    new RankedSearchRequester(limit, getSimpleName(qualifiedName), getPackages(packages));
+            environment.findTypes(qualifiedName.toCharArray(), findMembers, camelCaseMatch, searchFor, searchRequester);
+            return searchResponse(streamResults(searchRequester), partial);
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
+        }
+    }
+
+    /**
+     * Readiness of the indexes must be checked before the search, a search which started on partial indexes is partial
+     * even if the indexing finishes meanwhile.
+     */
+    private Response searchResponse(Object entity, boolean partial) {
+        Response.ResponseBuilder response = Response.ok(entity, MediaType.APPLICATION_JSON);
+        if (partial) {
+            response.header(PARTIAL_RESULT_HEADER, "true");
+        }
+        return response.build();
+    }
+
+    /** Search is done by the time this is called, only the best matches are streamed to the client. */
+    private StreamingOutput streamResults(final RankedSearchRequester searchRequester) {
+        return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                searchRequester.write(writer);
+                writer.flush();
+            }
+        };
+    }
+
+    private String getSimpleName(String prefix) {
+        return prefix.substring(prefix.lastIndexOf('.') + 1);
+    }
+
+    /** Parses comma separated package names. */
+    private Set<String> getPackages(String packages) {
+        Set<String> result = new HashSet<>();
+        if (packages != null && !packages.isEmpty()) {
+            Collections.addAll(result, packages.split(","));
+        }
+        return result;
     }
 
     @GET
     @javax.ws.rs.Path("findExactTypes")
     @Produces(MediaType.APPLICATION_JSON)
-    public String findExactTypes(@QueryParam("missingsimplename") String missingSimpleName, @QueryParam("findmembers") boolean findMembers,
-                                 @QueryParam("searchfor") int searchFor,
-                                 @QueryParam("projectpath") String projectPath) {
+    public Response findExactTypes(@QueryParam("missingsimplename") String missingSimpleName,
+                                   @QueryParam("findmembers") boolean findMembers,
+                                   @QueryParam("searchfor") int searchFor,
+                                   @QueryParam("projectpath") String projectPath) {
         JavaProject javaProject = getJavaProject(projectPath);
-        JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
-        JsonSearchRequester searchRequester = new JsonSearchRequester();
-        environment.findExactTypes(missingSimpleName.toCharArray(), findMembers, searchFor, searchRequester);
-        return searchRequester.toJsonString();
+        try {
+            JavaSearchNameEnvironment environment = javaProject.getNameEnvironment();
+            boolean partial = !environment.isIndexReady();
+            JsonSearchRequester searchRequester = new JsonSearchRequester();
+            environment.findExactTypes(missingSimpleName.toCharArray(), findMembers, searchFor, searchRequester);
+            return searchResponse(searchRequester.toJsonString(), partial);
+        } finally {
+            javaProjectService.releaseJavaProject(javaProject);
+        }
     }
 
     @GET
@@ -367,45 +627,42 @@ public class RestNameEnvironment {
     }
 
 
-    private String processAnswer(NameEnvironmentAnswer answer, IJavaProject project, INameEnvironmentWithProgress environment)
-            throws JavaModelException {
-        if (answer == null) return null;
-        if (answer.isBinaryType()) {
-            IBinaryType binaryType = answer.getBinaryType();
-            return BinaryTypeConvector.toJsonBinaryType(binaryType);
-        } else if (answer.isCompilationUnit()) {
-            ICompilationUnit compilationUnit = answer.getCompilationUnit();
-            CompilationUnit result = getCompilationUnit(project, environment, compilationUnit);
-
-            BindingASTVisitor visitor = new BindingASTVisitor();
-            result.accept(visitor);
-            Map<TypeBinding, ?> bindings = (Map<TypeBinding, ?>)result.getProperty("compilerBindingsToASTBindings");
-            SourceTypeBinding binding = null;
-            for (Map.Entry<TypeBinding, ?> entry : bindings.entrySet()) {
-                if (entry.getValue().equals(visitor.typeBinding)) {
-                    binding = (SourceTypeBinding)entry.getKey();
-                    break;
-                }
+    /** Returns top level type named as the file, the last top level type if there is no such type. */
+    private TypeDeclaration findMainType(CompilationUnitDeclaration unit, char[] mainTypeName) {
+        TypeDeclaration[] types = unit.types;
+        if (types == null || types.length == 0) return null;
+        for (TypeDeclaration type : types) {
+            if (CharOperation.equals(type.name, mainTypeName)) {
+                return type;
             }
-            if (binding == null) return null;
-            return TypeBindingConvector.toJsonBinaryType(binding);
         }
-        return null;
+        return types[types.length - 1];
     }
 
-    private CompilationUnit getCompilationUnit(IJavaProject project, INameEnvironmentWithProgress environment,
-                                               ICompilationUnit compilationUnit) throws JavaModelException {
+    /**
+     * Returns resolved unit without method bodies. Units of project files are taken from {@link CompilationUnitCache},
+     * so types of the same file are resolved once while the project sources don't change. Types are taken from the compiler
+     * bindings, so the unit isn't converted to DOM.
+     */
+    private CompilationUnitDeclaration getCompilationUnit(JavaProject project, INameEnvironmentWithProgress environment,
+                                                          ICompilationUnit compilationUnit) throws JavaModelException {
+        CompilationUnitCache cache = javaProjectService.getCompilationUnitCache();
+        String key = getSourceKey(compilationUnit);
+        CompilationUnitDeclaration result = key != null ? cache.get(project, key) : null;
+        if (result != null) {
+            return result;
+        }
         int flags = 0;
         flags |= org.eclipse.jdt.core.ICompilationUnit.ENABLE_STATEMENTS_RECOVERY;
         flags |= org.eclipse.jdt.core.ICompilationUnit.IGNORE_METHOD_BODIES;
         flags |= org.eclipse.jdt.core.ICompilationUnit.ENABLE_BINDINGS_RECOVERY;
         HashMap<String, String> opts = new HashMap<>(javaProjectService.getOptions());
-        CompilationUnitDeclaration compilationUnitDeclaration =
-                CodenvyCompilationUnitResolver.resolve(compilationUnit, project, environment, opts, flags, null);
-        return CodenvyCompilationUnitResolver.convert(
-                compilationUnitDeclaration,
-                compilationUnit.getContents(),
-                flags, opts);
+        result = CodenvyCompilationUnitResolver.resolve(compilationUnit, project, environment, opts, flags, null);
+        // unit is only parsed if the compilation was aborted, it's resolved again next time
+        if (key != null && result.scope != null) {
+            cache.put(project, key, result);
+        }
+        return result;
     }
 
     private char[][] getCharArrayFrom(String list) {
@@ -469,28 +726,4 @@ public class RestNameEnvironment {
             }
         }
     }
-
-    private static class BindingASTVisitor extends ASTVisitor {
-        ITypeBinding typeBinding;
-
-        public boolean visit(AnnotationTypeDeclaration annotationTypeDeclaration) {
-            typeBinding = annotationTypeDeclaration.resolveBinding();
-            return false;
-        }
-
-        public boolean visit(AnonymousClassDeclaration anonymousClassDeclaration) {
-            typeBinding = anonymousClassDeclaration.resolveBinding();
-            return false;
-        }
-
-        public boolean visit(TypeDeclaration typeDeclaration) {
-            typeBinding = typeDeclaration.resolveBinding();
-            return false;
-        }
-
-        public boolean visit(EnumDeclaration enumDeclaration) {
-            typeBinding = enumDeclaration.resolveBinding();
-            return false;
-        }
-    }
 }
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server;
+
+import com.codenvy.ide.ext.java.server.internal.core.JavaProject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of serialized types sent to the java worker, bounded by the total length of the payloads.
+ * <p/>
+ * Entries belong to a {@link JavaProject} instance, so a project that is re-created (e.g. after dependencies update) never
+ * sees payloads of the old one. Keys of source types must identify the state of the source file, binary types don't change
+ * while the project lives. Source entries of a project are dropped on any change of its sources, since a type may be
+ * resolved differently after other files change.
+ */
+public class TypePayloadCache {
+    /* about 64 MB of chars */
+    private static final long DEFAULT_MAX_SIZE = 32 * 1024 * 1024;
+
+    private final long                       maxSize;
+    private final LinkedHashMap<Key, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long size;
+
+    public TypePayloadCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public TypePayloadCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public synchronized String get(JavaProject project, String key, boolean source) {
+        return entries.get(new Key(project, key, source));
+    }
+
+    public synchronized void put(JavaProject project, String key, boolean source, String payload) {
+        if (payload.length() > maxSize) {
+            return;
+        }
+        String old = entries.put(new Key(project, key, source), payload);
+        if (old != null) {
+            size -= old.length();
+        }
+        size += payload.length();
+        Iterator<Map.Entry<Key, String>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().getValue().length();
+            iterator.remove();
+        }
+    }
+
+    /** Drops source types of the project. */
+    public synchronized void invalidateSources(JavaProject project) {
+        invalidate(project, true);
+    }
+
+    /** Drops all types of the project. */
+    public synchronized void invalidate(JavaProject project) {
+        invalidate(project, false);
+    }
+
+    private void invalidate(JavaProject project, boolean sourcesOnly) {
+        Iterator<Map.Entry<Key, String>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, String> entry = iterator.next();
+            Key key = entry.getKey();
+            if (key.project == project && (key.source || !sourcesOnly)) {
+                size -= entry.getValue().length();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Key {
+        final JavaProject project;
+        final String      key;
+        final boolean     source;
+
+        Key(JavaProject project, String key, boolean source) {
+            this.project = project;
+            this.key = key;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key)o;
+            return project == other.project && source == other.source && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(project) + key.hashCode();
+        }
+    }
+}
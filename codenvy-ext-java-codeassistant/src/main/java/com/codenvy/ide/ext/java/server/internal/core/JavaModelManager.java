@@ -24,9 +24,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
@@ -36,26 +37,37 @@ import java.util.zip.ZipFile;
 public class JavaModelManager {
 
     public static  boolean          ZIP_ACCESS_VERBOSE             = false;
+    /** Default max number of archives kept open by {@link #getZipFilePool()}. */
+    public static final int         DEFAULT_MAX_OPEN_ARCHIVES      = 512;
+    /**
+     * How long files known to be missing and archives known to be invalid are remembered, in milliseconds.
+     */
+    public static final long        NEGATIVE_CACHE_TTL             = 30 * 1000;
     /**
      * A set of java.io.Files used as a cache of external jars that
      * are known to be existing.
-     * Note this cache is kept for the whole session.
+     * Note this cache is kept for the whole session, see {@link #flushExternalFileCache(String)}.
      */
-    public static  HashSet<File>    existingExternalFiles          = new HashSet<>();
+    public static final Set<File>   existingExternalFiles          = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
     /**
      * A set of external files ({@link #existingExternalFiles}) which have
      * been confirmed as file (i.e. which returns true to {@link java.io.File#isFile()}.
      * Note this cache is kept for the whole session.
      */
-    public static  HashSet<File>    existingExternalConfirmedFiles = new HashSet<>();
+    public static final Set<File>   existingExternalConfirmedFiles = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+    /**
+     * External files which are known to be missing, value is the time when the file must be checked again.
+     */
+    private static final ConcurrentHashMap<File, Long> missingExternalFiles = new ConcurrentHashMap<>();
     /**
      * The singleton manager
      */
     private static JavaModelManager MANAGER                        = new JavaModelManager();
     /**
-     * List of IPath of jars that are known to be invalid - such as not being a valid/known format
+     * IPaths of jars that are known to be invalid - such as not being a valid/known format,
+     * value is the time when the jar must be opened again
      */
-    private Set<IPath> invalidArchives;
+    private final ConcurrentHashMap<IPath, Long> invalidArchives = new ConcurrentHashMap<>();
 
     /**
      * A cache of opened zip files per thread.
@@ -63,6 +75,11 @@ public class JavaModelManager {
      */
     private ThreadLocal<ZipCache> zipFiles = new ThreadLocal<>();
 
+    /**
+     * Archives shared by all projects of the node, see {@link #acquireZipFile(IPath)}.
+     */
+    private final ZipFilePool zipFilePool = new ZipFilePool(DEFAULT_MAX_OPEN_ARCHIVES);
+
     public static JavaModelManager getJavaModelManager() {
         return MANAGER;
     }
@@ -76,8 +93,10 @@ public class JavaModelManager {
         File externalFile = new File(path.toOSString());
         if (!checkResourceExistence) {
             return externalFile;
-        } else if (existingExternalFilesContains(externalFile)) {
+        } else if (existingExternalFiles.contains(externalFile)) {
             return externalFile;
+        } else if (isMissing(externalFile)) {
+            return null;
         } else {
             if (JavaModelManager.ZIP_ACCESS_VERBOSE) {
                 System.out.println("(" + Thread.currentThread() + ") [JavaModel.getTarget...)] Checking existence of " +
@@ -85,32 +104,67 @@ public class JavaModelManager {
             }
             if (externalFile.isFile()) { // isFile() checks for existence (it returns false if a directory)
                 // cache external file
-                existingExternalFilesAdd(externalFile);
+                existingExternalFiles.add(externalFile);
                 return externalFile;
             } else {
                 if (externalFile.exists()) {
-                    existingExternalFilesAdd(externalFile);
+                    existingExternalFiles.add(externalFile);
                     return externalFile;
                 }
             }
+            missingExternalFiles.put(externalFile, System.currentTimeMillis() + NEGATIVE_CACHE_TTL);
         }
         return null;
     }
 
-    private synchronized static void existingExternalFilesAdd(File externalFile) {
-        existingExternalFiles.add(externalFile);
-    }
-
-    private synchronized static boolean existingExternalFilesContains(File externalFile) {
-        return existingExternalFiles.contains(externalFile);
+    private static boolean isMissing(File externalFile) {
+        Long expiration = missingExternalFiles.get(externalFile);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration < System.currentTimeMillis()) {
+            missingExternalFiles.remove(externalFile, expiration);
+            return false;
+        }
+        return true;
     }
 
     /**
      * Flushes the cache of external files known to be existing.
      */
     public static void flushExternalFileCache() {
-        existingExternalFiles = new HashSet<>();
-        existingExternalConfirmedFiles = new HashSet<>();
+        existingExternalFiles.clear();
+        existingExternalConfirmedFiles.clear();
+        missingExternalFiles.clear();
+        MANAGER.invalidArchives.clear();
+    }
+
+    /**
+     * Flushes cached state of the external files and archives at the given path or under it,
+     * after they were created, removed or replaced.
+     */
+    public static void flushExternalFileCache(String path) {
+        String prefix = path.endsWith(File.separator) ? path : path + File.separatorChar;
+        removeFiles(existingExternalFiles, path, prefix);
+        removeFiles(existingExternalConfirmedFiles, path, prefix);
+        removeFiles(missingExternalFiles.keySet(), path, prefix);
+        Iterator<IPath> archives = MANAGER.invalidArchives.keySet().iterator();
+        while (archives.hasNext()) {
+            String archive = archives.next().toOSString();
+            if (archive.equals(path) || archive.startsWith(prefix)) {
+                archives.remove();
+            }
+        }
+    }
+
+    private static void removeFiles(Set<File> files, String path, String prefix) {
+        Iterator<File> iterator = files.iterator();
+        while (iterator.hasNext()) {
+            String file = iterator.next().getPath();
+            if (file.equals(path) || file.startsWith(prefix)) {
+                iterator.remove();
+            }
+        }
     }
 
     /**
@@ -124,11 +178,11 @@ public class JavaModelManager {
      * Helper method - returns the file item (i.e. which returns true to {@link java.io.File#isFile()},
      * or null if unbound
      */
-    public static synchronized File getFile(Object target) {
-        if (existingExternalConfirmedFiles.contains(target))
-            return (File)target;
+    public static File getFile(Object target) {
         if (target instanceof File) {
             File f = (File)target;
+            if (existingExternalConfirmedFiles.contains(f))
+                return f;
             if (f.isFile()) {
                 existingExternalConfirmedFiles.add(f);
                 return f;
@@ -200,24 +254,60 @@ public class JavaModelManager {
         }
     }
 
+    /**
+     * Returns the open ZipFile at the given path from the pool shared by all projects.
+     * Unlike {@link #getZipFile(IPath)}, the archive must not be closed, it must be released with {@link #releaseZipFile(ZipFile)}
+     * as soon as it isn't read any more.
+     *
+     * @throws org.eclipse.core.runtime.CoreException
+     *         If unable to open the ZipFile
+     */
+    public ZipFile acquireZipFile(IPath path) throws CoreException {
+        if (isInvalidArchive(path))
+            throw new CoreException(new Status(IStatus.ERROR, JavaCore.PLUGIN_ID, -1, Messages.status_IOException, new ZipException()));
+
+        File localFile = path.toFile();
+        if (!localFile.exists()) {
+            throw new CoreException(
+                    new Status(IStatus.ERROR, JavaCore.PLUGIN_ID, -1, Messages.bind(Messages.file_notFound, path.toString()), null));
+        }
+        try {
+            return zipFilePool.acquire(localFile.getPath());
+        } catch (IOException e) {
+            addInvalidArchive(path);
+            throw new CoreException(new Status(IStatus.ERROR, JavaCore.PLUGIN_ID, -1, Messages.status_IOException, e));
+        }
+    }
+
+    /**
+     * Releases archive returned by {@link #acquireZipFile(IPath)}.
+     */
+    public void releaseZipFile(ZipFile zipFile) {
+        zipFilePool.release(zipFile);
+    }
+
+    public ZipFilePool getZipFilePool() {
+        return zipFilePool;
+    }
+
     public boolean isInvalidArchive(IPath path) {
-        return this.invalidArchives != null && this.invalidArchives.contains(path);
+        Long expiration = this.invalidArchives.get(path);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration < System.currentTimeMillis()) {
+            this.invalidArchives.remove(path, expiration);
+            return false;
+        }
+        return true;
     }
 
     public void removeFromInvalidArchiveCache(IPath path) {
-        if (this.invalidArchives != null) {
-            this.invalidArchives.remove(path);
-        }
+        this.invalidArchives.remove(path);
     }
 
     public void addInvalidArchive(IPath path) {
-        // unlikely to be null
-        if (this.invalidArchives == null) {
-            this.invalidArchives = Collections.synchronizedSet(new HashSet<IPath>());
-        }
-        if (this.invalidArchives != null) {
-            this.invalidArchives.add(path);
-        }
+        this.invalidArchives.put(path, System.currentTimeMillis() + NEGATIVE_CACHE_TTL);
     }
 
     public ICompilationUnit[] getWorkingCopies(DefaultWorkingCopyOwner primary, boolean b) {
@@ -12,7 +12,10 @@ package com.codenvy.ide.ext.java.server.internal.core;
 
 import com.codenvy.api.project.server.ProjectJson;
 import com.codenvy.ide.ext.java.server.core.JavaCore;
+import com.codenvy.ide.ext.java.server.internal.core.search.Util;
 import com.codenvy.ide.ext.java.server.internal.core.search.indexing.IndexManager;
+import com.codenvy.ide.ext.java.server.internal.core.search.indexing.LibraryIndexStore;
+import com.codenvy.ide.ext.java.server.internal.core.search.indexing.OpenProjectIndexes;
 import com.codenvy.ide.ext.java.server.internal.core.search.matching.JavaSearchNameEnvironment;
 import com.codenvy.ide.maven.tools.MavenUtils;
 
@@ -60,6 +63,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Evgen Vidolob
@@ -67,24 +71,44 @@ import java.util.Map;
 public class JavaProject extends Openable implements IJavaProject {
 
     private static final Logger LOG = LoggerFactory.getLogger(JavaProject.class);
-    private JavaSearchNameEnvironment nameEnvironment;
+    private final File                root;
+    private final String              tempDir;
+    /* built on first use, by the opening job or by a request which comes earlier */
+    private volatile JavaSearchNameEnvironment nameEnvironment;
     private String                    projectPath;
     private String                    wsId;
     private String                    projectName;
     private File                      projectDir;
     private Map<String, String>       options;
-    private IClasspathEntry[]         rawClassPath;
-    private ResolvedClasspath         resolvedClasspath;
+    private volatile IClasspathEntry[] rawClassPath;
+    private volatile ResolvedClasspath resolvedClasspath;
     private IndexManager              indexManager;
+    /* number of requests which use the project, -1 once the project is unloaded */
+    private final AtomicInteger       users = new AtomicInteger();
 
     public JavaProject(File root, String projectPath, String tempDir, String ws, Map<String, String> options) {
+        this(root, projectPath, tempDir, ws, options, null);
+    }
+
+    public JavaProject(File root, String projectPath, String tempDir, String ws, Map<String, String> options,
+                       LibraryIndexStore libraryIndexStore) {
         super(null);
+        this.root = root;
+        this.tempDir = tempDir;
         this.projectPath = projectPath;
         wsId = ws;
         int index = projectPath.lastIndexOf('/');
         projectName = index < 0 ? projectPath : projectPath.substring(index + 1);
         this.projectDir = new File(root, projectPath);
         this.options = options;
+        indexManager = new IndexManager(tempDir + "/indexes/" + ws + projectPath + "/", libraryIndexStore);
+        indexManager.reset();
+        // classpath is resolved, opened and indexed in background, the project is usable at once
+        indexManager.request(new OpenProjectIndexes(this, indexManager));
+    }
+
+    private IClasspathEntry[] computeRawClasspath() {
+        int index = projectPath.lastIndexOf('/');
         List<IClasspathEntry> paths = new LinkedList<>();
         try {
             if (index <= 0) {
@@ -129,20 +153,135 @@ public class JavaProject extends Openable implements IJavaProject {
                     paths.add(JavaCore.newLibraryEntry(new Path(dep.toAbsolutePath().toString()), null, null));
                 }
             }
-            rawClassPath = paths.toArray(new IClasspathEntry[paths.size()]);
         } catch (IOException e) {
             LOG.error("Can't find jar dependency's: ", e);
         }
+        return paths.toArray(new IClasspathEntry[paths.size()]);
+    }
 
-        indexManager = new IndexManager(tempDir + "/indexes/" + ws + projectPath + "/");
-        indexManager.reset();
-        indexManager.indexAll(this);
-        indexManager.saveIndexes();
-        nameEnvironment = new JavaSearchNameEnvironment(this, null);
+    /**
+     * Returns <code>false</code> while indexes of the project are being built or updated. The project serves requests meanwhile,
+     * but searches use the indexes built so far.
+     */
+    public boolean isReady() {
+        return indexManager.awaitingJobsCount() == 0;
     }
 
+    /**
+     * Returns the name environment of the project, it's built on the first call. Building opens all jars of the classpath,
+     * {@link OpenProjectIndexes} does it in background once the project is created.
+     */
     public JavaSearchNameEnvironment getNameEnvironment() {
-        return nameEnvironment;
+        JavaSearchNameEnvironment environment = nameEnvironment;
+        if (environment == null) {
+            synchronized (this) {
+                environment = nameEnvironment;
+                if (environment == null) {
+                    nameEnvironment = environment = new JavaSearchNameEnvironment(this, null);
+                }
+            }
+        }
+        return environment;
+    }
+
+    private IClasspathEntry[] rawClasspath() {
+        IClasspathEntry[] classpath = rawClassPath;
+        if (classpath == null) {
+            synchronized (this) {
+                classpath = rawClassPath;
+                if (classpath == null) {
+                    rawClassPath = classpath = computeRawClasspath();
+                }
+            }
+        }
+        return classpath;
+    }
+
+    /**
+     * Updates the source index and the name lookup caches after the file with the given project relative path
+     * was created or its content was changed. Only the affected compilation unit is reindexed.
+     */
+    public void sourceChanged(String relativePath) {
+        File file = new File(projectDir, relativePath);
+        if (file.isDirectory()) {
+            // new package, nothing to index until compilation units are added into it
+            invalidateNameEnvironment(file);
+            return;
+        }
+        if (isOnSourcePath(file)) {
+            indexManager.addSource(file.toPath(), getFullPath(), indexManager.getSourceElementParser(this, null));
+            indexManager.requestSave(getFullPath());
+            invalidateNameEnvironment(file);
+        }
+    }
+
+    /**
+     * Updates the source index and the name lookup caches after the file with the given project relative path was removed.
+     *
+     * @return <code>false</code> if the removed item may be a folder under a source root, its packages are dropped from the name
+     * lookup caches but the index can't be updated incrementally, in this case whole project must be reindexed
+     */
+    public boolean sourceRemoved(String relativePath) {
+        File file = new File(projectDir, relativePath);
+        if (Util.isJavaLikeFileName(file.getName())) {
+            if (isOnSourcePath(file)) {
+                indexManager.remove(new Path(file.getPath()).makeRelativeTo(getFullPath()).toOSString(), getFullPath());
+                indexManager.requestSave(getFullPath());
+                invalidateNameEnvironment(file);
+            }
+            return true;
+        }
+        JavaSearchNameEnvironment environment = nameEnvironment;
+        // package folders have no extension, other removed files hold nothing indexed
+        boolean folder = isUnderSourceRoot(file)
+                         && (file.getName().indexOf('.') < 0 || environment != null && environment.isCachedPackage(file));
+        invalidateNameEnvironment(file);
+        return !folder;
+    }
+
+    /** Drops all name lookup caches, e.g. after items of the project were moved. */
+    public void resetNameEnvironment() {
+        JavaSearchNameEnvironment environment = nameEnvironment;
+        if (environment != null) {
+            environment.reset();
+        }
+    }
+
+    /** Nothing is cached until the name environment is built. */
+    private void invalidateNameEnvironment(File file) {
+        JavaSearchNameEnvironment environment = nameEnvironment;
+        if (environment != null) {
+            environment.invalidate(file);
+        }
+    }
+
+    /**
+     * Tells whether the given file is a source root, is inside of one or contains one.
+     */
+    private boolean isUnderSourceRoot(File file) {
+        IPath path = new Path(file.getPath());
+        for (IClasspathEntry entry : rawClasspath()) {
+            if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE
+                && (entry.getPath().isPrefixOf(path) || path.isPrefixOf(entry.getPath()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOnSourcePath(File file) {
+        if (!Util.isJavaLikeFileName(file.getName())) {
+            return false;
+        }
+        IPath path = new Path(file.getPath());
+        for (IClasspathEntry entry : rawClasspath()) {
+            if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && entry.getPath().isPrefixOf(path)
+                && !Util.isExcluded(path, ((ClasspathEntry)entry).fullInclusionPatternChars(),
+                                    ((ClasspathEntry)entry).fullExclusionPatternChars(), false)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void addSources(File projectDir, List<IClasspathEntry> paths) throws IOException {
@@ -203,7 +342,7 @@ public class JavaProject extends Openable implements IJavaProject {
      * @see org.eclipse.jdt.core.IClasspathEntry
      */
     public IClasspathEntry[] getRawClasspath() throws JavaModelException {
-        return rawClassPath;
+        return rawClasspath();
     }
 
     @Override
@@ -867,7 +1006,63 @@ public class JavaProject extends Openable implements IJavaProject {
     public void close() throws JavaModelException {
         indexManager.shutdown();
         indexManager.deleteIndexFiles();
-        nameEnvironment.cleanup();
+        cleanupNameEnvironment();
+    }
+
+    /**
+     * Marks the project as used by a request, it isn't unloaded until the request calls {@link #release()}.
+     *
+     * @return <code>false</code> if the project is already unloaded and must not be used
+     */
+    public boolean acquire() {
+        for (; ; ) {
+            int count = users.get();
+            if (count < 0) {
+                return false;
+            }
+            if (users.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Ends the use started with {@link #acquire()}. */
+    public void release() {
+        users.decrementAndGet();
+    }
+
+    /**
+     * Marks the project as unloaded if no request uses it, {@link #acquire()} fails after that.
+     *
+     * @return <code>false</code> if the project is in use or is already unloaded
+     */
+    public boolean markUnloaded() {
+        return users.compareAndSet(0, -1);
+    }
+
+    /**
+     * Releases memory and open files of the project but keeps its index files, so the project created again
+     * for the same path reuses them and reindexes only changed sources.
+     */
+    public void unload() {
+        indexManager.saveIndexes();
+        indexManager.shutdown();
+        cleanupNameEnvironment();
+    }
+
+    private void cleanupNameEnvironment() {
+        JavaSearchNameEnvironment environment = nameEnvironment;
+        if (environment != null) {
+            environment.cleanup();
+        }
+    }
+
+    /**
+     * Returns estimated heap size of the project: loaded indexes and caches of the name environment, in bytes.
+     */
+    public long estimateSize() {
+        JavaSearchNameEnvironment environment = nameEnvironment;
+        return indexManager.getLoadedIndexesSize() + (environment == null ? 0 : environment.estimateSize());
     }
 
     @Override
@@ -953,6 +1148,10 @@ public class JavaProject extends Openable implements IJavaProject {
         return wsId;
     }
 
+    public String getProjectPath() {
+        return projectPath;
+    }
+
     public static class ResolvedClasspath {
         IClasspathEntry[] resolvedClasspath;
         IJavaModelStatus                unresolvedEntryStatus     = JavaModelStatus.VERIFIED_OK;
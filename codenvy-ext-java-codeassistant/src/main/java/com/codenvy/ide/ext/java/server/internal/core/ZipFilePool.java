@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.ZipFile;
+
+/**
+ * Node-wide pool of open archives shared by all projects.
+ * <p/>
+ * An archive is opened once for all projects which refer to the same file, so its central directory is kept in memory once.
+ * Each {@link #acquire(String)} must be balanced with {@link #release(ZipFile)}, archives are acquired only for the time of a
+ * read. Released archives stay open for the next reader, least recently used of them are closed while more than
+ * {@link #getMaxOpen()} archives are open. Archives which are being read are never closed, so the limit may be exceeded
+ * for a short time. An archive changed on disk is reopened once the change is noticed, files are checked at most once a second.
+ * Readers of the old version keep it until they release it.
+ */
+public class ZipFilePool {
+    private static final Logger LOG            = LoggerFactory.getLogger(ZipFilePool.class);
+    /* archives on disk are checked for changes at most once per this time, in milliseconds, instead of on each acquire */
+    private static final long   CHECK_INTERVAL = 1000;
+
+    /* key = archive path, access ordered, guarded by this */
+    private final LinkedHashMap<String, Entry>    entries = new LinkedHashMap<>(64, 0.75f, true);
+    /* all open archives including replaced ones which are still being read, guarded by this */
+    private final IdentityHashMap<ZipFile, Entry> open    = new IdentityHashMap<>();
+    private volatile int maxOpen;
+
+    public ZipFilePool(int maxOpen) {
+        this.maxOpen = maxOpen;
+    }
+
+    /**
+     * Returns open archive at the given path.
+     *
+     * @throws IOException
+     *         if the archive can't be opened
+     */
+    public ZipFile acquire(String path) throws IOException {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null && now - entry.checked < CHECK_INTERVAL) {
+                return use(entry, now);
+            }
+        }
+        File file = new File(path);
+        long lastModified = file.lastModified();
+        long length = file.length();
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null) {
+                if (entry.lastModified == lastModified && entry.length == length) {
+                    return use(entry, now);
+                }
+                // archive changed, readers of the old version close it on release
+                entries.remove(path);
+                entry.replaced = true;
+                closeIfUnused(entry);
+            }
+        }
+        if (JavaModelManager.ZIP_ACCESS_VERBOSE) {
+            System.out.println("(" + Thread.currentThread() + ") [ZipFilePool.acquire(String)] Creating ZipFile on " + path);
+        }
+        // opened without the lock, so reads of other archives don't wait for it
+        ZipFile zipFile = new ZipFile(file);
+        ZipFile winner;
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry == null) {
+                entry = new Entry(zipFile, lastModified, length);
+                entries.put(path, entry);
+                open.put(zipFile, entry);
+                return use(entry, now);
+            }
+            winner = use(entry, now);
+        }
+        // opened by another thread meanwhile, its archive is as fresh as this one
+        close(zipFile);
+        return winner;
+    }
+
+    /** Releases archive returned by {@link #acquire(String)}, <code>null</code> is ignored. */
+    public synchronized void release(ZipFile zipFile) {
+        if (zipFile == null) {
+            return;
+        }
+        Entry entry = open.get(zipFile);
+        if (entry == null) {
+            return;
+        }
+        entry.references--;
+        if (entry.replaced) {
+            closeIfUnused(entry);
+        } else {
+            trim();
+        }
+    }
+
+    /** Closes all archives which aren't being read. */
+    public synchronized void flush() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references <= 0) {
+                iterator.remove();
+                close(entry);
+            }
+        }
+    }
+
+    public int getMaxOpen() {
+        return maxOpen;
+    }
+
+    public void setMaxOpen(int maxOpen) {
+        this.maxOpen = maxOpen;
+        synchronized (this) {
+            trim();
+        }
+    }
+
+    /** Returns number of open archives. */
+    public synchronized int getOpenCount() {
+        return open.size();
+    }
+
+    /** Returns number of archives which are being read. */
+    public synchronized int getReferencedCount() {
+        int count = 0;
+        for (Entry entry : open.values()) {
+            if (entry.references > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns number of entries of the archive at the given path if it's open, <code>0</code> otherwise. The archive isn't
+     * opened and its place in the least recently used order isn't changed.
+     */
+    public synchronized int getEntryCount(String path) {
+        String name = new File(path).getPath();
+        for (Entry entry : open.values()) {
+            if (!entry.replaced && entry.zipFile.getName().equals(name)) {
+                return entry.zipFile.size();
+            }
+        }
+        return 0;
+    }
+
+    private void trim() {
+        if (open.size() <= maxOpen) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (open.size() > maxOpen && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references <= 0) {
+                iterator.remove();
+                close(entry);
+            }
+        }
+    }
+
+    private ZipFile use(Entry entry, long now) {
+        entry.checked = now;
+        entry.references++;
+        trim();
+        return entry.zipFile;
+    }
+
+    private void closeIfUnused(Entry entry) {
+        if (entry.references <= 0) {
+            close(entry);
+        }
+    }
+
+    private void close(Entry entry) {
+        open.remove(entry.zipFile);
+        close(entry.zipFile);
+    }
+
+    private static void close(ZipFile zipFile) {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            LOG.debug("Can't close " + zipFile.getName(), e);
+        }
+    }
+
+    private static class Entry {
+        final ZipFile zipFile;
+        final long    lastModified;
+        final long    length;
+        int     references;
+        boolean replaced;
+        /* time of the last check of the file, see CHECK_INTERVAL */
+        long    checked;
+
+        Entry(ZipFile zipFile, long lastModified, long length) {
+            this.zipFile = zipFile;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.builder;
+
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Node-wide cache of parsed class files of the JRE libraries, shared by all {@link ClasspathJar}s.
+ * <p/>
+ * Every compilation of every project looks up the same JRE types (<code>java.lang.Object</code>, <code>String</code>, ...),
+ * so they are read from the archive and parsed once. The cache is bounded by the total size of the class files, least
+ * recently used readers are dropped first. Readers aren't changed by the compiler, so they are shared between threads.
+ */
+class ClassFileReaderCache {
+    /* total size of cached class files */
+    private static final long   MAX_SIZE      = 16 * 1024 * 1024;
+    private static final String JRE_DIRECTORY = getJreDirectory();
+
+    /* key = jar path + last modified + class file name, guarded by itself */
+    private static final LinkedHashMap<String, ClassFileReader> readers = new LinkedHashMap<>(1024, 0.75f, true);
+    private static long size;
+
+    private ClassFileReaderCache() {
+    }
+
+    /** Returns <code>true</code> if class files of the jar are cached. */
+    static boolean isCached(String zipFileName) {
+        return JRE_DIRECTORY != null && zipFileName.startsWith(JRE_DIRECTORY);
+    }
+
+    static ClassFileReader get(String zipFileName, long lastModified, String qualifiedBinaryFileName) {
+        synchronized (readers) {
+            return readers.get(getKey(zipFileName, lastModified, qualifiedBinaryFileName));
+        }
+    }
+
+    static void put(String zipFileName, long lastModified, String qualifiedBinaryFileName, ClassFileReader reader) {
+        synchronized (readers) {
+            ClassFileReader old = readers.put(getKey(zipFileName, lastModified, qualifiedBinaryFileName), reader);
+            if (old != null) {
+                size -= old.getReferenceBytes().length;
+            }
+            size += reader.getReferenceBytes().length;
+            Iterator<Map.Entry<String, ClassFileReader>> iterator = readers.entrySet().iterator();
+            while (size > MAX_SIZE && iterator.hasNext()) {
+                size -= iterator.next().getValue().getReferenceBytes().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String getKey(String zipFileName, long lastModified, String qualifiedBinaryFileName) {
+        return zipFileName + File.pathSeparatorChar + lastModified + File.pathSeparatorChar + qualifiedBinaryFileName;
+    }
+
+    private static String getJreDirectory() {
+        String javaHome = System.getProperty("java.home");
+        if (javaHome == null) {
+            return null;
+        }
+        try {
+            return new File(javaHome).getCanonicalPath() + File.separatorChar;
+        } catch (IOException e) {
+            return new File(javaHome).getAbsolutePath() + File.separatorChar;
+        }
+    }
+}
@@ -20,17 +20,17 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
 import org.eclipse.jdt.internal.compiler.env.AccessRuleSet;
 import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
-import org.eclipse.jdt.internal.compiler.util.SimpleLookupTable;
 import org.eclipse.jdt.internal.compiler.util.SuffixConstants;
 import org.eclipse.jdt.internal.core.util.Util;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ClasspathDirectory extends CodenvyClasspathLocation {
 
     IContainer        binaryFolder; // includes .class files for a single directory
     boolean           isOutputFolder;
-    SimpleLookupTable directoryCache;
+    volatile ConcurrentHashMap<String, String[]> directoryCache; // replaced by reset, lists are never modified
     String[] missingPackageHolder = new String[1];
     AccessRuleSet accessRuleSet;
 
@@ -38,16 +38,17 @@ public class ClasspathDirectory extends CodenvyClasspathLocation {
         this.binaryFolder = binaryFolder;
         this.isOutputFolder = isOutputFolder || binaryFolder.getProjectRelativePath()
                                                             .isEmpty(); // if binaryFolder == project, then treat it as an outputFolder
-        this.directoryCache = new SimpleLookupTable(5);
+        this.directoryCache = new ConcurrentHashMap<>();
         this.accessRuleSet = accessRuleSet;
     }
 
     public void cleanup() {
-        this.directoryCache = null;
+        reset();
     }
 
     String[] directoryList(String qualifiedPackageName) {
-        String[] dirList = (String[])this.directoryCache.get(qualifiedPackageName);
+        ConcurrentHashMap<String, String[]> cache = this.directoryCache;
+        String[] dirList = cache.get(qualifiedPackageName);
         if (dirList == this.missingPackageHolder) return null; // package exists in another classpath directory or jar
         if (dirList != null) return dirList;
 
@@ -65,13 +66,13 @@ public class ClasspathDirectory extends CodenvyClasspathLocation {
 			}
 			if (index < dirList.length)
 				System.arraycopy(dirList, 0, dirList = new String[index], 0, index);
-			this.directoryCache.put(qualifiedPackageName, dirList);
+			cache.put(qualifiedPackageName, dirList);
 			return dirList;
 		}
 	} catch(CoreException ignored) {
 		// ignore
 	}
-	this.directoryCache.put(qualifiedPackageName, this.missingPackageHolder);
+	cache.put(qualifiedPackageName, this.missingPackageHolder);
 	return null;
 }
 
@@ -139,7 +140,7 @@ public boolean isPackage(String qualifiedPackageName) {
 }
 
 public void reset() {
-	this.directoryCache = new SimpleLookupTable(5);
+	this.directoryCache = new ConcurrentHashMap<>();
 }
 
 public String toString() {
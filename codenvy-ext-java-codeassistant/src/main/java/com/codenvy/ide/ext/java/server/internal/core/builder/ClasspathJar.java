@@ -11,6 +11,8 @@
  *******************************************************************************/
 package com.codenvy.ide.ext.java.server.internal.core.builder;
 
+import com.codenvy.ide.ext.java.server.internal.core.ZipFilePool;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -27,21 +29,20 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 public class ClasspathJar extends CodenvyClasspathLocation {
 
-    //    static SimpleLookupTable PackageCache = new SimpleLookupTable();
     String        zipFilename; // keep for equals
     IFile         resource;
     ZipFile       zipFile;
+    ZipFilePool   zipFilePool;
     long          lastModified;
     boolean       closeZipFileAtEnd;
-    SimpleSet     knownPackageNames;
+    /* replaced as a whole, never modified after it is set */
+    volatile SimpleSet knownPackageNames;
     AccessRuleSet accessRuleSet;
-    Set<String[]> packageNames;
 
     ClasspathJar(IFile resource, AccessRuleSet accessRuleSet) {
         this.resource = resource;
@@ -58,7 +59,6 @@ public class ClasspathJar extends CodenvyClasspathLocation {
         }
         this.zipFile = null;
         this.knownPackageNames = null;
-        packageNames = null;
         this.accessRuleSet = accessRuleSet;
     }
 
@@ -70,6 +70,17 @@ public class ClasspathJar extends CodenvyClasspathLocation {
         this.accessRuleSet = accessRuleSet;
     }
 
+    /**
+     * The archive is taken from the pool shared by all projects for the time of each read, so this location doesn't keep it open.
+     */
+    public ClasspathJar(String zipFilename, ZipFilePool zipFilePool, AccessRuleSet accessRuleSet) {
+        this.zipFilename = zipFilename;
+        this.zipFilePool = zipFilePool;
+        this.zipFile = null;
+        this.knownPackageNames = null;
+        this.accessRuleSet = accessRuleSet;
+    }
+
     public ClasspathJar(ZipFile zipFile, AccessRuleSet accessRuleSet) {
         this.zipFilename = zipFile.getName();
         this.zipFile = zipFile;
@@ -80,23 +91,38 @@ public class ClasspathJar extends CodenvyClasspathLocation {
 
     /**
      * Calculate and cache the package list available in the zipFile.
+     * Lists are cached for all jars of the node by {@link JarPackageCache}.
      *
      * @param jar
      *         The ClasspathJar to use
      * @return A SimpleSet with the all the package names in the zipFile.
+     * @throws IOException
+     *         if the zipFile can't be opened
      */
-    static SimpleSet findPackageSet(ClasspathJar jar) {
+    static SimpleSet findPackageSet(ClasspathJar jar) throws IOException {
         String zipFileName = jar.zipFilename;
         long lastModified = jar.lastModified();
         long fileSize = new File(zipFileName).length();
-//        PackageCacheEntry cacheEntry = (PackageCacheEntry)PackageCache.get(zipFileName);
-//        if (cacheEntry != null && cacheEntry.lastModified == lastModified && cacheEntry.fileSize == fileSize)
-//            return cacheEntry.packageSet;
+        SimpleSet cachedPackageSet = JarPackageCache.get(zipFileName, lastModified, fileSize);
+        if (cachedPackageSet != null)
+            return cachedPackageSet;
 
         SimpleSet packageSet = new SimpleSet(41);
         packageSet.add(""); //$NON-NLS-1$
+        ZipFile zip = jar.acquireZipFile();
+        try {
+            addPackages(zip, packageSet);
+        } finally {
+            jar.releaseZipFile(zip);
+        }
+
+        JarPackageCache.put(zipFileName, lastModified, fileSize, packageSet);
+        return packageSet;
+    }
+
+    private static void addPackages(ZipFile zip, SimpleSet packageSet) {
         nextEntry:
-        for (Enumeration e = jar.zipFile.entries(); e.hasMoreElements(); ) {
+        for (Enumeration e = zip.entries(); e.hasMoreElements(); ) {
             String fileName = ((ZipEntry)e.nextElement()).getName();
 
             // add the package name & all of its parent packages
@@ -117,17 +143,15 @@ public class ClasspathJar extends CodenvyClasspathLocation {
                 last = packageName.lastIndexOf('/');
             }
         }
-
-//        PackageCache.put(zipFileName, new PackageCacheEntry(lastModified, fileSize, packageSet));
-        return packageSet;
     }
 
     @Override
     public void findPackages(String[] name, ISearchRequestor requestor) {
-        if (knownPackageNames == null) {
-            readPackages();
+        SimpleSet packages = this.knownPackageNames;
+        if (packages == null) {
+            packages = readPackages();
         }
-        for (Object value : knownPackageNames.values) {
+        for (Object value : packages.values) {
             if (value == null) {
                 continue;
             }
@@ -167,8 +191,16 @@ public class ClasspathJar extends CodenvyClasspathLocation {
     public NameEnvironmentAnswer findClass(String binaryFileName, String qualifiedPackageName, String qualifiedBinaryFileName) {
         if (!isPackage(qualifiedPackageName)) return null; // most common case
 
+        ZipFile zip = null;
         try {
-            ClassFileReader reader = ClassFileReader.read(this.zipFile, qualifiedBinaryFileName);
+            boolean cached = ClassFileReaderCache.isCached(this.zipFilename);
+            ClassFileReader reader = cached ? ClassFileReaderCache.get(this.zipFilename, lastModified(), qualifiedBinaryFileName) : null;
+            if (reader == null) {
+                zip = acquireZipFile();
+                reader = ClassFileReader.read(zip, qualifiedBinaryFileName);
+                if (reader != null && cached)
+                    ClassFileReaderCache.put(this.zipFilename, lastModified(), qualifiedBinaryFileName, reader);
+            }
             if (reader != null) {
                 if (this.accessRuleSet == null)
                     return new NameEnvironmentAnswer(reader, null);
@@ -177,10 +209,36 @@ public class ClasspathJar extends CodenvyClasspathLocation {
                 return new NameEnvironmentAnswer(reader, this.accessRuleSet.getViolatedRestriction(fileNameWithoutExtension.toCharArray()));
             }
         } catch (IOException | ClassFormatException e) { // treat as if class file is missing
+        } finally {
+            releaseZipFile(zip);
         }
         return null;
     }
 
+    /**
+     * Open zip file keeps its central directory in memory. Package names and pooled archives are shared with other projects
+     * through {@link JarPackageCache} and {@link ZipFilePool}, their size is counted nevertheless.
+     */
+    @Override
+    public long estimateSize() {
+        long size = 0;
+        ZipFile zip = this.zipFile;
+        if (zip != null) {
+            try {
+                size += zip.size() * 128L;
+            } catch (IllegalStateException e) {
+                // closed concurrently
+            }
+        } else if (this.zipFilePool != null) {
+            size += this.zipFilePool.getEntryCount(this.zipFilename) * 128L;
+        }
+        SimpleSet packages = this.knownPackageNames;
+        if (packages != null) {
+            size += packages.elementSize * 64L;
+        }
+        return size;
+    }
+
     public IPath getProjectRelativePath() {
         if (this.resource == null) return null;
         return this.resource.getProjectRelativePath();
@@ -191,28 +249,49 @@ public class ClasspathJar extends CodenvyClasspathLocation {
     }
 
     public boolean isPackage(String qualifiedPackageName) {
-        if (this.knownPackageNames != null)
-            return this.knownPackageNames.includes(qualifiedPackageName);
-        readPackages();
-        return this.knownPackageNames.includes(qualifiedPackageName);
+        SimpleSet packages = this.knownPackageNames;
+        if (packages == null)
+            packages = readPackages();
+        return packages.includes(qualifiedPackageName);
     }
 
-    private void readPackages() {
+    private SimpleSet readPackages() {
+        SimpleSet packages;
         try {
-            if (this.zipFile == null) {
-                if (org.eclipse.jdt.internal.core.JavaModelManager.ZIP_ACCESS_VERBOSE) {
-                    System.out.println(
-                            "(" + Thread.currentThread() + ") [ClasspathJar.isPackage(String)] Creating ZipFile on " +
-                            this.zipFilename
-                                      ); //$NON-NLS-1$	//$NON-NLS-2$
-                }
-                this.zipFile = new ZipFile(this.zipFilename);
-                this.closeZipFileAtEnd = true;
-            }
-            this.knownPackageNames = findPackageSet(this);
+            // the zip file isn't opened if its packages are cached
+            packages = findPackageSet(this);
         } catch (Exception e) {
-            this.knownPackageNames = new SimpleSet(); // assume for this build the zipFile is empty
+            packages = new SimpleSet(); // assume for this build the zipFile is empty
+        }
+        this.knownPackageNames = packages;
+        return packages;
+    }
+
+    /**
+     * Returns the zip file to read, it must be given back with {@link #releaseZipFile(ZipFile)}.
+     */
+    private ZipFile acquireZipFile() throws IOException {
+        if (this.zipFilePool != null)
+            return this.zipFilePool.acquire(this.zipFilename);
+        if (this.zipFile == null)
+            openZipFile();
+        return this.zipFile;
+    }
+
+    private void releaseZipFile(ZipFile zip) {
+        if (this.zipFilePool != null && zip != null)
+            this.zipFilePool.release(zip);
+    }
+
+    private void openZipFile() throws IOException {
+        if (org.eclipse.jdt.internal.core.JavaModelManager.ZIP_ACCESS_VERBOSE) {
+            System.out.println(
+                    "(" + Thread.currentThread() + ") [ClasspathJar.isPackage(String)] Creating ZipFile on " +
+                    this.zipFilename
+                              ); //$NON-NLS-1$	//$NON-NLS-2$
         }
+        this.zipFile = new ZipFile(this.zipFilename);
+        this.closeZipFileAtEnd = true;
     }
 
     public long lastModified() {
@@ -16,4 +16,11 @@ public abstract class CodenvyClasspathLocation extends org.eclipse.jdt.internal.
 
     public abstract void findPackages(String[] pkgName, ISearchRequestor requestor);
 
+    /**
+     * Returns estimated heap size of the data cached by this location, in bytes.
+     */
+    public long estimateSize() {
+        return 0;
+    }
+
 }
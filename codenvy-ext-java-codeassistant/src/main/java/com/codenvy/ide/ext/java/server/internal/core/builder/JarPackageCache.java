@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.builder;
+
+import com.codenvy.ide.ext.java.server.internal.core.util.Util;
+
+import org.eclipse.jdt.internal.compiler.util.SimpleSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-wide cache of package names of jars, shared by all {@link ClasspathJar}s.
+ * <p/>
+ * Entries are keyed by jar path and valid while the jar has the same last modified time and size. If a directory is set with
+ * {@link #setDirectory(File)}, package tables are also stored there, so they survive restarts and are computed once per jar
+ * version. Returned sets must not be modified.
+ */
+public class JarPackageCache {
+    private static final Logger LOG     = LoggerFactory.getLogger(JarPackageCache.class);
+    /** Must be incremented when format of the stored files changes. */
+    private static final int    VERSION = 1;
+    private static final String SUFFIX  = ".packages";
+
+    private static final ConcurrentHashMap<String, ClasspathJar.PackageCacheEntry> entries = new ConcurrentHashMap<>();
+    private static volatile File directory;
+
+    private JarPackageCache() {
+    }
+
+    /** Sets directory of the stored package tables, <code>null</code> disables storing. */
+    public static void setDirectory(File directory) {
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            LOG.warn("Can't create package cache directory {}", directory);
+            directory = null;
+        }
+        JarPackageCache.directory = directory;
+    }
+
+    /**
+     * Returns package names of the jar, separated with '/', or <code>null</code> if they weren't computed for this version of
+     * the jar yet.
+     */
+    static SimpleSet get(String zipFileName, long lastModified, long fileSize) {
+        ClasspathJar.PackageCacheEntry entry = entries.get(zipFileName);
+        if (entry == null) {
+            entry = read(zipFileName);
+            if (entry == null) {
+                return null;
+            }
+            entries.put(zipFileName, entry);
+        }
+        if (entry.lastModified != lastModified || entry.fileSize != fileSize) {
+            return null;
+        }
+        return entry.packageSet;
+    }
+
+    static void put(String zipFileName, long lastModified, long fileSize, SimpleSet packageSet) {
+        ClasspathJar.PackageCacheEntry entry = new ClasspathJar.PackageCacheEntry(lastModified, fileSize, packageSet);
+        entries.put(zipFileName, entry);
+        write(zipFileName, entry);
+    }
+
+    private static ClasspathJar.PackageCacheEntry read(String zipFileName) {
+        File file = getFile(zipFileName);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION || !zipFileName.equals(in.readUTF())) {
+                // other format
+                return null;
+            }
+            long lastModified = in.readLong();
+            long fileSize = in.readLong();
+            int size = in.readInt();
+            SimpleSet packageSet = new SimpleSet(size);
+            for (int i = 0; i < size; i++) {
+                packageSet.add(in.readUTF());
+            }
+            return new ClasspathJar.PackageCacheEntry(lastModified, fileSize, packageSet);
+        } catch (IOException e) {
+            LOG.debug("Can't read package cache of " + zipFileName, e);
+            return null;
+        }
+    }
+
+    private static void write(String zipFileName, ClasspathJar.PackageCacheEntry entry) {
+        File file = getFile(zipFileName);
+        if (file == null) {
+            return;
+        }
+        try {
+            File tmp = File.createTempFile("jar", SUFFIX + ".tmp", file.getParentFile());
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                    out.writeInt(VERSION);
+                    out.writeUTF(zipFileName);
+                    out.writeLong(entry.lastModified);
+                    out.writeLong(entry.fileSize);
+                    out.writeInt(entry.packageSet.elementSize);
+                    for (Object value : entry.packageSet.values) {
+                        if (value != null) {
+                            out.writeUTF((String)value);
+                        }
+                    }
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException e) {
+            LOG.warn("Can't store package cache of " + zipFileName, e);
+        }
+    }
+
+    private static File getFile(String zipFileName) {
+        File dir = directory;
+        if (dir == null) {
+            return null;
+        }
+        // SHA-1 of the path, so different jars don't share a file
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(zipFileName.getBytes(StandardCharsets.UTF_8));
+            return new File(dir, Util.toHex(digest) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            LOG.warn("Can't compute name of package cache of " + zipFileName, e);
+            return null;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import com.codenvy.ide.ext.java.server.core.search.IJavaSearchScope;
 import com.codenvy.ide.ext.java.server.core.search.SearchParticipant;
 import com.codenvy.ide.ext.java.server.core.search.SearchPattern;
 import com.codenvy.ide.ext.java.server.internal.core.search.indexing.IndexManager;
+import com.codenvy.ide.ext.java.server.internal.core.search.indexing.IndexReadWriteMonitor;
 import com.codenvy.ide.ext.java.server.internal.core.search.matching.MatchLocator;
 import com.codenvy.ide.ext.java.server.internal.core.search.processing.JobManager;
 
@@ -114,8 +115,13 @@ public boolean search(Index index, IProgressMonitor progressMonitor) {
 	if (progressMonitor != null && progressMonitor.isCanceled()) throw new OperationCanceledException();
 	ReadWriteMonitor monitor = index.monitor;
 	if (monitor == null) return COMPLETE; // index got deleted since acquired
-	try {
+	if (JobManager.isForcedSearch() && monitor instanceof IndexReadWriteMonitor) {
+		// don't wait for the indexing, the index which is being written is skipped and the result is partial
+		if (!((IndexReadWriteMonitor)monitor).tryEnterRead()) return FAILED;
+	} else {
 		monitor.enterRead(); // ask permission to read
+	}
+	try {
 		long start = System.currentTimeMillis();
 		MatchLocator.findIndexMatches(this.pattern, index, this.requestor, this.participant, this.scope, progressMonitor);
 		this.executionTime += System.currentTimeMillis() - start;
@@ -100,6 +100,17 @@ class AddJarFileToIndex extends IndexRequest {
             this.indexFileURL = null;
         }
 
+        // reuse the index built for an identical jar by any other project on this node
+        LibraryIndexStore store = this.manager.getLibraryIndexStore();
+        if (store != null && !this.forceIndexUpdate && this.resource == null) {
+            IndexLocation sharedLocation = store.getIndexLocation(this.containerPath);
+            if (sharedLocation != null && this.manager.addSharedIndex(this.containerPath, sharedLocation)) {
+                if (JobManager.VERBOSE)
+                    org.eclipse.jdt.internal.core.util.Util.verbose("-> no indexing required (shared library index) for " + this.containerPath); //$NON-NLS-1$
+                return true;
+            }
+        }
+
         try {
             // if index is already cached, then do not perform any check
             // MUST reset the IndexManager if a jar file is changed
@@ -207,6 +218,8 @@ class AddJarFileToIndex extends IndexRequest {
 								+ zip.getName() + " (" //$NON-NLS-1$
 								+ (System.currentTimeMillis() - initialTime) + "ms)"); //$NON-NLS-1$
 							this.manager.saveIndex(index); // to ensure its placed into the saved state
+							if (store != null)
+								store.store(this.containerPath, index);
 							return true;
 						}
 					}
@@ -245,6 +258,8 @@ class AddJarFileToIndex extends IndexRequest {
 					}
 				}
 				this.manager.saveIndex(index);
+				if (store != null)
+					store.store(this.containerPath, index);
 				if (JobManager.VERBOSE)
 					org.eclipse.jdt.internal.core.util.Util.verbose("-> done indexing of " //$NON-NLS-1$
 						+ zip.getName() + " (" //$NON-NLS-1$
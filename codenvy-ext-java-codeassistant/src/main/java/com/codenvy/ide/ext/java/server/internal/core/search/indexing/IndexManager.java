@@ -91,9 +91,16 @@ public class IndexManager extends JobManager implements IIndexConstants {
     private SimpleLookupTable participantsContainers = null;
     private boolean           participantUpdated     = false;
     private String indexLocation;
+    // node-wide store of library indexes, may be null
+    private LibraryIndexStore libraryIndexStore;
 
     public IndexManager(String indexLocation) {
+        this(indexLocation, null);
+    }
+
+    public IndexManager(String indexLocation, LibraryIndexStore libraryIndexStore) {
         this.indexLocation = indexLocation;
+        this.libraryIndexStore = libraryIndexStore;
         indexNamesMapFile = new File(getSavedIndexesDirectory(), "indexNamesMap.txt");
         savedIndexNamesFile = new File(getSavedIndexesDirectory(), "savedIndexNames.txt");
         participantIndexNamesFile = new File(getSavedIndexesDirectory(), "participantsIndexNames.txt");
@@ -328,7 +335,12 @@ public class IndexManager extends JobManager implements IIndexConstants {
             if (reuseExistingFile) {
                 if (indexLocation.exists()) { // check before creating index so as to avoid creating a new empty index if file is missing
                     try {
-                        index = new Index(indexLocation, containerPathString, true /*reuse index file*/);
+                        if (isLibraryStoreLocation(indexLocation)) {
+                            // read-only index shared with other projects
+                            index = this.libraryIndexStore.acquire(indexLocation, containerPathString);
+                        } else {
+                            index = newIndex(indexLocation, containerPathString, true /*reuse index file*/);
+                        }
                         this.indexes.put(indexLocation, index);
                         return index;
                     } catch (IOException e) {
@@ -366,7 +378,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
                     if (VERBOSE)
                         Util.verbose(
                                 "-> create empty index: " + indexLocation + " path: " + containerPathString); //$NON-NLS-1$ //$NON-NLS-2$
-                    index = new Index(indexLocation, containerPathString, false /*do not reuse index file*/);
+                    index = newIndex(indexLocation, containerPathString, false /*do not reuse index file*/);
                     this.indexes.put(indexLocation, index);
                     return index;
                 } catch (IOException e) {
@@ -382,6 +394,13 @@ public class IndexManager extends JobManager implements IIndexConstants {
         return index;
     }
 
+    /** Creates index of this manager, searches forced to run during the indexing skip it while it's written. */
+    private static Index newIndex(IndexLocation location, String containerPath, boolean reuseFile) throws IOException {
+        Index index = new Index(location, containerPath, reuseFile);
+        index.monitor = new IndexReadWriteMonitor();
+        return index;
+    }
+
     /**
      * Returns all the existing indexes for a list of index locations.
      * Note that this may trigger some indexes recreation work
@@ -640,6 +659,40 @@ public class IndexManager extends JobManager implements IIndexConstants {
         return true;
     }
 
+    /**
+     * Returns the node-wide library index store or <code>null</code> if indexes of this manager are not shared.
+     */
+    public LibraryIndexStore getLibraryIndexStore() {
+        return this.libraryIndexStore;
+    }
+
+    /**
+     * Reuses an index of the library index store for the given jar instead of indexing it.
+     */
+    synchronized boolean addSharedIndex(IPath containerPath, IndexLocation sharedLocation) {
+        // forget the local index which was about to be rebuilt
+        IndexLocation localLocation = computeIndexLocation(containerPath);
+        if (!localLocation.equals(sharedLocation)) {
+            this.indexes.removeKey(localLocation);
+            updateIndexState(localLocation, null);
+        }
+        return addIndex(containerPath, sharedLocation);
+    }
+
+    private boolean isLibraryStoreLocation(IndexLocation location) {
+        return this.libraryIndexStore != null && this.libraryIndexStore.isStoreLocation(location);
+    }
+
+    /**
+     * Detaches an index that is no longer used by this manager.
+     * Shared library indexes are released, other indexes get their monitor cleared so pending jobs abort.
+     */
+    private void discardIndex(Index index) {
+        if (this.libraryIndexStore == null || !this.libraryIndexStore.release(index)) {
+            index.monitor = null;
+        }
+    }
+
     /**
      * Index the content of the given source folder.
      */
@@ -658,7 +711,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
         IndexLocation indexLocation = computeIndexLocation(containerPath);
         Index index = getIndex(indexLocation);
         if (index != null) {
-            index.monitor = null;
+            discardIndex(index);
             this.indexes.removeKey(indexLocation);
         }
         updateIndexState(indexLocation, UNKNOWN_STATE);
@@ -688,6 +741,15 @@ public class IndexManager extends JobManager implements IIndexConstants {
         return Messages.process_name;
     }
 
+    /**
+     * Every jar has its own index guarded by its own monitor, so jars are indexed in parallel.
+     * Source indexing and saving stay in the processing thread.
+     */
+    @Override
+    protected boolean isConcurrent(IJob job) {
+        return job instanceof AddJarFileToIndex;
+    }
+
     private char[][] readJavaLikeNamesFile() {
         try {
             String pathName = getJavaPluginWorkingLocation().toOSString();
@@ -769,6 +831,16 @@ public class IndexManager extends JobManager implements IIndexConstants {
         request(new RemoveFromIndex(containerRelativePath, indexedContainer, this));
     }
 
+    /**
+     * Saves the index of the given container after the jobs requested before, so incremental updates survive a restart.
+     * A save which is still waiting covers the new updates too, so another one is not requested.
+     */
+    public synchronized void requestSave(IPath containerPath) {
+        SaveIndex save = new SaveIndex(containerPath, this);
+        if (!isJobWaiting(save))
+            request(save);
+    }
+
     /**
      * Removes the index for a given path.
      * This is a no-op if the index did not exist.
@@ -780,12 +852,12 @@ public class IndexManager extends JobManager implements IIndexConstants {
         Index index = getIndex(indexLocation);
         File indexFile = null;
         if (index != null) {
-            index.monitor = null;
+            discardIndex(index);
             indexFile = index.getIndexFile();
         }
         if (indexFile == null)
             indexFile = indexLocation.getIndexFile(); // index is not cached yet, but still want to delete the file
-        if (this.indexStates.get(indexLocation) == REUSE_STATE) {
+        if (this.indexStates.get(indexLocation) == REUSE_STATE || isLibraryStoreLocation(indexLocation)) {
             indexLocation.close();
             this.indexLocations.put(containerPath, null);
         } else if (indexFile != null && indexFile.exists()) {
@@ -817,11 +889,11 @@ public class IndexManager extends JobManager implements IIndexConstants {
                 continue;
             if (indexLocation.startsWith(path)) {
                 Index index = (Index)valueTable[i];
-                index.monitor = null;
+                discardIndex(index);
                 if (locations == null)
                     locations = new IndexLocation[max];
                 locations[count++] = indexLocation;
-                if (this.indexStates.get(indexLocation) == REUSE_STATE) {
+                if (this.indexStates.get(indexLocation) == REUSE_STATE || isLibraryStoreLocation(indexLocation)) {
                     indexLocation.close();
                 } else {
                     if (DEBUG)
@@ -891,6 +963,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
     public synchronized void reset() {
         super.reset();
         if (this.indexes != null) {
+            releaseSharedIndexes();
             this.indexes = new SimpleLookupTable();
             this.indexStates = null;
         }
@@ -898,6 +971,48 @@ public class IndexManager extends JobManager implements IIndexConstants {
         this.javaPluginLocation = null;
     }
 
+    /**
+     * Returns size of the index files loaded by this manager, shared library indexes aren't counted.
+     * Loaded index keeps about as much in memory as its file takes on disk.
+     */
+    public synchronized long getLoadedIndexesSize() {
+        long size = 0;
+        Object[] valueTable = this.indexes.valueTable;
+        for (int i = 0, l = valueTable.length; i < l; i++) {
+            Index index = (Index)valueTable[i];
+            if (index == null || (this.libraryIndexStore != null && this.libraryIndexStore.isShared(index)))
+                continue;
+            File indexFile = index.getIndexFile();
+            if (indexFile != null)
+                size += indexFile.length();
+        }
+        return size;
+    }
+
+    /**
+     * Stop background processing and release the shared library indexes held by this manager.
+     */
+    public void shutdown() {
+        super.shutdown();
+        synchronized (this) {
+            releaseSharedIndexes();
+        }
+    }
+
+    private void releaseSharedIndexes() {
+        if (this.libraryIndexStore == null) return;
+        Object[] keyTable = this.indexes.keyTable;
+        Object[] valueTable = this.indexes.valueTable;
+        ArrayList released = new ArrayList();
+        for (int i = 0, l = valueTable.length; i < l; i++) {
+            Index index = (Index)valueTable[i];
+            if (index != null && this.libraryIndexStore.release(index))
+                released.add(keyTable[i]);
+        }
+        for (int i = 0, length = released.size(); i < length; i++)
+            this.indexes.removeKey(released.get(i));
+    }
+
     /**
      * Resets the index for a given path.
      * Returns true if the index was reset, false otherwise.
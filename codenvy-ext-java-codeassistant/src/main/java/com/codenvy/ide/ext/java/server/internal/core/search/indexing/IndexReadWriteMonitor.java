@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.indexing;
+
+import org.eclipse.jdt.internal.core.search.indexing.ReadWriteMonitor;
+
+/**
+ * Monitor of the indexes built by {@link IndexManager}, it lets searches which must not wait for the indexing skip
+ * the index which is being written instead of blocking until e.g. the whole jar is indexed.
+ */
+public class IndexReadWriteMonitor extends ReadWriteMonitor {
+    /* number of writers which hold the monitor, guarded by this */
+    private int writers;
+
+    /**
+     * Enters reading if the monitor isn't held by a writer.
+     *
+     * @return <code>false</code> if the index is being written, {@link #exitRead()} must not be called then
+     */
+    public synchronized boolean tryEnterRead() {
+        if (writers > 0) {
+            return false;
+        }
+        enterRead();
+        return true;
+    }
+
+    @Override
+    public synchronized void enterWrite() {
+        super.enterWrite();
+        writers++;
+    }
+
+    @Override
+    public synchronized void exitWrite() {
+        writers--;
+        super.exitWrite();
+    }
+
+    @Override
+    public synchronized boolean exitReadEnterWrite() {
+        if (!super.exitReadEnterWrite()) {
+            return false;
+        }
+        writers++;
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.indexing;
+
+import com.codenvy.ide.ext.java.server.internal.core.util.Util;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.internal.core.index.FileIndexLocation;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.index.IndexLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-wide store of library indexes shared between all {@link IndexManager}s.
+ * <p/>
+ * Index files of jars are kept in one directory and named after the jar content digest,
+ * so a jar that was already indexed for one project (JRE container, Maven dependency copied into
+ * another project's dependency folder, ...) is never indexed again.
+ * Read-only {@link Index} instances opened on stored files are shared between projects which refer to the
+ * same jar path and are reference counted, the last {@link #release(Index)} drops the instance.
+ */
+public class LibraryIndexStore {
+    private static final Logger LOG          = LoggerFactory.getLogger(LibraryIndexStore.class);
+    private static final String INDEX_SUFFIX = ".index";
+
+    private final File directory;
+    /* key = jar path + size + last modified, value = jar content digest */
+    private final ConcurrentHashMap<String, String> digests       = new ConcurrentHashMap<>();
+    /* key = index file + container path, guarded by this */
+    private final Map<String, SharedIndex>          sharedIndexes = new HashMap<>();
+
+    public LibraryIndexStore(String directory) {
+        this.directory = new File(directory);
+        if (!this.directory.exists() && !this.directory.mkdirs()) {
+            LOG.warn("Can't create library index directory {}", directory);
+        }
+    }
+
+    /**
+     * Returns location of the stored index for the given jar or <code>null</code> if the jar wasn't indexed yet.
+     */
+    public IndexLocation getIndexLocation(IPath jarPath) {
+        File indexFile = getIndexFile(jarPath);
+        if (indexFile == null || !indexFile.exists()) {
+            return null;
+        }
+        return new FileIndexLocation(indexFile);
+    }
+
+    /**
+     * Publishes index of the given jar into the store. Caller must hold the write lock of the index.
+     */
+    public void store(IPath jarPath, Index index) {
+        File indexFile = getIndexFile(jarPath);
+        File source = index.getIndexFile();
+        if (indexFile == null || source == null || !source.exists() || indexFile.exists()) {
+            return;
+        }
+        try {
+            File tmp = File.createTempFile("lib", INDEX_SUFFIX + ".tmp", directory);
+            try {
+                Files.copy(source.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException e) {
+            LOG.warn("Can't store index of " + jarPath + " in library index store", e);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the location points to an index file owned by this store.
+     * Such indexes must never be written or deleted by an {@link IndexManager}.
+     */
+    public boolean isStoreLocation(IndexLocation location) {
+        File indexFile = location.getIndexFile();
+        return indexFile != null && directory.equals(indexFile.getParentFile());
+    }
+
+    /**
+     * Returns shared read-only index for the given stored location and container path, creating it if needed.
+     * Each call must be balanced with {@link #release(Index)}.
+     */
+    public synchronized Index acquire(IndexLocation location, String containerPath) throws IOException {
+        String key = location.getIndexFile().getPath() + File.pathSeparatorChar + containerPath;
+        SharedIndex shared = sharedIndexes.get(key);
+        if (shared == null) {
+            shared = new SharedIndex(key, new Index(location, containerPath, true /*reuse index file*/));
+            sharedIndexes.put(key, shared);
+        }
+        shared.references++;
+        return shared.index;
+    }
+
+    /**
+     * Releases index obtained with {@link #acquire(IndexLocation, String)}.
+     *
+     * @return <code>true</code> if the index is owned by this store
+     */
+    public synchronized boolean release(Index index) {
+        for (SharedIndex shared : sharedIndexes.values()) {
+            if (shared.index == index) {
+                if (--shared.references <= 0) {
+                    sharedIndexes.remove(shared.key);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if the index was obtained from this store and is still referenced.
+     */
+    public synchronized boolean isShared(Index index) {
+        for (SharedIndex shared : sharedIndexes.values()) {
+            if (shared.index == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private File getIndexFile(IPath jarPath) {
+        String digest = getDigest(jarPath.toFile());
+        return digest == null ? null : new File(directory, digest + INDEX_SUFFIX);
+    }
+
+    private String getDigest(File jar) {
+        if (!jar.isFile()) {
+            return null;
+        }
+        String key = jar.getAbsolutePath() + File.pathSeparatorChar + jar.length() + File.pathSeparatorChar + jar.lastModified();
+        String digest = digests.get(key);
+        if (digest == null) {
+            try (InputStream in = new FileInputStream(jar)) {
+                MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    messageDigest.update(buffer, 0, read);
+                }
+                digest = Util.toHex(messageDigest.digest());
+                digests.put(key, digest);
+            } catch (IOException | NoSuchAlgorithmException e) {
+                LOG.warn("Can't compute digest of " + jar, e);
+                return null;
+            }
+        }
+        return digest;
+    }
+
+    private static class SharedIndex {
+        final String key;
+        final Index  index;
+        int references;
+
+        SharedIndex(String key, Index index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+}
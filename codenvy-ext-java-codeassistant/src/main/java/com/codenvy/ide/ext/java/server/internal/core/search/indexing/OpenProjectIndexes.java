@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.indexing;
+
+import com.codenvy.ide.ext.java.server.internal.core.JavaProject;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * First job of a just opened project. Resolving of the classpath, opening of its jars for the name environment and loading of
+ * the library indexes may take a while, so they are done in background instead of the thread which opens the project. Jobs
+ * which index the project and its libraries are requested from here and the project index is saved once they are done.
+ */
+public class OpenProjectIndexes extends IndexRequest {
+    private final JavaProject project;
+
+    public OpenProjectIndexes(JavaProject project, IndexManager manager) {
+        super(project.getFullPath(), manager);
+        this.project = project;
+    }
+
+    @Override
+    public void ensureReadyToRun() {
+        // nothing is updated by this job itself, indexes are tagged by the jobs it requests
+    }
+
+    @Override
+    public boolean execute(IProgressMonitor progressMonitor) {
+        if (this.isCancelled || progressMonitor != null && progressMonitor.isCanceled()) {
+            return true;
+        }
+        // builds the name environment unless a request has already done it
+        this.project.getNameEnvironment();
+        this.manager.indexAll(this.project);
+        this.manager.saveIndexes();
+        this.manager.requestSave(this.containerPath);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "opening indexes of " + this.containerPath;
+    }
+}
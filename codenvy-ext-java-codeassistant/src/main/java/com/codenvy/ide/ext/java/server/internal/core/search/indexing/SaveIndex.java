@@ -50,6 +50,14 @@ public class SaveIndex extends IndexRequest {
 		}
 		return true;
 	}
+	public boolean equals(Object o) {
+		if (o instanceof SaveIndex)
+			return this.containerPath.equals(((SaveIndex) o).containerPath);
+		return false;
+	}
+	public int hashCode() {
+		return this.containerPath.hashCode();
+	}
 	public String toString() {
 		return "saving index for " + this.containerPath; //$NON-NLS-1$
 	}
@@ -26,41 +26,58 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Source folder of a project, shared by all requests to the project.
+ * <p/>
+ * Package tables are built once and never modified after they are published in the directory cache, so readers need no locks.
+ * Changes replace the cache or remove tables from it instead of modifying them, a table built while a change was reported is
+ * not kept, see {@link #modifications}.
+ * <p/>
+ * Package names are kept in a sorted tree, it is built by a walk of the source folder once and then updated with the folders
+ * reported to {@link #invalidate(File)}. Updates replace the tree with a changed copy, so readers need no locks either.
+ */
 public class ClasspathSourceDirectory extends CodenvyClasspathLocation {
     private static final Logger LOG = LoggerFactory.getLogger(ClasspathSourceDirectory.class);
     File              sourceFolder;
-    SimpleLookupTable directoryCache;
+    volatile ConcurrentHashMap<String, SimpleLookupTable> directoryCache;
     SimpleLookupTable missingPackageHolder = new SimpleLookupTable();
     char[][]    fullExclusionPatternChars;
     char[][]    fulInclusionPatternChars;
-    Set<String> packagesCache;
+    /* dot separated package names, replaced as a whole, never modified after it is published, updates are guarded by itself */
+    volatile NavigableSet<String> packagesCache;
+    final Object packagesLock = new Object();
+    /* incremented before cached tables are dropped, tables built meanwhile may miss the change and are dropped too */
+    final AtomicInteger modifications = new AtomicInteger();
 
     ClasspathSourceDirectory(File sourceFolder, char[][] fullExclusionPatternChars, char[][] fulInclusionPatternChars) {
         this.sourceFolder = sourceFolder;
-        this.directoryCache = new SimpleLookupTable(5);
+        this.directoryCache = new ConcurrentHashMap<>();
         this.fullExclusionPatternChars = fullExclusionPatternChars;
         this.fulInclusionPatternChars = fulInclusionPatternChars;
     }
 
     public void cleanup() {
-        this.directoryCache = null;
-        packagesCache = null;
+        reset();
     }
 
     SimpleLookupTable directoryTable(String qualifiedPackageName) {
-        SimpleLookupTable dirTable = (SimpleLookupTable)this.directoryCache.get(qualifiedPackageName);
+        ConcurrentHashMap<String, SimpleLookupTable> cache = this.directoryCache;
+        SimpleLookupTable dirTable = cache.get(qualifiedPackageName);
         if (dirTable == this.missingPackageHolder) return null; // package exists in another classpath directory or jar
         if (dirTable != null) return dirTable;
 
-        try {
+        int modification = this.modifications.get();
 //            IResource container = this.sourceFolder.findMember(qualifiedPackageName); // this is a case-sensitive check
-            File container = new File(sourceFolder, qualifiedPackageName);
-            if (container.isDirectory()) {
-                dirTable = new SimpleLookupTable();
-                DirectoryStream<Path> members = Files.newDirectoryStream(container.toPath());
+        File container = new File(sourceFolder, qualifiedPackageName);
+        if (container.isDirectory()) {
+            dirTable = new SimpleLookupTable();
+            try (DirectoryStream<Path> members = Files.newDirectoryStream(container.toPath())) {
                 for (Path member : members) {
                     String name;
                     if (!member.toFile().isDirectory()) {
@@ -75,16 +92,29 @@ public class ClasspathSourceDirectory extends CodenvyClasspathLocation {
                         }
                     }
                 }
-                this.directoryCache.put(qualifiedPackageName, dirTable);
-                return dirTable;
+            } catch (IOException e) {
+                LOG.error("Can't read package " + qualifiedPackageName, e);
+                return null;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            publish(cache, qualifiedPackageName, dirTable, modification);
+            return dirTable;
         }
-        this.directoryCache.put(qualifiedPackageName, this.missingPackageHolder);
+        publish(cache, qualifiedPackageName, this.missingPackageHolder, modification);
         return null;
     }
 
+    /**
+     * Table is published before the check, so a concurrent {@link #invalidate(File)} either removes it after the table is
+     * published or is seen by the check.
+     */
+    private void publish(ConcurrentHashMap<String, SimpleLookupTable> cache, String qualifiedPackageName, SimpleLookupTable dirTable,
+                         int modification) {
+        cache.put(qualifiedPackageName, dirTable);
+        if (this.modifications.get() != modification) {
+            cache.remove(qualifiedPackageName, dirTable);
+        }
+    }
+
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof ClasspathSourceDirectory)) return false;
@@ -105,6 +135,22 @@ public class ClasspathSourceDirectory extends CodenvyClasspathLocation {
         return null;
     }
 
+    /**
+     * Each cached package table keeps a {@link File} per source file of the package.
+     */
+    @Override
+    public long estimateSize() {
+        long size = 0;
+        for (SimpleLookupTable table : this.directoryCache.values()) {
+            size += 64 + table.elementSize * 192L;
+        }
+        NavigableSet<String> packages = this.packagesCache;
+        if (packages != null) {
+            size += packages.size() * 64L;
+        }
+        return size;
+    }
+
     public IPath getProjectRelativePath() {
 //	return this.sourceFolder.getProjectRelativePath();
         throw new UnsupportedOperationException();
@@ -119,7 +165,105 @@ public class ClasspathSourceDirectory extends CodenvyClasspathLocation {
     }
 
     public void reset() {
-        this.directoryCache = new SimpleLookupTable(5);
+        this.modifications.incrementAndGet();
+        this.directoryCache = new ConcurrentHashMap<>();
+        this.packagesCache = null;
+    }
+
+    /**
+     * Updates cached packages after the given file or folder was created, changed or removed. Only members of the package which
+     * holds a file are dropped. A created folder adds its packages to the package tree, a removed folder drops its packages
+     * and their members, tables and package names of other folders stay valid.
+     */
+    public void invalidate(File file) {
+        String root = sourceFolder.getPath() + File.separatorChar;
+        String path = file.getPath();
+        if (!path.startsWith(root)) {
+            return;
+        }
+        String relativePath = path.substring(root.length()).replace(File.separatorChar, '/');
+        this.modifications.incrementAndGet();
+        ConcurrentHashMap<String, SimpleLookupTable> cache = this.directoryCache;
+        if (file.isDirectory()) {
+            cache.remove(relativePath);
+            addPackages(file, relativePath);
+            return;
+        }
+        int index = relativePath.lastIndexOf('/');
+        cache.remove(index < 0 ? "" : relativePath.substring(0, index));
+        if (!file.exists() && !Util.isJavaLikeFileName(file.getName())) {
+            // may be a removed folder
+            String prefix = relativePath + '/';
+            for (Iterator<String> iterator = cache.keySet().iterator(); iterator.hasNext(); ) {
+                String packageName = iterator.next();
+                if (packageName.equals(relativePath) || packageName.startsWith(prefix)) {
+                    iterator.remove();
+                }
+            }
+            removePackages(relativePath.replace('/', '.'));
+        }
+    }
+
+    /**
+     * Tells whether the given folder is known as a package of this source folder, either by its cached table or by the package
+     * tree. Must be asked before the folder is reported to {@link #invalidate(File)}, which drops it.
+     */
+    public boolean isCachedPackage(File folder) {
+        String root = sourceFolder.getPath() + File.separatorChar;
+        String path = folder.getPath();
+        if (!path.startsWith(root)) {
+            return false;
+        }
+        String relativePath = path.substring(root.length()).replace(File.separatorChar, '/');
+        SimpleLookupTable dirTable = this.directoryCache.get(relativePath);
+        if (dirTable != null && dirTable != this.missingPackageHolder) {
+            return true;
+        }
+        NavigableSet<String> packages = this.packagesCache;
+        return packages != null && packages.contains(relativePath.replace('/', '.'));
+    }
+
+    private void addPackages(File folder, String relativePath) {
+        for (String name : relativePath.split("/")) {
+            if (!isValidPackageName(name)) {
+                return;
+            }
+        }
+        synchronized (packagesLock) {
+            NavigableSet<String> packages = this.packagesCache;
+            if (packages == null) {
+                return; // nothing to update, the tree is built on the next request
+            }
+            String packageName = relativePath.replace('/', '.');
+            if (packages.contains(packageName)) {
+                return;
+            }
+            TreeSet<String> copy = new TreeSet<>(packages);
+            copy.add(packageName);
+            fillPackagesCache(copy, folder, packageName);
+            this.packagesCache = copy;
+        }
+    }
+
+    private void removePackages(String packageName) {
+        synchronized (packagesLock) {
+            NavigableSet<String> packages = this.packagesCache;
+            if (packages == null || !packages.contains(packageName)) {
+                return;
+            }
+            TreeSet<String> copy = new TreeSet<>(packages);
+            String prefix = packageName + '.';
+            for (Iterator<String> iterator = copy.tailSet(packageName, true).iterator(); iterator.hasNext(); ) {
+                String name = iterator.next();
+                if (!name.startsWith(packageName)) {
+                    break;
+                }
+                if (name.equals(packageName) || name.startsWith(prefix)) {
+                    iterator.remove();
+                }
+            }
+            this.packagesCache = copy;
+        }
     }
 
     public String toString() {
@@ -132,29 +276,43 @@ public class ClasspathSourceDirectory extends CodenvyClasspathLocation {
 
     @Override
     public void findPackages(String[] pkgName, ISearchRequestor requestor) {
-        if (packagesCache == null) {
-            packagesCache = new HashSet<>();
-            packagesCache.add("");
-            fillPackagesCache(sourceFolder, "");
+        NavigableSet<String> packages = this.packagesCache;
+        if (packages == null) {
+            packages = buildPackages();
         }
         String pkg = org.eclipse.jdt.internal.core.util.Util.concatWith(pkgName, '.');
-        for (String s : packagesCache) {
-            if (s.startsWith(pkg)) {
-                requestor.acceptPackage(s.toCharArray());
+        // names with the same prefix are neighbours in the tree
+        for (String s : packages.tailSet(pkg, true)) {
+            if (!s.startsWith(pkg)) {
+                break;
+            }
+            requestor.acceptPackage(s.toCharArray());
+        }
+    }
+
+    private NavigableSet<String> buildPackages() {
+        int modification = this.modifications.get();
+        TreeSet<String> packages = new TreeSet<>();
+        packages.add("");
+        fillPackagesCache(packages, sourceFolder, "");
+        synchronized (packagesLock) {
+            // a folder reported meanwhile may be missed by the walk, the tree is built again next time
+            if (this.modifications.get() == modification) {
+                this.packagesCache = packages;
             }
         }
+        return packages;
     }
 
-    private void fillPackagesCache(File parentFolder, String parentPackage) {
-        try {
-            DirectoryStream<Path> directoryStream = Files.newDirectoryStream(parentFolder.toPath());
+    private void fillPackagesCache(NavigableSet<String> packages, File parentFolder, String parentPackage) {
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(parentFolder.toPath())) {
             for (Path path : directoryStream) {
                 if (path.toFile().isDirectory()) {
-                    if (org.eclipse.jdt.internal.core.util.Util.isValidFolderNameForPackage(path.getFileName().toString(), "1.7", "1.7")) {
-                        String pack = parentPackage + "." + path.getFileName();
-                        packagesCache.add(pack);
-                        fillPackagesCache(path.toFile(), pack);
-
+                    String name = path.getFileName().toString();
+                    if (isValidPackageName(name)) {
+                        String pack = parentPackage.isEmpty() ? name : parentPackage + '.' + name;
+                        packages.add(pack);
+                        fillPackagesCache(packages, path.toFile(), pack);
                     }
                 }
             }
@@ -162,4 +320,8 @@ public class ClasspathSourceDirectory extends CodenvyClasspathLocation {
             LOG.error("Can't read packages", e);
         }
     }
+
+    private static boolean isValidPackageName(String folderName) {
+        return org.eclipse.jdt.internal.core.util.Util.isValidFolderNameForPackage(folderName, "1.7", "1.7");
+    }
 }
@@ -46,7 +46,9 @@ import org.eclipse.jdt.internal.core.NameLookup;
 import org.eclipse.jdt.internal.core.util.Util;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.zip.ZipFile;
 
 /*
@@ -57,18 +59,20 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
     CodenvyClasspathLocation[] locations;
 
     /*
-     * A map from the fully qualified slash-separated name of the main type (String) to the working copy
+     * A map from the fully qualified slash-separated name of the main type (String) to the working copy.
+     * The project environment is shared by concurrent requests, so the map is never modified after construction,
+     * working copies of a request are given to an environment created for this request.
      */
-    HashMap workingCopies;
-    private JavaProject                                                  javaProject;
-    private com.codenvy.ide.ext.java.server.core.search.IJavaSearchScope searchScope;
+    final Map workingCopies;
+    private          JavaProject                                                  javaProject;
+    private volatile com.codenvy.ide.ext.java.server.core.search.IJavaSearchScope searchScope;
 
     public JavaSearchNameEnvironment(JavaProject javaProject, org.eclipse.jdt.core.ICompilationUnit[] copies) {
         this.javaProject = javaProject;
         computeClasspathLocations(javaProject);
+        int length = copies == null ? 0 : copies.length;
+        HashMap copiesMap = new HashMap(length);
         try {
-            int length = copies == null ? 0 : copies.length;
-            this.workingCopies = new HashMap(length);
             if (copies != null) {
                 for (int i = 0; i < length; i++) {
                     org.eclipse.jdt.core.ICompilationUnit workingCopy = copies[i];
@@ -77,12 +81,13 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
                     String cuName = workingCopy.getElementName();
                     String mainTypeName = Util.getNameWithoutJavaLikeExtension(cuName);
                     String qualifiedMainTypeName = pkg.length() == 0 ? mainTypeName : pkg.replace('.', '/') + '/' + mainTypeName;
-                    this.workingCopies.put(qualifiedMainTypeName, workingCopy);
+                    copiesMap.put(qualifiedMainTypeName, workingCopy);
                 }
             }
         } catch (JavaModelException e) {
             // working copy doesn't exist: cannot happen
         }
+        this.workingCopies = Collections.unmodifiableMap(copiesMap);
     }
 
     public void cleanup() {
@@ -91,16 +96,48 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
         }
     }
 
+    /**
+     * Returns estimated heap size of the data cached by the classpath locations, in bytes.
+     */
+    public long estimateSize() {
+        long size = 0;
+        for (CodenvyClasspathLocation location : this.locations) {
+            size += location.estimateSize();
+        }
+        return size;
+    }
+
     /**
      * reset only source locations
      */
     public void reset() {
         for (CodenvyClasspathLocation location : this.locations) {
             if (location instanceof ClasspathSourceDirectory)
-                location.cleanup();
+                location.reset();
         }
     }
 
+    /**
+     * Invalidates cached package content of the source locations after the given file was created, changed or removed.
+     */
+    public void invalidate(File file) {
+        for (CodenvyClasspathLocation location : this.locations) {
+            if (location instanceof ClasspathSourceDirectory)
+                ((ClasspathSourceDirectory)location).invalidate(file);
+        }
+    }
+
+    /**
+     * Tells whether the given folder is known as a package of one of the source locations.
+     */
+    public boolean isCachedPackage(File folder) {
+        for (CodenvyClasspathLocation location : this.locations) {
+            if (location instanceof ClasspathSourceDirectory && ((ClasspathSourceDirectory)location).isCachedPackage(folder))
+                return true;
+        }
+        return false;
+    }
+
 
     private void computeClasspathLocations(JavaProject javaProject) {
 
@@ -121,8 +158,11 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
             IPath path = root.getPath();
             try {
                 if (root.isArchive()) {
-                    ZipFile zipFile = manager.getZipFile(path);
-                    cpLocations[index++] = new ClasspathJar(zipFile, ((ClasspathEntry)root.getRawClasspathEntry()).getAccessRuleSet());
+                    // opens the archive to validate it, it stays in the pool for the following reads
+                    ZipFile zipFile = manager.acquireZipFile(path);
+                    manager.releaseZipFile(zipFile);
+                    cpLocations[index++] = new ClasspathJar(zipFile.getName(), manager.getZipFilePool(),
+                                                            ((ClasspathEntry)root.getRawClasspathEntry()).getAccessRuleSet());
                 } else {
                     Object target = JavaModelManager.getTarget(path, true);
                     if (target == null) {
@@ -346,6 +386,12 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
 //                        return;
                     if (!findMembers && enclosingTypeNames != null && enclosingTypeNames.length > 0)
                         return; // accept only top level types
+                    if (storage instanceof IRestrictedAccessTypeRequestor) {
+                        // requestor ranks types by their location
+                        ((IRestrictedAccessTypeRequestor)storage)
+                                .acceptType(modifiers, packageName, simpleTypeName, enclosingTypeNames, path, access);
+                        return;
+                    }
                     storage.acceptType(packageName, simpleTypeName, enclosingTypeNames, modifiers, access);
                 }
             };
@@ -354,49 +400,17 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
             if (camelCaseMatch) matchRule |= SearchPattern.R_CAMELCASE_MATCH;
             IndexManager indexManager = javaProject.getIndexManager();
             if (monitor != null) {
-                if (indexManager.awaitingJobsCount() == 0) {
-                    // indexes were already there, so perform an immediate search to avoid any index rebuilt
-                    new BasicSearchEngine(indexManager).searchAllTypeNames(
-                            qualification,
-                            SearchPattern.R_EXACT_MATCH,
-                            simpleName,
-                            matchRule, // not case sensitive
-                            searchFor,
-                            getSearchScope(),
-                            typeRequestor,
-                            IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
-                            progressMonitor);
-                } else {
-                    // indexes were not ready, give the indexing a chance to finish small jobs by sleeping 100ms...
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        // Do nothing
-                    }
-                    if (monitor.isCanceled()) {
-                        throw new OperationCanceledException();
-                    }
-                    if (indexManager.awaitingJobsCount() == 0) {
-                        // indexes are now ready, so perform an immediate search to avoid any index rebuilt
-                        new BasicSearchEngine(indexManager).searchAllTypeNames(
-                                qualification,
-                                SearchPattern.R_EXACT_MATCH,
-                                simpleName,
-                                matchRule, // not case sensitive
-                                searchFor,
-                                getSearchScope(),
-                                typeRequestor,
-                                IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
-                                progressMonitor);
-                    }
-                    //else {
-                        // Indexes are still not ready, so look for types in the model instead of a search request
-//                        findTypes(
-//                                new String(prefix),
-//                                storage,
-//                                convertSearchFilterToModelFilter(searchFor));
-//                    }
-                }
+                // search the indexes which are ready, types of the libraries which are still being indexed are missing
+                new BasicSearchEngine(indexManager).searchAllTypeNames(
+                        qualification,
+                        SearchPattern.R_EXACT_MATCH,
+                        simpleName,
+                        matchRule, // not case sensitive
+                        searchFor,
+                        getSearchScope(),
+                        typeRequestor,
+                        IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
+                        progressMonitor);
             } else {
                 try {
                     new BasicSearchEngine(indexManager).searchAllTypeNames(
@@ -407,7 +421,7 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
                             searchFor,
                             getSearchScope(),
                             typeRequestor,
-                            IJavaSearchConstants.CANCEL_IF_NOT_READY_TO_SEARCH,
+                            IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
                             progressMonitor);
                 } catch (OperationCanceledException e) {
 //                    findTypes(
@@ -517,18 +531,9 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
 
             int matchRule = SearchPattern.R_PREFIX_MATCH;
             if (camelCaseMatch) matchRule |= SearchPattern.R_CAMELCASE_MATCH;
-             IndexManager indexManager = javaProject.getIndexManager();
+            IndexManager indexManager = javaProject.getIndexManager();
             if (monitor != null) {
-                while (indexManager.awaitingJobsCount() > 0) {
-                    try {
-                        Thread.sleep(50); // indexes are not ready,  sleep 50ms...
-                    } catch (InterruptedException e) {
-                        // Do nothing
-                    }
-                    if (monitor.isCanceled()) {
-                        throw new OperationCanceledException();
-                    }
-                }
+                // like types, constructors of the libraries which are still being indexed are missing
                 new BasicSearchEngine(indexManager).searchAllConstructorDeclarations(
                         qualification,
                         simpleName,
@@ -545,7 +550,7 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
                             matchRule,
                             getSearchScope(),
                             constructorRequestor,
-                            IJavaSearchConstants.CANCEL_IF_NOT_READY_TO_SEARCH,
+                            IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
                             progressMonitor);
                 } catch (OperationCanceledException e) {
                     // Do nothing
@@ -555,6 +560,14 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
             // Do nothing
         }
     }
+    /**
+     * Returns <code>false</code> while indexes of the project are being built. Searches which run before the indexing is finished
+     * use the indexes built so far, so their results miss types of the sources and libraries which aren't indexed yet.
+     */
+    public boolean isIndexReady() {
+        return javaProject.isReady();
+    }
+
     private IJavaSearchScope getSearchScope() {
         if (this.searchScope == null) {
 //            // Create search scope with visible entry on the project's classpath
@@ -624,8 +637,9 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
                     storage.acceptType(packageName, simpleTypeName, enclosingTypeNames, modifiers, access);
                 }
             };
+            IndexManager indexManager = javaProject.getIndexManager();
             try {
-                new BasicSearchEngine(javaProject.getIndexManager()).searchAllTypeNames(
+                new BasicSearchEngine(indexManager).searchAllTypeNames(
                         null,
                         SearchPattern.R_EXACT_MATCH,
                         name,
@@ -633,7 +647,7 @@ public class JavaSearchNameEnvironment implements INameEnvironment, SuffixConsta
                         searchFor,
                         getSearchScope(),
                         typeRequestor,
-                        IJavaSearchConstants.CANCEL_IF_NOT_READY_TO_SEARCH,
+                        IJavaSearchConstants.FORCE_IMMEDIATE_SEARCH,
                         progressMonitor);
             } catch (OperationCanceledException e) {
 //                findExactTypes(
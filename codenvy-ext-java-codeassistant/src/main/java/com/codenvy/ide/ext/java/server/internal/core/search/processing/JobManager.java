@@ -21,13 +21,43 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.internal.core.search.processing.IJob;
 import org.eclipse.jdt.internal.core.util.Messages;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public abstract class JobManager implements Runnable {
 
+    /* size of the pool shared by all job managers */
+    private static final int             POOL_SIZE        = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /* max number of concurrent jobs taken by one manager, the rest of the pool is left for other projects */
+    static final         int             MAX_MANAGER_JOBS = Math.max(1, POOL_SIZE / 2);
+    private static final ExecutorService POOL             = Executors.newFixedThreadPool(POOL_SIZE, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Java indexing pool-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.setContextClassLoader(JobManager.class.getClassLoader());
+            return thread;
+        }
+    });
+    /* job which runs in the current pool thread, null in other threads */
+    private static final ThreadLocal<IJob> POOL_JOB = new ThreadLocal<>();
+    /* true in the thread which runs a search forced to start before the indexing is done */
+    private static final ThreadLocal<Boolean> FORCED_SEARCH = new ThreadLocal<>();
+
     /* queue of jobs to execute */
     protected IJob[] awaitingJobs = new IJob[10];
     protected int                                                    jobStart     = 0;
     protected int                                                    jobEnd       = -1;
     protected boolean                                                executing    = false;
+    /* jobs taken from the queue and running in the shared pool, guarded by this */
+    private final List<IJob> concurrentJobs = new ArrayList<>();
 
     /* background processing */
     protected Thread processingThread;
@@ -55,7 +85,24 @@ public abstract class JobManager implements Runnable {
      */
     public synchronized int awaitingJobsCount() {
         // pretend busy in case concurrent job attempts performing before activated
-        return this.activated ? this.jobEnd - this.jobStart + 1 : 1;
+        return this.activated ? this.jobEnd - this.jobStart + 1 + this.concurrentJobs.size() : 1;
+    }
+
+    /**
+     * Answers whether the job may run in the shared pool in parallel with other such jobs.
+     * Jobs which are not concurrent run in the processing thread once all running concurrent jobs are done,
+     * so they see results of every job queued before them.
+     */
+    protected boolean isConcurrent(IJob job) {
+        return false;
+    }
+
+    /**
+     * Answers whether the current thread runs a search which was forced to start while jobs are awaiting, see
+     * {@link IJob#ForceImmediate}. Such search doesn't wait for indexes which are being written, its result is partial.
+     */
+    public static boolean isForcedSearch() {
+        return FORCED_SEARCH.get() != null;
     }
 
     /**
@@ -89,6 +136,7 @@ public abstract class JobManager implements Runnable {
 				currentJob = currentJob();
 				disable();
 			}
+			cancelConcurrentJobs(jobFamily);
 			if (currentJob != null && (jobFamily == null || currentJob.belongsTo(jobFamily))) {
 				currentJob.cancel();
 
@@ -129,6 +177,33 @@ public abstract class JobManager implements Runnable {
 		if (VERBOSE)
 			Util.verbose("DISCARD   DONE with background job family - " + jobFamily); //$NON-NLS-1$
 	}
+	/*
+	 * Cancels concurrent jobs of the given family and waits until they have finished.
+	 * A job running in the shared pool doesn't wait: the jobs may be queued in the pool behind the caller, or the caller
+	 * may be one of them, so they are only cancelled and finish on their own.
+	 */
+	private void cancelConcurrentJobs(String jobFamily) {
+		List<IJob> cancelled = new ArrayList<>();
+		synchronized (this) {
+			for (IJob job : this.concurrentJobs) {
+				if (jobFamily == null || job.belongsTo(jobFamily)) {
+					job.cancel();
+					cancelled.add(job);
+				}
+			}
+			if (POOL_JOB.get() != null)
+				return;
+			try {
+				while (!cancelled.isEmpty()) {
+					cancelled.retainAll(this.concurrentJobs);
+					if (!cancelled.isEmpty())
+						wait(); // finished jobs notify
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
 	public synchronized void enable() {
 		this.enableCount++;
 		if (VERBOSE)
@@ -195,8 +270,10 @@ public abstract class JobManager implements Runnable {
 							Util.verbose("-> NOT READY - forcing immediate - " + searchJob);//$NON-NLS-1$
 						try {
 							disable(); // pause indexing
+							FORCED_SEARCH.set(Boolean.TRUE);
 							status = searchJob.execute(progress == null ? null : new SubProgressMonitor(progress, concurrentJobWork));
 						} finally {
+							FORCED_SEARCH.remove();
 							enable();
 						}
 						if (VERBOSE)
@@ -402,6 +479,11 @@ public abstract class JobManager implements Runnable {
 						Thread.sleep(500);
 						continue;
 					}
+					if (isConcurrent(job)) {
+						executeConcurrently(job);
+						continue;
+					}
+					awaitConcurrentJobs();
 					if (VERBOSE) {
 						Util.verbose(awaitingJobsCount() + " awaiting jobs"); //$NON-NLS-1$
 						Util.verbose("STARTING background job - " + job); //$NON-NLS-1$
@@ -451,6 +533,49 @@ public abstract class JobManager implements Runnable {
 			throw e;
 		}
 	}
+	/*
+	 * Takes the current job out of the queue and runs it in the shared pool.
+	 * Blocks while this manager already has MAX_MANAGER_JOBS jobs running so one project can't occupy the whole pool,
+	 * or while an equal job (same container) is still running.
+	 */
+	private void executeConcurrently(final IJob job) throws InterruptedException {
+		synchronized (this) {
+			while ((this.concurrentJobs.size() >= MAX_MANAGER_JOBS || this.concurrentJobs.contains(job)) && this.processingThread != null)
+				wait();
+			// the queue may have been discarded while waiting
+			if (this.processingThread == null || currentJob() != job) return;
+			this.concurrentJobs.add(job);
+			moveToNextJob();
+		}
+		if (VERBOSE)
+			Util.verbose("STARTING concurrent background job - " + job); //$NON-NLS-1$
+		POOL.execute(new Runnable() {
+			@Override
+			public void run() {
+				POOL_JOB.set(job);
+				try {
+					job.execute(null);
+				} catch (RuntimeException e) {
+					Util.log(e, "Background Indexer Crash Recovery"); //$NON-NLS-1$
+				} finally {
+					POOL_JOB.remove();
+					if (VERBOSE)
+						Util.verbose("FINISHED concurrent background job - " + job); //$NON-NLS-1$
+					synchronized (JobManager.this) {
+						JobManager.this.concurrentJobs.remove(job);
+						JobManager.this.notifyAll();
+					}
+				}
+			}
+		});
+	}
+	/*
+	 * Waits until all jobs running in the shared pool are done.
+	 */
+	private synchronized void awaitConcurrentJobs() throws InterruptedException {
+		while (!this.concurrentJobs.isEmpty() && this.processingThread != null)
+			wait();
+	}
 	/**
 	 * Stop background processing, and wait until the current job is completed before returning
 	 */
@@ -1273,6 +1273,15 @@ public class Util {
         return copy;
     }
 
+    /** Converts bytes, e.g. a digest, to a string of lower case hexadecimal digits, two per byte. */
+    public static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
     /** Converts a char[][] to String, where segments are separated by '.'. */
     public static String toString(char[][] c) {
         StringBuffer sb = new StringBuffer();
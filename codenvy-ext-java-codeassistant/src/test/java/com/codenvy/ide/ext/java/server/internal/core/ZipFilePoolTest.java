@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Testing {@link ZipFilePool} functionality.
+ */
+public class ZipFilePoolTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ZipFilePool pool;
+    private String      first;
+    private String      second;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new ZipFilePool(1);
+        first = writeArchive("first.jar", 1);
+        second = writeArchive("second.jar", 2);
+    }
+
+    @Test
+    public void shouldShareOpenArchive() throws Exception {
+        ZipFile zipFile = pool.acquire(first);
+
+        assertSame(zipFile, pool.acquire(first));
+        assertEquals(1, pool.getOpenCount());
+        assertEquals(1, pool.getReferencedCount());
+        assertEquals(1, pool.getEntryCount(first));
+    }
+
+    @Test
+    public void shouldKeepReleasedArchiveOpen() throws Exception {
+        ZipFile zipFile = pool.acquire(first);
+        pool.acquire(first);
+
+        pool.release(zipFile);
+        pool.release(zipFile);
+
+        assertEquals(1, pool.getOpenCount());
+        assertEquals(0, pool.getReferencedCount());
+        assertSame(zipFile, pool.acquire(first));
+    }
+
+    @Test
+    public void shouldNotCloseReferencedArchivesOnTrim() throws Exception {
+        ZipFile firstZip = pool.acquire(first);
+        ZipFile secondZip = pool.acquire(second);
+
+        assertEquals(2, pool.getOpenCount());
+        pool.release(secondZip);
+
+        assertEquals(1, pool.getOpenCount());
+        assertEquals(0, pool.getEntryCount(second));
+        assertEquals(1, firstZip.size());
+        assertClosed(secondZip);
+    }
+
+    @Test
+    public void shouldCloseLeastRecentlyUsedArchiveOnTrim() throws Exception {
+        pool.setMaxOpen(2);
+        pool.release(pool.acquire(first));
+        pool.release(pool.acquire(second));
+        pool.release(pool.acquire(first));
+
+        pool.setMaxOpen(1);
+
+        assertEquals(1, pool.getEntryCount(first));
+        assertEquals(0, pool.getEntryCount(second));
+    }
+
+    @Test
+    public void shouldReopenChangedArchiveAndCloseReplacedOneOnRelease() throws Exception {
+        ZipFile old = pool.acquire(first);
+        writeArchive("first.jar", 3);
+        new File(first).setLastModified(System.currentTimeMillis() + 10000);
+        // changes are checked at most once a second
+        Thread.sleep(1100);
+
+        ZipFile changed = pool.acquire(first);
+
+        assertNotSame(old, changed);
+        assertEquals(3, changed.size());
+        assertEquals(2, pool.getOpenCount());
+        assertEquals(1, old.size());
+        pool.release(old);
+        assertClosed(old);
+        assertEquals(1, pool.getOpenCount());
+        assertEquals(3, pool.getEntryCount(first));
+    }
+
+    @Test
+    public void shouldCloseOnlyUnreferencedArchivesOnFlush() throws Exception {
+        pool.setMaxOpen(2);
+        ZipFile firstZip = pool.acquire(first);
+        pool.release(pool.acquire(second));
+
+        pool.flush();
+
+        assertEquals(1, pool.getOpenCount());
+        assertEquals(1, firstZip.size());
+    }
+
+    private String writeArchive(String name, int entries) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < entries; i++) {
+                out.putNextEntry(new ZipEntry("Entry" + i + ".class"));
+                out.write(new byte[]{(byte)i});
+                out.closeEntry();
+            }
+        }
+        return file.getPath();
+    }
+
+    private static void assertClosed(ZipFile zipFile) {
+        try {
+            zipFile.size();
+            fail("Archive must be closed");
+        } catch (IllegalStateException e) {
+            // closed
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.builder;
+
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testing {@link ClassFileReaderCache} functionality.
+ */
+public class ClassFileReaderCacheTest {
+    /* same as the limit of the cache */
+    private static final long MAX_SIZE = 16 * 1024 * 1024;
+
+    private ClassFileReader reader;
+    private String          jar;
+
+    @Before
+    public void setUp() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = getClass().getResourceAsStream(getClass().getSimpleName() + ".class")) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        reader = new ClassFileReader(bytes.toByteArray(), "ClassFileReaderCacheTest.class".toCharArray());
+        // the cache is node-wide, each test uses its own jar path
+        jar = new File(System.getProperty("java.home"), "lib/" + UUID.randomUUID() + ".jar").getPath();
+    }
+
+    @Test
+    public void shouldCacheOnlyJreLibraries() throws Exception {
+        assertTrue(ClassFileReaderCache.isCached(new File(System.getProperty("java.home"), "lib/rt.jar").getCanonicalPath()));
+        assertFalse(ClassFileReaderCache.isCached("/projects/lib/library.jar"));
+    }
+
+    @Test
+    public void shouldReturnReaderOfTheSameJarVersion() {
+        ClassFileReaderCache.put(jar, 1000, "java/lang/Object.class", reader);
+
+        assertSame(reader, ClassFileReaderCache.get(jar, 1000, "java/lang/Object.class"));
+        assertNull(ClassFileReaderCache.get(jar, 1000, "java/lang/String.class"));
+    }
+
+    @Test
+    public void shouldNotReturnReaderOfChangedJar() {
+        ClassFileReaderCache.put(jar, 1000, "java/lang/Object.class", reader);
+
+        assertNull(ClassFileReaderCache.get(jar, 2000, "java/lang/Object.class"));
+    }
+
+    @Test
+    public void shouldDropLeastRecentlyUsedReadersWhenFull() {
+        ClassFileReaderCache.put(jar, 1000, "Old.class", reader);
+        ClassFileReaderCache.put(jar, 1000, "Used.class", reader);
+
+        long count = MAX_SIZE / reader.getReferenceBytes().length + 1;
+        for (int i = 0; i < count; i++) {
+            assertSame(reader, ClassFileReaderCache.get(jar, 1000, "Used.class"));
+            ClassFileReaderCache.put(jar, 1000, "Type" + i + ".class", reader);
+        }
+
+        assertNull(ClassFileReaderCache.get(jar, 1000, "Old.class"));
+        assertSame(reader, ClassFileReaderCache.get(jar, 1000, "Used.class"));
+        assertSame(reader, ClassFileReaderCache.get(jar, 1000, "Type" + (count - 1) + ".class"));
+    }
+}
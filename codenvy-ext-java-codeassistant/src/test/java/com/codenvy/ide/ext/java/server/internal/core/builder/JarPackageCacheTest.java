@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.builder;
+
+import org.eclipse.jdt.internal.compiler.util.SimpleSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testing {@link JarPackageCache} functionality.
+ */
+public class JarPackageCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private String jar;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("packages");
+        JarPackageCache.setDirectory(directory);
+        // entries are node-wide, each test uses its own jar paths
+        jar = new File(folder.getRoot(), "lib.jar").getPath();
+    }
+
+    @After
+    public void tearDown() {
+        JarPackageCache.setDirectory(null);
+    }
+
+    @Test
+    public void shouldReturnPackagesOfTheSameJarVersion() {
+        SimpleSet packages = packages("", "org", "org/example");
+
+        JarPackageCache.put(jar, 1000, 10, packages);
+
+        assertSame(packages, JarPackageCache.get(jar, 1000, 10));
+    }
+
+    @Test
+    public void shouldNotReturnPackagesOfChangedJar() {
+        JarPackageCache.put(jar, 1000, 10, packages("", "org"));
+
+        assertNull(JarPackageCache.get(jar, 2000, 10));
+        assertNull(JarPackageCache.get(jar, 1000, 20));
+    }
+
+    @Test
+    public void shouldReplacePackagesOfChangedJar() {
+        JarPackageCache.put(jar, 1000, 10, packages("", "org"));
+        SimpleSet packages = packages("", "com");
+
+        JarPackageCache.put(jar, 2000, 10, packages);
+
+        assertSame(packages, JarPackageCache.get(jar, 2000, 10));
+        assertNull(JarPackageCache.get(jar, 1000, 10));
+    }
+
+    @Test
+    public void shouldStorePackagesOfEachJarInOwnFile() {
+        JarPackageCache.put(jar, 1000, 10, packages("", "org"));
+        JarPackageCache.put(new File(folder.getRoot(), "other.jar").getPath(), 1000, 10, packages("", "com"));
+
+        File[] files = directory.listFiles();
+
+        assertNotNull(files);
+        assertEquals(2, files.length);
+        for (File file : files) {
+            assertTrue(file.getName(), file.getName().matches("[0-9a-f]{40}\\.packages"));
+        }
+    }
+
+    private static SimpleSet packages(String... names) {
+        SimpleSet packages = new SimpleSet(names.length);
+        for (String name : names) {
+            packages.add(name);
+        }
+        return packages;
+    }
+}
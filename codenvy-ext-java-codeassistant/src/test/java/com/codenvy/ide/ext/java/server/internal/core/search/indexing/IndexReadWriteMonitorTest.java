@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.indexing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testing {@link IndexReadWriteMonitor} functionality.
+ */
+public class IndexReadWriteMonitorTest {
+    private IndexReadWriteMonitor monitor = new IndexReadWriteMonitor();
+
+    @Test
+    public void shouldNotEnterReadWhileWritten() {
+        monitor.enterWrite();
+
+        assertFalse(monitor.tryEnterRead());
+        monitor.exitWrite();
+        assertTrue(monitor.tryEnterRead());
+    }
+
+    @Test
+    public void shouldEnterReadWithOtherReaders() {
+        monitor.enterRead();
+
+        assertTrue(monitor.tryEnterRead());
+        monitor.exitRead();
+        monitor.exitRead();
+    }
+
+    @Test
+    public void shouldNotEnterReadAfterReaderStartedWriting() {
+        monitor.enterRead();
+        assertTrue(monitor.exitReadEnterWrite());
+
+        assertFalse(monitor.tryEnterRead());
+        monitor.exitWriteEnterRead();
+        assertTrue(monitor.tryEnterRead());
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.indexing;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.internal.core.index.FileIndexLocation;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.index.IndexLocation;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testing {@link LibraryIndexStore} functionality.
+ */
+public class LibraryIndexStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LibraryIndexStore store;
+    private File              jar;
+    private IndexLocation     location;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new LibraryIndexStore(folder.newFolder("store").getPath());
+        jar = writeJar("lib.jar", "content");
+        Index index = new Index(new FileIndexLocation(new File(folder.getRoot(), "lib.index")), jar.getPath(), false);
+        store.store(new Path(jar.getPath()), index);
+        location = store.getIndexLocation(new Path(jar.getPath()));
+    }
+
+    @Test
+    public void shouldStoreIndexOfJar() throws Exception {
+        assertNotNull(location);
+        assertTrue(store.isStoreLocation(location));
+        assertFalse(store.isStoreLocation(new FileIndexLocation(new File(folder.getRoot(), "lib.index"))));
+    }
+
+    @Test
+    public void shouldFindIndexOfJarWithTheSameContent() throws Exception {
+        File copy = writeJar("copy.jar", "content");
+
+        IndexLocation copyLocation = store.getIndexLocation(new Path(copy.getPath()));
+
+        assertNotNull(copyLocation);
+        assertEquals(location.getIndexFile(), copyLocation.getIndexFile());
+    }
+
+    @Test
+    public void shouldNotFindIndexOfChangedJar() throws Exception {
+        IPath jarPath = new Path(writeJar("lib.jar", "changed content").getPath());
+
+        assertNull(store.getIndexLocation(jarPath));
+    }
+
+    @Test
+    public void shouldShareIndexOfTheSameContainer() throws Exception {
+        Index first = store.acquire(location, jar.getPath());
+        Index second = store.acquire(location, jar.getPath());
+
+        assertSame(first, second);
+        assertTrue(store.isShared(first));
+    }
+
+    @Test
+    public void shouldNotShareIndexOfOtherContainer() throws Exception {
+        Index first = store.acquire(location, jar.getPath());
+        Index second = store.acquire(location, "/other/lib.jar");
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void shouldKeepIndexUntilLastRelease() throws Exception {
+        Index index = store.acquire(location, jar.getPath());
+        store.acquire(location, jar.getPath());
+
+        assertTrue(store.release(index));
+        assertTrue(store.isShared(index));
+        assertTrue(store.release(index));
+        assertFalse(store.isShared(index));
+    }
+
+    @Test
+    public void shouldCreateNewIndexAfterDiscard() throws Exception {
+        Index index = store.acquire(location, jar.getPath());
+        store.release(index);
+
+        Index acquired = store.acquire(location, jar.getPath());
+
+        assertNotSame(index, acquired);
+        assertTrue(store.isShared(acquired));
+        assertTrue(location.getIndexFile().exists());
+    }
+
+    @Test
+    public void shouldNotReleaseIndexOfOtherOwner() throws Exception {
+        Index own = new Index(new FileIndexLocation(new File(folder.getRoot(), "own.index")), jar.getPath(), false);
+
+        assertFalse(store.release(own));
+        assertFalse(store.isShared(own));
+    }
+
+    private File writeJar(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.matching;
+
+import org.eclipse.jdt.internal.codeassist.ISearchRequestor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testing package lookups of {@link ClasspathSourceDirectory} after packages are added and removed and while caches are
+ * cleaned up.
+ */
+public class ClasspathSourceDirectoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File                     sourceFolder;
+    private ClasspathSourceDirectory directory;
+
+    @Before
+    public void setUp() throws Exception {
+        sourceFolder = folder.newFolder("src");
+        writeSource("com/example/a/A.java");
+        writeSource("com/example/b/B.java");
+        writeSource("org/other/C.java");
+        directory = new ClasspathSourceDirectory(sourceFolder, null, null);
+    }
+
+    @Test
+    public void shouldFindPackagesByPrefix() {
+        assertEquals(packages("com.example", "com.example.a", "com.example.b"), findPackages("com", "ex"));
+        assertEquals(packages("org", "org.other"), findPackages("org"));
+    }
+
+    @Test
+    public void shouldFindAddedPackages() throws Exception {
+        findPackages("com");
+        File added = new File(sourceFolder, "com/example/c");
+        writeSource("com/example/c/d/D.java");
+
+        directory.invalidate(added);
+
+        assertEquals(packages("com.example", "com.example.a", "com.example.b", "com.example.c", "com.example.c.d"),
+                     findPackages("com", "ex"));
+        assertTrue(directory.isCachedPackage(new File(sourceFolder, "com/example/c/d")));
+    }
+
+    @Test
+    public void shouldNotFindRemovedPackages() throws Exception {
+        findPackages("com");
+        File removed = new File(sourceFolder, "com/example/b");
+        assertTrue(directory.isCachedPackage(removed));
+        delete(removed);
+
+        directory.invalidate(removed);
+
+        assertEquals(packages("com.example", "com.example.a"), findPackages("com", "ex"));
+        assertFalse(directory.isCachedPackage(removed));
+        assertNull(directory.findClass("B", "com/example/b", "com/example/b/B"));
+    }
+
+    @Test
+    public void shouldKeepPackageOfRemovedSource() throws Exception {
+        findPackages("com");
+        assertNotNull(directory.findClass("A", "com/example/a", "com/example/a/A"));
+        File removed = new File(sourceFolder, "com/example/a/A.java");
+        delete(removed);
+
+        directory.invalidate(removed);
+
+        assertNull(directory.findClass("A", "com/example/a", "com/example/a/A"));
+        assertEquals(packages("com.example", "com.example.a", "com.example.b"), findPackages("com", "ex"));
+    }
+
+    @Test
+    public void shouldFindAddedSource() throws Exception {
+        assertNull(directory.findClass("E", "com/example/a", "com/example/a/E"));
+        File added = writeSource("com/example/a/E.java");
+
+        directory.invalidate(added);
+
+        assertNotNull(directory.findClass("E", "com/example/a", "com/example/a/E"));
+    }
+
+    @Test
+    public void shouldFindClassesWhileCleanedUpConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Callable<Boolean> lookup = new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    for (int i = 0; i < 1000; i++) {
+                        if (!directory.isPackage("com/example/a")
+                            || directory.findClass("A", "com/example/a", "com/example/a/A") == null) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            };
+            Future<Boolean> first = executor.submit(lookup);
+            Future<Boolean> second = executor.submit(lookup);
+            Future<?> cleanup = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        directory.cleanup();
+                    }
+                }
+            });
+
+            cleanup.get();
+            assertTrue(first.get());
+            assertTrue(second.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Set<String> findPackages(String... prefix) {
+        ISearchRequestor requestor = mock(ISearchRequestor.class);
+        directory.findPackages(prefix, requestor);
+        ArgumentCaptor<char[]> captor = ArgumentCaptor.forClass(char[].class);
+        verify(requestor, atLeast(0)).acceptPackage(captor.capture());
+        Set<String> packages = new HashSet<>();
+        for (char[] name : captor.getAllValues()) {
+            packages.add(new String(name));
+        }
+        return packages;
+    }
+
+    private static Set<String> packages(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    private File writeSource(String path) throws IOException {
+        File file = new File(sourceFolder, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        String name = file.getName().substring(0, file.getName().indexOf('.'));
+        Files.write(file.toPath(), ("class " + name + " {}").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void delete(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        Files.delete(file.toPath());
+    }
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.server.internal.core.search.processing;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.internal.core.search.processing.IJob;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testing jobs of {@link JobManager} which run in the shared pool.
+ */
+public class JobManagerTest {
+    private static final long TIMEOUT = 10;
+
+    private TestJobManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new TestJobManager();
+        manager.reset();
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    public void shouldRunConcurrentJobsInParallelUpToLimitOfManager() throws Exception {
+        TestJob[] jobs = new TestJob[JobManager.MAX_MANAGER_JOBS];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = new TestJob("a", true);
+            manager.request(jobs[i]);
+        }
+        TestJob waiting = new TestJob("a", true);
+        waiting.release.countDown();
+
+        manager.request(waiting);
+
+        for (TestJob job : jobs) {
+            assertTrue(job.started.await(TIMEOUT, TimeUnit.SECONDS));
+        }
+        assertFalse(waiting.started.await(500, TimeUnit.MILLISECONDS));
+        jobs[0].release.countDown();
+        assertTrue(waiting.finished.await(TIMEOUT, TimeUnit.SECONDS));
+        for (TestJob job : jobs) {
+            job.release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldLeavePoolThreadsForOtherManagers() throws Exception {
+        TestJob[] jobs = new TestJob[JobManager.MAX_MANAGER_JOBS];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = new TestJob("a", true);
+            manager.request(jobs[i]);
+        }
+        TestJobManager other = new TestJobManager();
+        other.reset();
+        try {
+            TestJob job = new TestJob("b", true);
+            job.release.countDown();
+
+            other.request(job);
+
+            assertTrue(job.finished.await(TIMEOUT, TimeUnit.SECONDS));
+        } finally {
+            other.shutdown();
+            for (TestJob running : jobs) {
+                running.release.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void shouldRunOtherJobsAfterConcurrentJobs() throws Exception {
+        TestJob concurrent = new TestJob("a", true);
+        TestJob job = new TestJob("b", false);
+        job.release.countDown();
+
+        manager.request(concurrent);
+        manager.request(job);
+
+        assertTrue(concurrent.started.await(TIMEOUT, TimeUnit.SECONDS));
+        assertFalse(job.started.await(500, TimeUnit.MILLISECONDS));
+        concurrent.release.countDown();
+        assertTrue(job.finished.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldWaitForCancelledConcurrentJobs() throws Exception {
+        TestJob job = new TestJob("a", true);
+        manager.request(job);
+        assertTrue(job.started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        manager.discardJobs("a");
+
+        assertTrue(job.cancelled);
+        assertEquals(0, job.finished.getCount());
+    }
+
+    @Test
+    public void shouldKeepConcurrentJobsOfOtherFamilies() throws Exception {
+        TestJob job = new TestJob("a", true);
+        manager.request(job);
+        assertTrue(job.started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        manager.discardJobs("b");
+
+        assertFalse(job.cancelled);
+        job.release.countDown();
+        assertTrue(job.finished.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotWaitForConcurrentJobsInPoolThread() throws Exception {
+        final TestJob running = new TestJob("a", true);
+        TestJob discarding = new TestJob("b", true) {
+            @Override
+            void run() {
+                // running job doesn't finish until it's cancelled, waiting for it here would block
+                manager.discardJobs(null);
+            }
+        };
+        manager.request(running);
+        assertTrue(running.started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        manager.request(discarding);
+
+        assertTrue(discarding.finished.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(running.cancelled);
+        assertTrue(discarding.cancelled);
+        assertTrue(running.finished.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    private static class TestJobManager extends JobManager {
+        @Override
+        public String processName() {
+            return "Test job manager";
+        }
+
+        @Override
+        protected boolean isConcurrent(IJob job) {
+            return ((TestJob)job).concurrent;
+        }
+    }
+
+    /** Runs until it's released or cancelled. */
+    private static class TestJob implements IJob {
+        final String         family;
+        final boolean        concurrent;
+        final CountDownLatch started  = new CountDownLatch(1);
+        final CountDownLatch release  = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile boolean cancelled;
+
+        TestJob(String family, boolean concurrent) {
+            this.family = family;
+            this.concurrent = concurrent;
+        }
+
+        void run() {
+        }
+
+        @Override
+        public boolean belongsTo(String jobFamily) {
+            return family.equals(jobFamily);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void ensureReadyToRun() {
+        }
+
+        @Override
+        public boolean execute(IProgressMonitor progress) {
+            started.countDown();
+            try {
+                run();
+                while (!cancelled && !release.await(10, TimeUnit.MILLISECONDS)) {
+                    // wait
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+            return true;
+        }
+
+        @Override
+        public String getJobFamily() {
+            return family;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import com.codenvy.ide.api.selection.SelectionAgent;
 import com.codenvy.ide.collections.Array;
 import com.codenvy.ide.collections.Collections;
 import com.codenvy.ide.ext.java.client.JavaUtils;
+import com.codenvy.ide.ext.java.client.editor.JavaParserWorker;
 import com.codenvy.ide.ext.java.client.projecttree.PackageNode;
 import com.codenvy.ide.ext.java.client.projecttree.SourceFolderNode;
 import com.codenvy.ide.rest.AsyncRequestCallback;
@@ -38,15 +39,17 @@ public class NewJavaSourceFilePresenter implements NewJavaSourceFileView.ActionD
     private SelectionAgent        selectionAgent;
     private ProjectServiceClient  projectServiceClient;
     private EventBus              eventBus;
+    private JavaParserWorker      parserWorker;
     private Array<JavaSourceFileType> sourceFileTypes = Collections.createArray();
 
     @Inject
     public NewJavaSourceFilePresenter(NewJavaSourceFileView view, SelectionAgent selectionAgent, ProjectServiceClient projectServiceClient,
-                                      EventBus eventBus) {
+                                      EventBus eventBus, JavaParserWorker parserWorker) {
         this.view = view;
         this.selectionAgent = selectionAgent;
         this.projectServiceClient = projectServiceClient;
         this.eventBus = eventBus;
+        this.parserWorker = parserWorker;
 
         this.view.setDelegate(this);
         sourceFileTypes.add(JavaSourceFileType.CLASS);
@@ -114,10 +117,13 @@ public class NewJavaSourceFilePresenter implements NewJavaSourceFileView.ActionD
         createSourceFile(name, parent, getPackageName(parent) + "public enum " + name + DEFAULT_CONTENT);
     }
 
-    private void createSourceFile(String name, FolderNode parent, String content) {
+    private void createSourceFile(final String name, final FolderNode parent, String content) {
         projectServiceClient.createFile(parent.getPath(), name + ".java", content, null, new AsyncRequestCallback<Void>() {
             @Override
             protected void onSuccess(Void result) {
+                // the name may be already known as missing to the parser
+                String packageName = getQualifiedPackageName(parent);
+                parserWorker.removeFanFromCache(packageName.isEmpty() ? name : packageName + '.' + name);
                 eventBus.fireEvent(new RefreshProjectTreeEvent());
             }
 
@@ -132,6 +138,13 @@ public class NewJavaSourceFilePresenter implements NewJavaSourceFileView.ActionD
         if (parent instanceof SourceFolderNode) {
             return "\n";
         }
+        return "package " + getQualifiedPackageName(parent) + ";\n\n";
+    }
+
+    private String getQualifiedPackageName(FolderNode parent) {
+        if (parent instanceof SourceFolderNode) {
+            return "";
+        }
 
         String packageName = parent.getName();
         AbstractTreeNode<?> parentNode = parent.getParent();
@@ -139,7 +152,6 @@ public class NewJavaSourceFilePresenter implements NewJavaSourceFileView.ActionD
             packageName = ((PackageNode)parentNode).getName() + '.' + packageName;
             parentNode = parentNode.getParent();
         }
-
-        return "package " + packageName + ";\n\n";
+        return packageName;
     }
 }
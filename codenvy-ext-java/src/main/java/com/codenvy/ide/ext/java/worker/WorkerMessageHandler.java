@@ -123,6 +123,9 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
             @Override
             public void onMessageReceived(RemoveFqnMessage message) {
                 WorkerTypeInfoStorage.get().removeFqn(message.fqn());
+                if (nameEnvironment != null) {
+                    nameEnvironment.removeCachedTypes(message.fqn());
+                }
             }
         });
 
@@ -166,6 +169,7 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
             public void onMessageReceived(DependenciesUpdatedMessage message) {
                 if(nameEnvironment != null) {
                     nameEnvironment.clearBlackList();
+                    nameEnvironment.dependenciesUpdated();
                 }
             }
         });
@@ -281,39 +285,49 @@ public class WorkerMessageHandler implements MessageHandler, MessageFilter.Messa
             @Override
             public void onSuccess() {
                 nameEnvironment.setProjectPath(message.projectPath());
-                cuVar = new CUVariables(message.fileName(), message.packageName(), projectName);
-
-                ASTParser parser = ASTParser.newParser(AST.JLS3);
-                parser.setSource(message.source());
-                parser.setKind(ASTParser.K_COMPILATION_UNIT);
-                parser.setUnitName(message.fileName().substring(0, message.fileName().lastIndexOf('.')));
-                parser.setResolveBindings(true);
-                parser.setNameEnvironment(nameEnvironment);
-                ASTNode ast = parser.createAST();
-                CompilationUnit unit = (CompilationUnit)ast;
-                workerCodeAssist.setCu(unit);
-                correctionProcessor.setCu(unit);
-                IProblem[] problems = unit.getProblems();
-                MessagesImpls.ProblemsMessageImpl problemsMessage = MessagesImpls.ProblemsMessageImpl.make();
-                JsoArray<Problem> problemsArray = JsoArray.create();
-                for (IProblem p : problems) {
-                    problemsArray.add(convertProblem(p));
-                }
-                IProblem[] tasks = (IProblem[])unit.getProperty("tasks");
-                if (tasks != null) {
-                    for (IProblem p : tasks) {
-                        problemsArray.add(convertProblem(p));
+                nameEnvironment.loadCachedTypes(new Runnable() {
+                    @Override
+                    public void run() {
+                        parse(message);
                     }
-                }
-                problemsMessage.setProblems(problemsArray);
-                problemsMessage.setId(message.id());
-                worker.sendMessage(problemsMessage.serialize());
-                outlineModelUpdater.onCompilationUnitChanged(unit, message.filePath());
+                });
             }
         });
 
     }
 
+    private void parse(ParseMessage message) {
+        nameEnvironment.prefetch(message.fileName(), message.source(), message.packageName());
+        cuVar = new CUVariables(message.fileName(), message.packageName(), projectName);
+
+        ASTParser parser = ASTParser.newParser(AST.JLS3);
+        parser.setSource(message.source());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setUnitName(message.fileName().substring(0, message.fileName().lastIndexOf('.')));
+        parser.setResolveBindings(true);
+        parser.setNameEnvironment(nameEnvironment);
+        ASTNode ast = parser.createAST();
+        CompilationUnit unit = (CompilationUnit)ast;
+        workerCodeAssist.setCu(unit);
+        correctionProcessor.setCu(unit);
+        IProblem[] problems = unit.getProblems();
+        MessagesImpls.ProblemsMessageImpl problemsMessage = MessagesImpls.ProblemsMessageImpl.make();
+        JsoArray<Problem> problemsArray = JsoArray.create();
+        for (IProblem p : problems) {
+            problemsArray.add(convertProblem(p));
+        }
+        IProblem[] tasks = (IProblem[])unit.getProperty("tasks");
+        if (tasks != null) {
+            for (IProblem p : tasks) {
+                problemsArray.add(convertProblem(p));
+            }
+        }
+        problemsMessage.setProblems(problemsArray);
+        problemsMessage.setId(message.id());
+        worker.sendMessage(problemsMessage.serialize());
+        outlineModelUpdater.onCompilationUnitChanged(unit, message.filePath());
+    }
+
     private MessagesImpls.ProblemImpl convertProblem(IProblem p) {
         MessagesImpls.ProblemImpl problem = MessagesImpls.ProblemImpl.make();
         DefaultProblem prop = (DefaultProblem)p;
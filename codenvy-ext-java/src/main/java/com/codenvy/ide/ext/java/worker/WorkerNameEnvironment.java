@@ -13,16 +13,26 @@ package com.codenvy.ide.ext.java.worker;
 import com.codenvy.ide.collections.Array;
 import com.codenvy.ide.collections.Jso;
 import com.codenvy.ide.collections.js.JsoArray;
+import com.codenvy.ide.ext.java.jdt.core.compiler.CharOperation;
+import com.codenvy.ide.ext.java.jdt.core.compiler.InvalidInputException;
+import com.codenvy.ide.ext.java.jdt.core.search.IJavaSearchConstants;
 import com.codenvy.ide.ext.java.jdt.internal.codeassist.ISearchRequestor;
+import com.codenvy.ide.ext.java.jdt.internal.compiler.env.IBinaryType;
 import com.codenvy.ide.ext.java.jdt.internal.compiler.env.INameEnvironment;
 import com.codenvy.ide.ext.java.jdt.internal.compiler.env.NameEnvironmentAnswer;
+import com.codenvy.ide.ext.java.jdt.internal.compiler.parser.Scanner;
+import com.codenvy.ide.ext.java.jdt.internal.compiler.parser.TerminalTokens;
 import com.codenvy.ide.ext.java.worker.env.BinaryType;
 import com.codenvy.ide.ext.java.worker.env.Util;
 import com.codenvy.ide.ext.java.worker.env.json.BinaryTypeJso;
+import com.codenvy.ide.ext.java.worker.env.json.CompactTypeDecoder;
 import com.google.gwt.core.client.JavaScriptObject;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -35,11 +45,25 @@ import java.util.Set;
  */
 public class WorkerNameEnvironment implements INameEnvironment {
 
+    /** Max number of types asked by one prefetch request. */
+    private static final int MAX_PREFETCH_TYPES = 300;
+    /** Max number of types and constructors returned by one search request, the best ranked are returned. */
+    private static final int MAX_SEARCH_RESULTS = 300;
+
     private static Set<String> packages = new HashSet<>();
     protected String restServiceContext;
     private   String projectPath;
     private Set<String> blackListTypes = new HashSet<>();
     private Set<String> blackListPackages = new HashSet<>();
+    private WorkerTypeInfoCache typeInfoCache = new WorkerTypeInfoCache();
+    /* fingerprint of dependencies of the project at projectPath, null if it has to be requested */
+    private String dependenciesFingerprint;
+    /* comma separated packages of the last prefetched source and of its imports, their types are ranked higher by searches */
+    private String preferredPackages = "";
+    /* prefetched files of the current project by file name */
+    private Map<String, PrefetchedFile> prefetchedFiles = new HashMap<>();
+    /* last prefetched file, its missing types aren't asked again while it's parsed */
+    private PrefetchedFile currentFile;
 
     /**
      *
@@ -49,9 +73,56 @@ public class WorkerNameEnvironment implements INameEnvironment {
     }
 
     public void setProjectPath(String projectPath) {
+        if (projectPath != null && !projectPath.equals(this.projectPath)) {
+            dependenciesFingerprint = null;
+            clearPrefetchedFiles();
+        }
         this.projectPath = projectPath;
     }
 
+    /**
+     * Loads persisted types of the current project, then runs the callback.
+     * The cache is keyed by dependencies fingerprint, so it's requested once per project.
+     */
+    public void loadCachedTypes(Runnable callback) {
+        if (projectPath == null) {
+            callback.run();
+            return;
+        }
+        if (dependenciesFingerprint == null) {
+            dependenciesFingerprint = runSyncRequest(restServiceContext + "/dependencies-fingerprint?projectpath=" + projectPath);
+            if (dependenciesFingerprint == null) {
+                callback.run();
+                return;
+            }
+        }
+        typeInfoCache.load(restServiceContext + projectPath, dependenciesFingerprint, callback);
+    }
+
+    /**
+     * Removes types which fqn starts with the given one from the persistent cache. Called when a type is changed or created,
+     * so the type is asked again even if it was missing before.
+     */
+    public void removeCachedTypes(String fqn) {
+        typeInfoCache.remove(fqn);
+        blackListTypes.remove(fqn);
+        // removed types have to be asked again
+        clearPrefetchedFiles();
+    }
+
+    private void clearPrefetchedFiles() {
+        prefetchedFiles.clear();
+        currentFile = null;
+    }
+
+    /** Forgets the types persisted for the current project, its dependencies were changed. */
+    public void dependenciesUpdated() {
+        if (projectPath != null) {
+            typeInfoCache.clear(restServiceContext + projectPath);
+        }
+        dependenciesFingerprint = null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NameEnvironmentAnswer findType(char[][] compoundTypeName) {
@@ -62,7 +133,7 @@ public class WorkerNameEnvironment implements INameEnvironment {
         b.deleteCharAt(b.length() - 1);
 
         final String key = validateFqn(b);
-        if(blackListTypes.contains(key)){
+        if (blackListTypes.contains(key) || isMissingInCurrentFile(key)) {
             return null;
         }
         if (WorkerTypeInfoStorage.get().containsKey(key)) {
@@ -80,13 +151,10 @@ public class WorkerNameEnvironment implements INameEnvironment {
             if (builder.length() > 1) builder.deleteCharAt(builder.length() - 1);
             String url =
                     restServiceContext + "/findTypeCompound?compoundTypeName=" + builder.toString() + "&projectpath=" +
-                    projectPath;
+                    projectPath + '&' + CompactTypeDecoder.FORMAT;
             String result = runSyncRequest(url);
             if (result != null) {
-                Jso jso = Jso.deserialize(result);
-                BinaryType type = new BinaryType(jso.<BinaryTypeJso>cast());
-                WorkerTypeInfoStorage.get().putType(key, type);
-
+                BinaryType type = putType(key, CompactTypeDecoder.decode(Jso.deserialize(result)));
                 return new NameEnvironmentAnswer(type, null);
             } else {
                 blackListTypes.add(key);
@@ -96,6 +164,17 @@ public class WorkerNameEnvironment implements INameEnvironment {
         return null;
     }
 
+    private boolean isMissingInCurrentFile(String fqn) {
+        return currentFile != null && currentFile.missingTypes.contains(fqn);
+    }
+
+    private BinaryType putType(String key, BinaryTypeJso jso) {
+        BinaryType type = new BinaryType(jso);
+        WorkerTypeInfoStorage.get().putType(key, type);
+        typeInfoCache.put(key, jso);
+        return type;
+    }
+
     private String validateFqn(StringBuilder builder) {
         if (builder.indexOf("<") != -1) {
             builder.setLength(builder.indexOf("<"));
@@ -116,7 +195,7 @@ public class WorkerNameEnvironment implements INameEnvironment {
         }
         b.append(typeName);
         final String key = validateFqn(b);
-        if(blackListTypes.contains(key)){
+        if (blackListTypes.contains(key) || isMissingInCurrentFile(key)) {
             return null;
         }
         if (WorkerTypeInfoStorage.get().containsKey(key)) {
@@ -135,13 +214,10 @@ public class WorkerNameEnvironment implements INameEnvironment {
 
             String url =
                     restServiceContext + "/findType?packagename=" + builder.toString() + "&typename=" + new String(typeName) +
-                    "&projectpath=" + projectPath;
+                    "&projectpath=" + projectPath + '&' + CompactTypeDecoder.FORMAT;
             String result = runSyncRequest(url);
             if (result != null) {
-                Jso jso = Jso.deserialize(result);
-                BinaryType type = new BinaryType(jso.<BinaryTypeJso>cast());
-                WorkerTypeInfoStorage.get().putType(key, type);
-
+                BinaryType type = putType(key, CompactTypeDecoder.decode(Jso.deserialize(result)));
                 return new NameEnvironmentAnswer(type, null);
             } else {
                 blackListTypes.add(key);
@@ -200,6 +276,202 @@ public class WorkerNameEnvironment implements INameEnvironment {
     public void cleanup() {
     }
 
+    /**
+     * Resolves types and packages referenced by imports of the given source and the types its capitalized simple names may refer to
+     * (in the same package, in <code>java.lang</code> and in on-demand imports) with one request.
+     * Parsing of the source then finds almost everything in {@link WorkerTypeInfoStorage}, in the black lists or in the types
+     * missing for this file. Missing guesses are kept per file, so a type created later under such name is found.
+     * Unchanged source of an already prefetched file isn't tokenized again, names already asked for the file aren't asked again.
+     */
+    public void prefetch(String fileName, String source, String packageName) {
+        if (projectPath == null) {
+            return;
+        }
+        PrefetchedFile prefetched = prefetchedFiles.get(fileName);
+        if (prefetched != null && prefetched.source.equals(source)) {
+            preferredPackages = prefetched.preferredPackages;
+            currentFile = prefetched;
+            return;
+        }
+        if (prefetched == null) {
+            prefetched = new PrefetchedFile();
+            prefetchedFiles.put(fileName, prefetched);
+        }
+        currentFile = prefetched;
+        prefetched.source = source;
+        Set<String> typeNames = new HashSet<>();
+        Set<String> packageNames = new HashSet<>();
+        Set<String> onDemandImports = new HashSet<>();
+        Set<String> importedSimpleNames = new HashSet<>();
+        Set<String> simpleNames = new HashSet<>();
+        Scanner scanner = new Scanner();
+        scanner.setSource(source.toCharArray());
+        try {
+            int token;
+            while ((token = scanner.getNextToken()) != TerminalTokens.TokenNameEOF) {
+                if (token == TerminalTokens.TokenNameimport) {
+                    readImport(scanner, typeNames, packageNames, onDemandImports, importedSimpleNames);
+                } else if (token == TerminalTokens.TokenNameIdentifier) {
+                    char[] identifier = scanner.getCurrentIdentifierSource();
+                    if (Character.isUpperCase(identifier[0])) {
+                        simpleNames.add(new String(identifier));
+                    }
+                }
+            }
+        } catch (InvalidInputException e) {
+            // source can't be tokenized, parser reports the problem, prefetch what is already collected
+        }
+        setPreferredPackages(packageName, typeNames, onDemandImports);
+        prefetched.preferredPackages = preferredPackages;
+
+        String prefix = packageName == null || packageName.isEmpty() ? "" : packageName + '.';
+        for (String simpleName : simpleNames) {
+            if (importedSimpleNames.contains(simpleName)) {
+                continue;
+            }
+            typeNames.add(prefix + simpleName);
+            typeNames.add("java.lang." + simpleName);
+            for (String onDemandImport : onDemandImports) {
+                typeNames.add(onDemandImport + '.' + simpleName);
+            }
+        }
+        typeNames.removeAll(prefetched.types);
+        packageNames.removeAll(prefetched.packages);
+
+        JsoArray<String> types = JsoArray.create();
+        for (String typeName : typeNames) {
+            if (types.size() < MAX_PREFETCH_TYPES && !blackListTypes.contains(typeName) && !packages.contains(typeName)
+                && !WorkerTypeInfoStorage.get().containsKey(typeName)) {
+                types.add(typeName);
+            }
+        }
+        JsoArray<String> packs = JsoArray.create();
+        for (String name : packageNames) {
+            if (!packages.contains(name) && !blackListPackages.contains(name)) {
+                packs.add(name);
+            }
+        }
+        if (types.size() == 0 && packs.size() == 0) {
+            return;
+        }
+
+        Jso request = Jso.create();
+        request.addField("types", types);
+        request.addField("packages", packs);
+        String url = restServiceContext + "/findTypesAndPackages?projectpath=" + projectPath + '&' + CompactTypeDecoder.FORMAT;
+        String result = runSyncPostRequest(url, stringify(request));
+        if (result == null) {
+            return;
+        }
+        for (String name : types.asIterable()) {
+            prefetched.types.add(name);
+        }
+        for (String name : packs.asIterable()) {
+            prefetched.packages.add(name);
+        }
+        Jso response = Jso.deserialize(result);
+        JsoArray<Jso> foundTypes = response.getJsObjectField("types").cast();
+        for (Jso jso : foundTypes.asIterable()) {
+            String name = jso.getStringField("name");
+            JavaScriptObject type = jso.getJsObjectField("type");
+            if (type != null) {
+                putType(name, CompactTypeDecoder.decode(type));
+            } else {
+                // most of the names are guesses, they are kept out of the black list of the compiler
+                prefetched.missingTypes.add(name);
+            }
+        }
+        JsoArray<Jso> foundPackages = response.getJsObjectField("packages").cast();
+        for (Jso jso : foundPackages.asIterable()) {
+            if (jso.getBooleanField("exists")) {
+                packages.add(jso.getStringField("name"));
+            } else {
+                blackListPackages.add(jso.getStringField("name"));
+            }
+        }
+    }
+
+    /** Last prefetched source of a file, its preferred packages, the names already asked for it and the types not found. */
+    private static class PrefetchedFile {
+        String      source;
+        String      preferredPackages;
+        Set<String> types        = new HashSet<>();
+        Set<String> packages     = new HashSet<>();
+        Set<String> missingTypes = new HashSet<>();
+    }
+
+    /** Collects the source package and packages of its imports, <code>importedTypes</code> must contain only imported types. */
+    private void setPreferredPackages(String packageName, Set<String> importedTypes, Set<String> onDemandImports) {
+        Set<String> preferred = new HashSet<>(onDemandImports);
+        if (packageName != null && !packageName.isEmpty()) {
+            preferred.add(packageName);
+        }
+        for (String typeName : importedTypes) {
+            int lastDot = typeName.lastIndexOf('.');
+            if (lastDot > 0) {
+                preferred.add(typeName.substring(0, lastDot));
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (String name : preferred) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(name);
+        }
+        preferredPackages = builder.toString();
+    }
+
+    private void readImport(Scanner scanner, Set<String> typeNames, Set<String> packageNames, Set<String> onDemandImports,
+                            Set<String> importedSimpleNames) throws InvalidInputException {
+        boolean isStatic = false;
+        boolean isOnDemand = false;
+        StringBuilder name = new StringBuilder();
+        int token;
+        while ((token = scanner.getNextToken()) != TerminalTokens.TokenNameSEMICOLON) {
+            switch (token) {
+                case TerminalTokens.TokenNamestatic:
+                    isStatic = true;
+                    break;
+                case TerminalTokens.TokenNameIdentifier:
+                    name.append(scanner.getCurrentIdentifierSource());
+                    break;
+                case TerminalTokens.TokenNameDOT:
+                    name.append('.');
+                    break;
+                case TerminalTokens.TokenNameMULTIPLY:
+                    isOnDemand = true;
+                    break;
+                default:
+                    // malformed import
+                    return;
+            }
+        }
+        if (isOnDemand && name.length() > 0) {
+            name.setLength(name.length() - 1);
+        }
+        String importName = name.toString();
+        int lastDot = importName.lastIndexOf('.');
+        if (importName.isEmpty() || isStatic && !isOnDemand && lastDot < 0) {
+            return;
+        }
+        String qualifiedName;
+        if (isOnDemand && !isStatic) {
+            onDemandImports.add(importName);
+            packageNames.add(importName);
+            qualifiedName = importName;
+        } else {
+            qualifiedName = isStatic && !isOnDemand ? importName.substring(0, lastDot) : importName;
+            typeNames.add(qualifiedName);
+            if (!isStatic) {
+                importedSimpleNames.add(importName.substring(lastDot + 1));
+            }
+        }
+        for (int i = qualifiedName.indexOf('.'); i > 0; i = qualifiedName.indexOf('.', i + 1)) {
+            packageNames.add(qualifiedName.substring(0, i));
+        }
+    }
+
     /**
      * Must be used only by CompletionEngine. The progress monitor is used to be able to cancel completion operations
      * <p/>
@@ -213,7 +485,7 @@ public class WorkerNameEnvironment implements INameEnvironment {
 
         String url =
                 restServiceContext + "/findConstructor" + "?prefix=" + new String(prefix) + "&camelcase=" + camelCaseMatch
-                + "&projectpath=" + projectPath;
+                + "&projectpath=" + projectPath + "&limit=" + MAX_SEARCH_RESULTS + "&packages=" + preferredPackages;
         String cons = runSyncRequest(url);
         if (cons != null) {
             JsoArray<Jso> constructors = Jso.deserialize(cons).cast();
@@ -278,6 +550,26 @@ public class WorkerNameEnvironment implements INameEnvironment {
         return xmlhttp;
     }-*/;
 
+    private String runSyncPostRequest(String url, String body) {
+        XmlHttpWraper xmlhttp = nativeRunSyncPostRequest(url, body);
+        if (xmlhttp.getStatusCode() == 200) {
+            return xmlhttp.getResponseText();
+        }
+        return null;
+    }
+
+    private native XmlHttpWraper nativeRunSyncPostRequest(String url, String body)/*-{
+        var xmlhttp = new XMLHttpRequest();
+        xmlhttp.open("POST", url, false);
+        xmlhttp.setRequestHeader("Content-Type", "application/json");
+        xmlhttp.send(body);
+        return xmlhttp;
+    }-*/;
+
+    private native String stringify(JavaScriptObject jso)/*-{
+        return JSON.stringify(jso);
+    }-*/;
+
     /**
      * Must be used only by CompletionEngine. The progress monitor is used to be able to cancel completion operations
      * <p/>
@@ -296,20 +588,16 @@ public class WorkerNameEnvironment implements INameEnvironment {
         if (qualifiedName.length == 0) {
             return;
         }
+        Set<String> accepted = new HashSet<>();
+        if (CharOperation.indexOf('.', qualifiedName) == -1 && searchFor == IJavaSearchConstants.TYPE) {
+            acceptStoredTypes(WorkerTypeInfoStorage.get().getTypesBySimpleName(new String(qualifiedName), camelCaseMatch), null,
+                              requestor, accepted);
+        }
         String url =
                 restServiceContext + "/findTypes" + "?qualifiedname=" + new String(qualifiedName) + "&camelcase=" + camelCaseMatch
                 + "&findmembers=" + findMembers + "&searchfor=" + searchFor
-                + "&projectpath=" + projectPath;
-        String res = runSyncRequest(url);
-        if (res != null) {
-            JsoArray<Jso> types = Jso.deserialize(res).cast();
-            for (Jso jso : types.asIterable()) {
-                char[][] enclosingTypeNames = Util.arrayStringToCharArray((Array<String>)jso.getJsObjectField("enclosingTypeNames"));
-                requestor.acceptType(jso.getStringField("packageName").toCharArray(), jso.getStringField("typeName").toCharArray(),
-                                     enclosingTypeNames, jso.getIntField("modifiers"), null);
-            }
-        }
-
+                + "&projectpath=" + projectPath + "&limit=" + MAX_SEARCH_RESULTS + "&packages=" + preferredPackages;
+        acceptFoundTypes(runSyncRequest(url), requestor, accepted);
     }
 
     /**
@@ -330,24 +618,63 @@ public class WorkerNameEnvironment implements INameEnvironment {
         if (missingSimpleName.length == 0) {
             return;
         }
+        Set<String> accepted = new HashSet<>();
+        if (searchFor == IJavaSearchConstants.TYPE) {
+            String simpleName = new String(missingSimpleName);
+            acceptStoredTypes(WorkerTypeInfoStorage.get().getTypesBySimpleName(simpleName, false), simpleName, storage, accepted);
+        }
         String url =
                 restServiceContext + "/findExactTypes" + "?missingsimplename=" + new String(missingSimpleName)
                 + "&findmembers=" + findMembers + "&searchfor=" + searchFor
                 + "&projectpath=" + projectPath;
-        String res = runSyncRequest(url);
-        if (res != null) {
-            JsoArray<Jso> types = Jso.deserialize(res).cast();
-            for (Jso jso : types.asIterable()) {
-                char[][] enclosingTypeNames = Util.arrayStringToCharArray((Array<String>)jso.getJsObjectField("enclosingTypeNames"));
-                storage.acceptType(jso.getStringField("packageName").toCharArray(), jso.getStringField("typeName").toCharArray(),
-                                     enclosingTypeNames, jso.getIntField("modifiers"), null);
+        acceptFoundTypes(runSyncRequest(url), storage, accepted);
+    }
+
+    /**
+     * Passes top level types already loaded by the worker to the requestor, so completion gets them without waiting for the server.
+     * If <code>exactName</code> is not <code>null</code> only types with that simple name are passed.
+     */
+    private void acceptStoredTypes(List<IBinaryType> types, String exactName, ISearchRequestor requestor, Set<String> accepted) {
+        for (IBinaryType type : types) {
+            if (type.isMember() || type.isLocal() || type.isAnonymous()) {
+                continue;
+            }
+            String fqn = new String(type.getName()).replace('/', '.');
+            int lastDot = fqn.lastIndexOf('.');
+            String simpleName = fqn.substring(lastDot + 1);
+            if (exactName != null && !exactName.equals(simpleName)) {
+                continue;
+            }
+            if (accepted.add(fqn)) {
+                String packageName = lastDot == -1 ? "" : fqn.substring(0, lastDot);
+                requestor.acceptType(packageName.toCharArray(), simpleName.toCharArray(), CharOperation.NO_CHAR_CHAR,
+                                     type.getModifiers(), null);
+            }
+        }
+    }
+
+    /** Passes types found by the server to the requestor, skipping the ones already passed from the worker storage. */
+    private void acceptFoundTypes(String res, ISearchRequestor requestor, Set<String> accepted) {
+        if (res == null) {
+            return;
+        }
+        JsoArray<Jso> types = Jso.deserialize(res).cast();
+        for (Jso jso : types.asIterable()) {
+            char[][] enclosingTypeNames = Util.arrayStringToCharArray((Array<String>)jso.getJsObjectField("enclosingTypeNames"));
+            String packageName = jso.getStringField("packageName");
+            String typeName = jso.getStringField("typeName");
+            if (enclosingTypeNames == null && accepted.contains(packageName.isEmpty() ? typeName : packageName + '.' + typeName)) {
+                continue;
             }
+            requestor.acceptType(packageName.toCharArray(), typeName.toCharArray(), enclosingTypeNames, jso.getIntField("modifiers"),
+                                 null);
         }
     }
 
     public void clearBlackList() {
         blackListPackages.clear();
         blackListTypes.clear();
+        clearPrefetchedFiles();
     }
 
     private static final class XmlHttpWraper extends JavaScriptObject {
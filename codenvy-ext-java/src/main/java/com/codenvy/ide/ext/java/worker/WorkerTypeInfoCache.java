@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.worker;
+
+import com.codenvy.ide.ext.java.worker.env.BinaryType;
+import com.codenvy.ide.ext.java.worker.env.json.BinaryTypeJso;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * IndexedDB backed cache of library types, survives worker restarts.
+ * <p/>
+ * Types are stored under <code>project key + '#' + dependencies fingerprint + '|' + fqn</code>, so changed dependencies of a project
+ * never hit types of the old dependency set. Only types loaded from class files are stored, source types change too often.
+ * <p/>
+ * Loading types of a project drops its types stored for other fingerprints. Time of the last loading of each project key and
+ * fingerprint is stored too, types of projects not loaded for {@link #MAX_AGE} are dropped when the database is opened.
+ */
+public class WorkerTypeInfoCache {
+
+    private static final String DB_NAME    = "codenvy-java-types";
+    /** Must be incremented when format of the type JSON or of the stores changes. */
+    private static final int    DB_VERSION = 2;
+    private static final String STORE      = "types";
+    /** Max time in milliseconds since the last loading of types of a project and fingerprint. */
+    private static final double MAX_AGE    = 30d * 24 * 60 * 60 * 1000;
+
+    private JavaScriptObject db;
+    private String           cacheKey;
+    private String           loadedKey;
+
+    /**
+     * Loads types cached for the given project and dependencies into {@link WorkerTypeInfoStorage}, then runs the callback.
+     * Callback runs at once if the types are already loaded, or if IndexedDB isn't available.
+     */
+    public void load(String projectKey, String fingerprint, Runnable callback) {
+        cacheKey = projectKey + '#' + fingerprint;
+        if (cacheKey.equals(loadedKey)) {
+            callback.run();
+            return;
+        }
+        loadedKey = cacheKey;
+        if (db != null) {
+            nativeUse(db, projectKey, cacheKey);
+            nativeLoad(db, cacheKey + '|', callback);
+        } else {
+            nativeOpen(DB_NAME, DB_VERSION, STORE, projectKey, cacheKey, callback);
+        }
+    }
+
+    /** Stores type loaded from the server, source types are ignored. */
+    public void put(String fqn, BinaryTypeJso type) {
+        if (db != null && cacheKey != null && type.getFileName() != null) {
+            nativePut(db, cacheKey + '|' + fqn, type);
+        }
+    }
+
+    /** Removes types which fqn starts with the given one. */
+    public void remove(String fqn) {
+        if (db != null && cacheKey != null) {
+            nativeDelete(db, cacheKey + '|' + fqn, cacheKey + '|' + fqn + '\uffff');
+        }
+    }
+
+    /** Removes all types of the project, for any set of dependencies. */
+    public void clear(String projectKey) {
+        if (db != null) {
+            nativeDelete(db, projectKey + '#', projectKey + "#\uffff");
+            nativeDeleteProjects(db, projectKey + '#', projectKey + "#\uffff");
+        }
+        loadedKey = null;
+        cacheKey = null;
+    }
+
+    private void onOpened(JavaScriptObject db) {
+        this.db = db;
+    }
+
+    private void onLoaded(String key, BinaryTypeJso type) {
+        String fqn = key.substring(key.indexOf('|') + 1);
+        if (!WorkerTypeInfoStorage.get().containsKey(fqn)) {
+            WorkerTypeInfoStorage.get().putType(fqn, new BinaryType(type));
+        }
+    }
+
+    private native void nativeOpen(String name, int version, String store, String projectKey, String key, Runnable callback) /*-{
+        var instance = this;
+        if (typeof indexedDB === "undefined") {
+            callback.@java.lang.Runnable::run()();
+            return;
+        }
+        var request = indexedDB.open(name, version);
+        request.onupgradeneeded = function () {
+            var db = request.result;
+            if (db.objectStoreNames.contains(store)) {
+                db.deleteObjectStore(store);
+            }
+            if (db.objectStoreNames.contains("projects")) {
+                db.deleteObjectStore("projects");
+            }
+            db.createObjectStore(store);
+            db.createObjectStore("projects");
+        };
+        request.onsuccess = function () {
+            var db = request.result;
+            instance.@com.codenvy.ide.ext.java.worker.WorkerTypeInfoCache::onOpened(*)(db);
+            var maxAge = @com.codenvy.ide.ext.java.worker.WorkerTypeInfoCache::MAX_AGE;
+            instance.@com.codenvy.ide.ext.java.worker.WorkerTypeInfoCache::nativeExpire(*)(db, maxAge);
+            instance.@com.codenvy.ide.ext.java.worker.WorkerTypeInfoCache::nativeUse(*)(db, projectKey, key);
+            instance.@com.codenvy.ide.ext.java.worker.WorkerTypeInfoCache::nativeLoad(*)(db, key + "|", callback);
+        };
+        request.onerror = function () {
+            callback.@java.lang.Runnable::run()();
+        };
+    }-*/;
+
+    private native void nativeLoad(JavaScriptObject db, String prefix, Runnable callback) /*-{
+        var instance = this;
+        var cursorRequest = db.transaction("types", "readonly").objectStore("types")
+            .openCursor(IDBKeyRange.bound(prefix, prefix + "\uffff"));
+        cursorRequest.onsuccess = function () {
+            var cursor = cursorRequest.result;
+            if (cursor) {
+                instance.@com.codenvy.ide.ext.java.worker.WorkerTypeInfoCache::onLoaded(*)(cursor.key, cursor.value);
+                cursor["continue"]();
+            } else {
+                callback.@java.lang.Runnable::run()();
+            }
+        };
+        cursorRequest.onerror = function () {
+            callback.@java.lang.Runnable::run()();
+        };
+    }-*/;
+
+    private native void nativePut(JavaScriptObject db, String key, JavaScriptObject type) /*-{
+        db.transaction("types", "readwrite").objectStore("types").put(type, key);
+    }-*/;
+
+    private native void nativeDelete(JavaScriptObject db, String from, String to) /*-{
+        db.transaction("types", "readwrite").objectStore("types")["delete"](IDBKeyRange.bound(from, to));
+    }-*/;
+
+    private native void nativeDeleteProjects(JavaScriptObject db, String from, String to) /*-{
+        db.transaction("projects", "readwrite").objectStore("projects")["delete"](IDBKeyRange.bound(from, to));
+    }-*/;
+
+    /** Drops types of other fingerprints of the project and records time of use of the given project key and fingerprint. */
+    private native void nativeUse(JavaScriptObject db, String projectKey, String key) /*-{
+        var transaction = db.transaction(["types", "projects"], "readwrite");
+        var types = transaction.objectStore("types");
+        types["delete"](IDBKeyRange.bound(projectKey + "#", key + "|", false, true));
+        types["delete"](IDBKeyRange.bound(key + "|\uffff", projectKey + "#\uffff", true, false));
+        var projects = transaction.objectStore("projects");
+        projects["delete"](IDBKeyRange.bound(projectKey + "#", projectKey + "#\uffff"));
+        projects.put(Date.now(), key);
+    }-*/;
+
+    /** Drops types of project keys and fingerprints which weren't used for the given time. */
+    private native void nativeExpire(JavaScriptObject db, double maxAge) /*-{
+        var transaction = db.transaction(["types", "projects"], "readwrite");
+        var types = transaction.objectStore("types");
+        var now = Date.now();
+        var cursorRequest = transaction.objectStore("projects").openCursor();
+        cursorRequest.onsuccess = function () {
+            var cursor = cursorRequest.result;
+            if (cursor) {
+                if (now - cursor.value > maxAge) {
+                    types["delete"](IDBKeyRange.bound(cursor.key + "|", cursor.key + "|\uffff"));
+                    cursor["delete"]();
+                }
+                cursor["continue"]();
+            }
+        };
+    }-*/;
+}
@@ -10,17 +10,20 @@
  *******************************************************************************/
 package com.codenvy.ide.ext.java.worker;
 
-import com.codenvy.ide.collections.js.JsoArray;
 import com.codenvy.ide.ext.java.jdt.core.IType;
 import com.codenvy.ide.ext.java.jdt.core.Signature;
+import com.codenvy.ide.ext.java.jdt.core.compiler.CharOperation;
 import com.codenvy.ide.ext.java.jdt.core.search.Type;
 import com.codenvy.ide.ext.java.jdt.internal.compiler.env.IBinaryType;
 import com.codenvy.ide.ext.java.worker.env.BinaryType;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * @author <a href="mailto:evidolob@codenvy.com">Evgen Vidolob</a>
@@ -30,7 +33,10 @@ public class WorkerTypeInfoStorage {
 
     private static WorkerTypeInfoStorage instance;
 
-    private Map<String, IBinaryType> storage = new HashMap<String, IBinaryType>();
+    /* sorted by fqn, types of a package or nested types of a type are a contiguous range */
+    private TreeMap<String, IBinaryType> storage    = new TreeMap<String, IBinaryType>();
+    /* key = lower case simple name, value = fqns of the types with that simple name */
+    private TreeMap<String, Set<String>> simpleNames = new TreeMap<String, Set<String>>();
     private String shortTypesInfo;
 
     public static WorkerTypeInfoStorage get() {
@@ -41,7 +47,18 @@ public class WorkerTypeInfoStorage {
     }
 
     public void putType(String key, IBinaryType type) {
-        storage.put(key, type);
+        if (storage.put(key, type) == null) {
+            String simpleName = Signature.getSimpleName(key);
+            if (!simpleName.equals(key)) {
+                String indexKey = simpleName.toLowerCase();
+                Set<String> fqns = simpleNames.get(indexKey);
+                if (fqns == null) {
+                    fqns = new HashSet<String>();
+                    simpleNames.put(indexKey, fqns);
+                }
+                fqns.add(key);
+            }
+        }
     }
 
     public IBinaryType getType(String key) {
@@ -60,17 +77,26 @@ public class WorkerTypeInfoStorage {
 //        storage.setItem(SHORT_TYPE_INFO, info);
 //    }
 
-    public List<IBinaryType> getTypesByNamePrefix(String prefix, boolean fqnPart) {
+    /**
+     * Returns types which simple name starts with the pattern ignoring case or, if <code>camelCase</code> is <code>true</code>,
+     * matches it as CamelCase pattern, e.g. <code>NPE</code> or <code>NuPoEx</code> for <code>NullPointerException</code>.
+     */
+    public List<IBinaryType> getTypesBySimpleName(String pattern, boolean camelCase) {
         List<IBinaryType> res = new ArrayList<IBinaryType>();
-        for (String key : storage.keySet()) {
-            if (fqnPart && !key.startsWith(prefix)) {
-                continue;
-            } else {
-                String simpleName = Signature.getSimpleName(key);
-                if (simpleName.equals(key) || !simpleName.startsWith(prefix))
-                    continue;
+        if (pattern.isEmpty()) {
+            return res;
+        }
+        String lowerCasePattern = pattern.toLowerCase();
+        char[] patternChars = pattern.toCharArray();
+        // CamelCase matches start with the same letter, so only that part of the index is visited
+        String range = camelCase ? lowerCasePattern.substring(0, 1) : lowerCasePattern;
+        for (Map.Entry<String, Set<String>> entry : withPrefix(simpleNames, range).entrySet()) {
+            boolean prefixMatch = entry.getKey().startsWith(lowerCasePattern);
+            for (String fqn : entry.getValue()) {
+                if (prefixMatch || CharOperation.camelCaseMatch(patternChars, Signature.getSimpleName(fqn).toCharArray())) {
+                    res.add(storage.get(fqn));
+                }
             }
-            res.add(storage.get(key));
         }
         return res;
     }
@@ -88,16 +114,20 @@ public class WorkerTypeInfoStorage {
         return shortTypesInfo;
     }
 
+    /** Removes types which fqn starts with the given one, e.g. all types of a package. */
     public void removeFqn(String fqn) {
-        JsoArray<String> fqnToRemove = JsoArray.create();
-        for (String key : storage.keySet()) {
-            if (key.startsWith(fqn)) {
-                fqnToRemove.add(key);
+        SortedMap<String, IBinaryType> removed = withPrefix(storage, fqn);
+        for (String key : removed.keySet()) {
+            String indexKey = Signature.getSimpleName(key).toLowerCase();
+            Set<String> fqns = simpleNames.get(indexKey);
+            if (fqns != null && fqns.remove(key) && fqns.isEmpty()) {
+                simpleNames.remove(indexKey);
             }
         }
+        removed.clear();
+    }
 
-        for (String key : fqnToRemove.asIterable()) {
-            storage.remove(key);
-        }
+    private static <V> SortedMap<String, V> withPrefix(TreeMap<String, V> map, String prefix) {
+        return map.subMap(prefix, prefix + Character.MAX_VALUE);
     }
 }
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2014 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package com.codenvy.ide.ext.java.worker.env.json;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Expands types sent by the server in the compact format (see <code>CompactTypeWriter</code> on the server side)
+ * into the same objects the JSON format produces, so {@link BinaryTypeJso} and friends read both.
+ */
+public class CompactTypeDecoder {
+
+    /** Format parameter to add to type requests. */
+    public static final String FORMAT = "format=compact";
+
+    private static final int VERSION = 1;
+
+    /**
+     * Returns type described by the parsed response, responses in JSON format are returned as is.
+     */
+    public static BinaryTypeJso decode(JavaScriptObject response) {
+        return nativeDecode(response, VERSION);
+    }
+
+    private static native BinaryTypeJso nativeDecode(JavaScriptObject response, int version) /*-{
+        if (!Array.isArray(response)) {
+            return response;
+        }
+        if (response[0] !== version) {
+            throw new Error("Unsupported type format version " + response[0]);
+        }
+        var table = response[2];
+
+        function str(i) {
+            return i ? table[i - 1] : null;
+        }
+
+        function strs(a) {
+            if (!a) return null;
+            var res = [];
+            for (var i = 0; i < a.length; i++) res.push(str(a[i]));
+            return res;
+        }
+
+        function list(a, f) {
+            if (!a) return null;
+            var res = [];
+            for (var i = 0; i < a.length; i++) res.push(f(a[i]));
+            return res;
+        }
+
+        function tagBits(t) {
+            return typeof t === "string" ? t : String(t);
+        }
+
+        function constant(c) {
+            if (!c) return null;
+            var res = {typeId: c[0], value: c.length > 1 ? c[1] : null};
+            // double without value is NotAConstant
+            if (c[0] === 8 && c.length === 1) {
+                res.value = "NaN";
+                res.NotAConstant = 1;
+            }
+            return res;
+        }
+
+        function annotations(a) {
+            return list(a, annotation);
+        }
+
+        function annotation(a) {
+            return {
+                typeName: str(a[0]),
+                elementValuePairs: list(a[1], function (p) {
+                    return {name: str(p[0]), value: value(p[1])};
+                })
+            };
+        }
+
+        function value(v) {
+            if (!v) return null;
+            switch (v[0]) {
+                case 1:
+                    return {constant: constant(v[1])};
+                case 2:
+                    return {"class": str(v[1])};
+                case 3:
+                    return {annotation: annotation(v[1])};
+                case 4:
+                    return {"enum": {typeName: str(v[1]), constantName: str(v[2])}};
+                case 5:
+                    return {array: list(v[1], value)};
+                default:
+                    return {};
+            }
+        }
+
+        function field(f) {
+            return {
+                modifiers: f[0],
+                tagBits: tagBits(f[1]),
+                name: str(f[2]),
+                typeName: str(f[3]),
+                genericSignature: str(f[4]),
+                constant: constant(f[5]),
+                annotations: annotations(f[6])
+            };
+        }
+
+        function method(m) {
+            return {
+                constructor: (m[0] & 1) !== 0,
+                clinit: (m[0] & 2) !== 0,
+                modifiers: m[1],
+                tagBits: tagBits(m[2]),
+                selector: str(m[3]),
+                methodDescriptor: str(m[4]),
+                genericSignature: str(m[5]),
+                argumentNames: strs(m[6]),
+                exceptionTypeNames: strs(m[7]),
+                annotations: annotations(m[8]),
+                parameterAnnotations: list(m[9], annotations),
+                defaultValue: value(m[10])
+            };
+        }
+
+        function memberType(t) {
+            return {modifiers: t[0], name: str(t[1]), enclosingTypeName: str(t[2])};
+        }
+
+        var t = response[1];
+        return {
+            anonymous: (t[0] & 1) !== 0,
+            local: (t[0] & 2) !== 0,
+            member: (t[0] & 4) !== 0,
+            binaryType: (t[0] & 8) !== 0,
+            modifiers: t[1],
+            tagBits: tagBits(t[2]),
+            name: str(t[3]),
+            sourceName: str(t[4]),
+            superclassName: str(t[5]),
+            enclosingTypeName: str(t[6]),
+            enclosingMethod: str(t[7]),
+            genericSignature: str(t[8]),
+            sourceFileName: str(t[9]),
+            fileName: str(t[10]),
+            interfaceNames: strs(t[11]),
+            annotations: annotations(t[12]),
+            fields: list(t[13], field),
+            methods: list(t[14], method),
+            memberTypes: list(t[15], memberType),
+            missingTypeNames: list(t[16], strs)
+        };
+    }-*/;
+}
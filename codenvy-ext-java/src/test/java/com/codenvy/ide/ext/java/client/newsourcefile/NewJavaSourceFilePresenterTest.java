@@ -15,6 +15,7 @@ import com.codenvy.ide.api.projecttree.AbstractTreeNode;
 import com.codenvy.ide.api.selection.Selection;
 import com.codenvy.ide.api.selection.SelectionAgent;
 import com.codenvy.ide.collections.Array;
+import com.codenvy.ide.ext.java.client.editor.JavaParserWorker;
 import com.codenvy.ide.ext.java.client.projecttree.PackageNode;
 import com.codenvy.ide.ext.java.client.projecttree.SourceFolderNode;
 import com.codenvy.ide.rest.AsyncRequestCallback;
@@ -61,6 +62,8 @@ public class NewJavaSourceFilePresenterTest {
     private SelectionAgent             selectionAgent;
     @Mock
     private ProjectServiceClient       projectServiceClient;
+    @Mock
+    private JavaParserWorker           parserWorker;
     @InjectMocks
     private NewJavaSourceFilePresenter presenter;
     @Mock
@@ -156,6 +159,32 @@ public class NewJavaSourceFilePresenterTest {
         verify(eventBus).fireEvent(Matchers.<Event<Object>>anyObject());
     }
 
+    @Test
+    public void shouldRemoveCreatedTypeFromParserCaches() throws Exception {
+        Selection selection = mock(Selection.class);
+        when(selection.getFirstElement()).thenReturn(codenvyPackage);
+        when(selectionAgent.getSelection()).thenReturn(selection);
+        when(view.getName()).thenReturn(FILE_NAME);
+        when(view.getSelectedType()).thenReturn(JavaSourceFileType.CLASS);
+
+        presenter.onOkClicked();
+
+        verify(parserWorker).removeFanFromCache(PACKAGE_NAME + '.' + FILE_NAME);
+    }
+
+    @Test
+    public void shouldRemoveCreatedTypeOfDefaultPackageFromParserCaches() throws Exception {
+        Selection selection = mock(Selection.class);
+        when(selection.getFirstElement()).thenReturn(srcFolder);
+        when(selectionAgent.getSelection()).thenReturn(selection);
+        when(view.getName()).thenReturn(FILE_NAME);
+        when(view.getSelectedType()).thenReturn(JavaSourceFileType.CLASS);
+
+        presenter.onOkClicked();
+
+        verify(parserWorker).removeFanFromCache(FILE_NAME);
+    }
+
     @Test
     public void shouldCreateInterfaceInsideSourceFolder() throws Exception {
         Selection selection = mock(Selection.class);